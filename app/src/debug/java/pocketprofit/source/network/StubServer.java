@@ -0,0 +1,290 @@
+package com.pocketprofit.source.network;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.android.volley.Header;
+import com.android.volley.Request;
+import com.android.volley.toolbox.BaseHttpStack;
+import com.android.volley.toolbox.HttpResponse;
+import com.pocketprofit.source.ServerConfig;
+import com.pocketprofit.source.Startup;
+import com.pocketprofit.source.Util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Stands in for the PocketProfit server in debug builds, so that the network-bound screens can be
+ * measured without access to the server: every request is answered with a recorded response
+ * (from the stub/ assets of the debug build) after a configurable latency, and a configurable
+ * share of the requests fail. The number of requests per endpoint and the time at which every
+ * response was served are logged, next to the phases logged by Startup.
+ * Once the portfolio has loaded, the requests made so far and the time it took are checked
+ * against the budgets given with the launch, and the app fails with an AssertionError if one was
+ * exceeded or a request was made to an endpoint without a recorded response.
+ *
+ * Part of the debug build only, installed by StubServerInstaller when the app is launched with
+ * EXTRA_ENABLED, e.g.
+ * adb shell am start -n com.pocketprofit/.source.activities.MainActivity \
+ *     --ez com.pocketprofit.STUB_SERVER true --ei com.pocketprofit.STUB_LATENCY 300 \
+ *     --ef com.pocketprofit.STUB_FAILURE_RATE 0.1 \
+ *     --es com.pocketprofit.STUB_MAX_REQUESTS quote.json=5,chart_5y.json=0 \
+ *     --ei com.pocketprofit.STUB_MAX_TIME_TO_CONTENT 2000
+ * Stored responses are served before the stub is asked, clear the app's data for a cold run.
+ */
+public final class StubServer extends BaseHttpStack {
+    public static final String TAG = "StubServer";
+
+    public static final String EXTRA_ENABLED = "com.pocketprofit.STUB_SERVER";
+    // latency (ms) of every response, and the most (ms) that is randomly added to it.
+    public static final String EXTRA_LATENCY = "com.pocketprofit.STUB_LATENCY";
+    public static final String EXTRA_JITTER = "com.pocketprofit.STUB_JITTER";
+    // share (0 - 1) of the requests that fail, half of them with a server error and half of them
+    // with a timeout.
+    public static final String EXTRA_FAILURE_RATE = "com.pocketprofit.STUB_FAILURE_RATE";
+    // most requests per recorded response (e.g. "quote.json=5,chart_5y.json=0") and most time
+    // (ms since the start of the process) until the portfolio has loaded.
+    public static final String EXTRA_MAX_REQUESTS = "com.pocketprofit.STUB_MAX_REQUESTS";
+    public static final String EXTRA_MAX_TIME_TO_CONTENT =
+            "com.pocketprofit.STUB_MAX_TIME_TO_CONTENT";
+
+    private static final String ASSET_DIRECTORY = "stub/";
+
+    // responses containing this placeholder are served with the symbol of the request.
+    private static final String SYMBOL_PLACEHOLDER = "{symbol}";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Context mContext;
+    private final long mLatency;
+    private final long mJitter;
+    private final double mFailureRate;
+    private final Random mRandom = new Random();
+    private final long mInstalledAt = SystemClock.elapsedRealtime();
+
+    // endpoint url -> name of the asset holding its recorded response.
+    private final Map<String, String> mRoutes = new LinkedHashMap<String, String>();
+
+    // endpoint asset -> number of requests made to it.
+    private final Map<String, Integer> mRequestCounts = new LinkedHashMap<String, Integer>();
+    private int mFailures;
+    private int mUnrouted;
+
+    // recorded response -> most requests made to it until the portfolio has loaded, and the most
+    // time (ms) it may take to load, 0 for no limit.
+    private final Map<String, Integer> mMaxRequests;
+    private final long mMaxTimeToContent;
+
+    private StubServer(Context context, long latency, long jitter, double failureRate,
+                       Map<String, Integer> maxRequests, long maxTimeToContent) {
+        mContext = context.getApplicationContext();
+        mLatency = latency;
+        mJitter = jitter;
+        mFailureRate = failureRate;
+        mMaxRequests = maxRequests;
+        mMaxTimeToContent = maxTimeToContent;
+
+        mRoutes.put(ServerConfig.STOCK_QUOTE, "quote.json");
+        mRoutes.put(ServerConfig.INTRADAY_DATA, "chart_1d.json");
+        mRoutes.put(ServerConfig.FIVE_DAY_DATA, "chart_5d.json");
+        mRoutes.put(ServerConfig.FIVE_YEAR_DATA, "chart_5y.json");
+        mRoutes.put(ServerConfig.COMPANY_INFORMATION, "company.json");
+        mRoutes.put(ServerConfig.COMPANY_NEWS, "news.json");
+        mRoutes.put(ServerConfig.TOP_GAINERS, "top_movers.json");
+        mRoutes.put(ServerConfig.TOP_LOSERS, "top_movers.json");
+        mRoutes.put(ServerConfig.SECTOR_LIST, "sector_list.json");
+        mRoutes.put(ServerConfig.SECTOR_INFORMATION, "sector_page.json");
+        mRoutes.put(ServerConfig.PROCESS_QUERY, "search.json");
+        mRoutes.put(ServerConfig.SYMBOL_UNIVERSE, "symbol_universe.json");
+    }
+
+    /**
+     * Routes all requests to the PocketProfit server through a stub if the given intent asks for
+     * it. Must be called before the first request is made.
+     *
+     * @param context   the context of the activity.
+     * @param intent    the intent the activity was started with.
+     */
+    static void installIfRequested(Context context, Intent intent) {
+        if (intent == null || !intent.getBooleanExtra(EXTRA_ENABLED, false)) {
+            return;
+        }
+        final StubServer stub = new StubServer(context, intent.getIntExtra(EXTRA_LATENCY, 0),
+                intent.getIntExtra(EXTRA_JITTER, 0), intent.getFloatExtra(EXTRA_FAILURE_RATE, 0),
+                parseMaxRequests(intent.getStringExtra(EXTRA_MAX_REQUESTS)),
+                intent.getIntExtra(EXTRA_MAX_TIME_TO_CONTENT, 0));
+        Util.setHttpStack(stub);
+        Startup.setPhaseListener(new Startup.PhaseListener() {
+            @Override
+            public void onPhaseReached(String phase, long elapsed) {
+                if (Startup.PHASE_PORTFOLIO_LOADED.equals(phase)) {
+                    stub.checkBudgets(elapsed);
+                }
+            }
+        });
+        Log.i(TAG, "Installed with latency " + stub.mLatency + "ms (+" + stub.mJitter +
+                "ms), failure rate " + stub.mFailureRate + ", request budgets " +
+                stub.mMaxRequests + ", time to content budget " + stub.mMaxTimeToContent + "ms");
+    }
+
+    /**
+     * Parses the request budgets given with EXTRA_MAX_REQUESTS.
+     *
+     * @param value the budgets, e.g. "quote.json=5,chart_5y.json=0", or null.
+     * @return      recorded response -> most requests made to it.
+     */
+    private static Map<String, Integer> parseMaxRequests(String value) {
+        Map<String, Integer> maxRequests = new LinkedHashMap<String, Integer>();
+        if (value == null || value.isEmpty()) {
+            return maxRequests;
+        }
+        for (String budget : value.split(",")) {
+            int separator = budget.indexOf('=');
+            if (separator == -1) {
+                throw new IllegalArgumentException("Not a request budget: " + budget);
+            }
+            maxRequests.put(budget.substring(0, separator).trim(),
+                    Integer.parseInt(budget.substring(separator + 1).trim()));
+        }
+        return maxRequests;
+    }
+
+    /**
+     * Checks the requests made until the portfolio has loaded and the time it took against the
+     * budgets, and fails with an AssertionError if one was exceeded or a request was made to an
+     * endpoint without a recorded response.
+     *
+     * @param timeToContent milliseconds since the start of the process until the portfolio loaded.
+     */
+    private void checkBudgets(long timeToContent) {
+        Map<String, Integer> requestCounts = getRequestCounts();
+        List<String> violations = new ArrayList<String>();
+        synchronized (this) {
+            if (mUnrouted > 0) {
+                violations.add(mUnrouted + " request(s) without a recorded response");
+            }
+        }
+        for (Map.Entry<String, Integer> budget : mMaxRequests.entrySet()) {
+            Integer count = requestCounts.get(budget.getKey());
+            if (count != null && count > budget.getValue()) {
+                violations.add(count + " requests for " + budget.getKey() + ", at most " +
+                        budget.getValue() + " expected");
+            }
+        }
+        if (mMaxTimeToContent > 0 && timeToContent > mMaxTimeToContent) {
+            violations.add("portfolio loaded after " + timeToContent + "ms, at most " +
+                    mMaxTimeToContent + "ms expected");
+        }
+
+        String summary = "requests " + requestCounts + ", " + getFailures() +
+                " failed on purpose, portfolio loaded after " + timeToContent + "ms";
+        if (!violations.isEmpty()) {
+            Log.e(TAG, "FAIL: " + violations + ", " + summary);
+            throw new AssertionError("Stub server budgets exceeded: " + violations);
+        }
+        Log.i(TAG, "PASS: " + summary);
+    }
+
+    @Override
+    public HttpResponse executeRequest(Request<?> request, Map<String, String> additionalHeaders)
+            throws IOException {
+        String url = request.getUrl();
+        int queryStart = url.indexOf('?');
+        String endpoint = (queryStart == -1) ? url : url.substring(0, queryStart);
+        String asset = mRoutes.get(endpoint);
+        int count = countRequest((asset == null) ? endpoint : asset);
+
+        sleep(mLatency + ((mJitter > 0) ? (long) (mRandom.nextDouble() * mJitter) : 0));
+
+        if (asset == null) {
+            synchronized (this) {
+                mUnrouted++;
+            }
+            Log.w(TAG, "No recorded response for " + endpoint);
+            return new HttpResponse(404, Collections.<Header>emptyList());
+        }
+        if (mRandom.nextDouble() < mFailureRate) {
+            synchronized (this) {
+                mFailures++;
+            }
+            if (mRandom.nextBoolean()) {
+                Log.i(TAG, "Failing " + asset + " with a server error");
+                return new HttpResponse(500, Collections.<Header>emptyList());
+            }
+            Log.i(TAG, "Failing " + asset + " with a timeout");
+            throw new SocketTimeoutException("Injected by " + TAG);
+        }
+
+        String body = readAsset(asset);
+        String symbol = Uri.parse(url).getQueryParameter("symbol");
+        if (symbol != null) {
+            body = body.replace(SYMBOL_PLACEHOLDER, symbol);
+        }
+        byte[] content = body.getBytes(UTF_8);
+        Log.i(TAG, "Served " + asset + " (request #" + count + ") after " +
+                (SystemClock.elapsedRealtime() - mInstalledAt) + "ms, " + Startup.getPhases());
+        return new HttpResponse(200, Collections.singletonList(
+                new Header("Content-Type", "application/json; charset=utf-8")), content);
+    }
+
+    private synchronized int countRequest(String key) {
+        Integer count = mRequestCounts.get(key);
+        count = (count == null) ? 1 : count + 1;
+        mRequestCounts.put(key, count);
+        return count;
+    }
+
+    /**
+     * @return  endpoint -> number of requests made to it since the stub was installed.
+     */
+    public synchronized Map<String, Integer> getRequestCounts() {
+        return new LinkedHashMap<String, Integer>(mRequestCounts);
+    }
+
+    /**
+     * @return  the number of requests that were failed on purpose.
+     */
+    public synchronized int getFailures() {
+        return mFailures;
+    }
+
+    private String readAsset(String asset) throws IOException {
+        InputStream in = mContext.getAssets().open(ASSET_DIRECTORY + asset);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), UTF_8);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to respond", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.pocketprofit.source;
+
+/**
+ * The callback function that will execute code when an API call has failed, so that whatever was
+ * waiting on the response can be reset and the call retried later.
+ */
+public interface ErrorCallback {
+    void onError();
+}
@@ -0,0 +1,128 @@
+package com.pocketprofit.source;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount of money, stored as a whole number of micros (millionths of a dollar).
+ * Cash, prices and costs are stored in micros (as a long, in the database and the shared
+ * preferences) so that sums of them are exact. Adding up prices as doubles slowly drifts away
+ * from the true total (e.g. 0.1 + 0.2 != 0.3), which is visible in a portfolio value that has
+ * been updated by thousands of transactions.
+ * The static methods work on primitive micros and never allocate, the instances are meant for
+ * code where readability matters more than allocations.
+ */
+public final class Money implements Comparable<Money> {
+    public static final long MICROS_PER_DOLLAR = 1000000L;
+    private static final long MICROS_PER_CENT = 10000L;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long mMicros;
+
+    private Money(long micros) {
+        mMicros = micros;
+    }
+
+    public static Money ofMicros(long micros) {
+        return (micros == 0) ? ZERO : new Money(micros);
+    }
+
+    public static Money of(double value) {
+        return ofMicros(toMicros(value));
+    }
+
+    /**
+     * Converts the given amount of dollars (e.g. a price received from the PocketProfit server)
+     * to micros, rounding to the nearest micro.
+     *
+     * @param value the amount of dollars.
+     * @return      the amount in micros.
+     */
+    public static long toMicros(double value) {
+        return Math.round(value * MICROS_PER_DOLLAR);
+    }
+
+    /**
+     * Converts the given amount of micros to dollars, which is only meant for displaying (and
+     * formatting) the amount.
+     *
+     * @param micros    the amount in micros.
+     * @return          the amount of dollars.
+     */
+    public static double toDouble(long micros) {
+        return (double) micros / MICROS_PER_DOLLAR;
+    }
+
+    /**
+     * Rounds the given amount of micros to the nearest cent, halves are rounded away from zero.
+     *
+     * @param micros    the amount in micros.
+     * @return          the rounded amount in micros.
+     */
+    public static long roundToCents(long micros) {
+        long remainder = micros % MICROS_PER_CENT;
+        long rounded = micros - remainder;
+        if (Math.abs(remainder) * 2 >= MICROS_PER_CENT) {
+            rounded += (micros < 0) ? -MICROS_PER_CENT : MICROS_PER_CENT;
+        }
+        return rounded;
+    }
+
+    /**
+     * Rounds the given price to the nearest cent.
+     *
+     * @param price the price in dollars.
+     * @return      the rounded price in dollars.
+     */
+    public static double roundPrice(double price) {
+        return toDouble(roundToCents(toMicros(price)));
+    }
+
+    public long getMicros() {
+        return mMicros;
+    }
+
+    public double toDouble() {
+        return toDouble(mMicros);
+    }
+
+    public Money plus(Money other) {
+        return ofMicros(mMicros + other.mMicros);
+    }
+
+    public Money minus(Money other) {
+        return ofMicros(mMicros - other.mMicros);
+    }
+
+    public Money times(long quantity) {
+        return ofMicros(mMicros * quantity);
+    }
+
+    public Money roundToCents() {
+        return ofMicros(roundToCents(mMicros));
+    }
+
+    public boolean isNegative() {
+        return mMicros < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(mMicros, other.mMicros);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return (other instanceof Money) && ((Money) other).mMicros == mMicros;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (mMicros ^ (mMicros >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(mMicros, 6).toPlainString();
+    }
+}
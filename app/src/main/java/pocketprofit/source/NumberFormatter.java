@@ -0,0 +1,226 @@
+package com.pocketprofit.source;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats the numbers displayed throughout PocketProfit (prices, percentages, share counts).
+ * Numbers are formatted while the user scrubs through a chart and while rows are bound, so this
+ * avoids creating a DecimalFormat per call: numbers with a fixed number of decimals are written
+ * digit by digit into a StringBuilder that is reused by the thread, and the only allocation of a
+ * call is the resulting String. The output is the same as the DecimalFormat patterns that it
+ * replaces, including the separators of the default locale and HALF_EVEN rounding.
+ * DecimalFormat is not thread safe, every thread gets its own builder and formatters.
+ */
+public final class NumberFormatter {
+
+    // the patterns of the DecimalFormats that the fast path is equivalent to, used as a
+    // fallback for numbers the fast path can't handle (NaN, infinite, or too large for a long).
+    private static final String PRICE_PATTERN = "#,##0.00";
+    private static final String PRECISE_PRICE_PATTERN = "0.0000";
+    private static final String SHORT_PATTERN = "#,###.00";
+
+    // largest scaled value that is written digit by digit, beyond it doubles can't hold cents.
+    private static final double MAX_FAST_PATH_VALUE = 1e15;
+
+    // scaled values this close to a tie are rounded exactly rather than digit by digit.
+    private static final double TIE_TOLERANCE = 1e-6;
+
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L };
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<State>() {
+        @Override
+        protected State initialValue() {
+            return new State();
+        }
+    };
+
+    /**
+     * The builder, formatters and locale symbols of a thread.
+     */
+    private static final class State {
+        final StringBuilder builder = new StringBuilder(32);
+        final char[] digits = new char[20];
+        final DecimalFormat priceFormat = new DecimalFormat(PRICE_PATTERN);
+        final DecimalFormat precisePriceFormat = new DecimalFormat(PRECISE_PRICE_PATTERN);
+        final DecimalFormat shortFormat = new DecimalFormat(SHORT_PATTERN);
+        final char zeroDigit;
+        final char groupingSeparator;
+        final char decimalSeparator;
+        final char minusSign;
+
+        State() {
+            DecimalFormatSymbols symbols = priceFormat.getDecimalFormatSymbols();
+            zeroDigit = symbols.getZeroDigit();
+            groupingSeparator = symbols.getGroupingSeparator();
+            decimalSeparator = symbols.getDecimalSeparator();
+            minusSign = symbols.getMinusSign();
+        }
+
+        StringBuilder reset() {
+            builder.setLength(0);
+            return builder;
+        }
+    }
+
+    private NumberFormatter() {
+    }
+
+    /**
+     * @see Util#formatPriceText(double, boolean, boolean)
+     */
+    public static String formatPrice(double value, boolean includeDollarSign, boolean precision) {
+        State state = STATE.get();
+        appendPrice(state, state.reset(), value, includeDollarSign, precision);
+        return state.builder.toString();
+    }
+
+    /**
+     * @see Util#formatPercentageText(double)
+     */
+    public static String formatPercentage(double percent) {
+        State state = STATE.get();
+        appendPercentage(state, state.reset(), percent);
+        return state.builder.toString();
+    }
+
+    /**
+     * @see Util#formatShareCountText(int)
+     */
+    public static String formatShareCount(long shareCount) {
+        State state = STATE.get();
+        StringBuilder builder = state.reset();
+        if (shareCount < 0) {
+            builder.append(state.minusSign);
+            appendGrouped(state, builder, -shareCount, 1);
+        } else {
+            appendGrouped(state, builder, shareCount, 1);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Formats a number that has been shortened by a unit (e.g. 1.5 for 1.5M) with two decimals.
+     *
+     * @param value the shortened number.
+     * @param units the units appended to the number.
+     * @return      the formatted number.
+     */
+    public static String formatShort(double value, String units) {
+        State state = STATE.get();
+        StringBuilder builder = state.reset();
+        if (!appendFixed(state, builder, value, 2, 0)) {
+            builder.append(state.shortFormat.format(value));
+        }
+        return builder.append(units).toString();
+    }
+
+    /**
+     * @see Util#getPercentChangeText(double, double, boolean, boolean)
+     */
+    public static String formatPercentChange(double priceA, double priceB, boolean includeSign,
+                                             boolean precision) {
+        State state = STATE.get();
+        StringBuilder builder = state.reset();
+        builder.append((priceA <= priceB) ? "+$" : "-$");
+        appendPrice(state, builder, Math.abs(priceB - priceA), false, precision);
+        builder.append(" (");
+        if (includeSign) {
+            builder.append((priceA <= priceB) ? '+' : '-');
+        }
+        appendPercentage(state, builder, Math.abs(((priceB - priceA) / priceA) * 100.00));
+        return builder.append(')').toString();
+    }
+
+    private static void appendPrice(State state, StringBuilder builder, double value,
+                                    boolean includeDollarSign, boolean precision) {
+        if (includeDollarSign) {
+            builder.append('$');
+        }
+        if (precision && (value > 0.00 && value < 1.00)) {
+            if (!appendFixed(state, builder, value, 4, 1)) {
+                builder.append(state.precisePriceFormat.format(value));
+            }
+        } else if (!appendFixed(state, builder, value, 2, 1)) {
+            builder.append(state.priceFormat.format(value));
+        }
+    }
+
+    private static void appendPercentage(State state, StringBuilder builder, double percent) {
+        if (!appendFixed(state, builder, percent, 2, 1)) {
+            builder.append(state.priceFormat.format(percent));
+        }
+        builder.append('%');
+    }
+
+    /**
+     * Appends the given value with the given number of decimals and a grouped integer part, the
+     * same way a DecimalFormat pattern like "#,##0.00" would.
+     *
+     * @param fractionDigits    the number of decimals, at most 4.
+     * @param minIntegerDigits  0 to omit the integer part of values below 1 (as "#,###.00" does).
+     * @return                  false if the value can't be formatted by the fast path, in which
+     *                          case nothing has been appended.
+     */
+    private static boolean appendFixed(State state, StringBuilder builder, double value,
+                                       int fractionDigits, int minIntegerDigits) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return false;
+        }
+        long factor = POWERS_OF_TEN[fractionDigits];
+        double magnitude = Math.abs(value);
+        double scaled = magnitude * factor;
+        if (scaled >= MAX_FAST_PATH_VALUE) {
+            return false;
+        }
+        long units = (long) scaled;
+        double remainder = scaled - units;
+        if (Math.abs(remainder - 0.5) < TIE_TOLERANCE) {
+            // the scaling itself is inexact, so whether a value close to a tie is above or below
+            // it is settled on the exact binary value, which is what DecimalFormat rounds.
+            units = new BigDecimal(magnitude).movePointRight(fractionDigits)
+                    .setScale(0, RoundingMode.HALF_EVEN).longValue();
+        } else if (remainder > 0.5) {
+            units++;
+        }
+
+        // DecimalFormat keeps the sign of negative values that round to zero, e.g. "-0.00".
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            builder.append(state.minusSign);
+        }
+        appendGrouped(state, builder, units / factor, minIntegerDigits);
+        builder.append(state.decimalSeparator);
+        long fraction = units % factor;
+        for (long divisor = factor / 10; divisor > 0; divisor /= 10) {
+            builder.append((char) (state.zeroDigit + (fraction / divisor) % 10));
+        }
+        return true;
+    }
+
+    /**
+     * Appends the given non-negative whole number with a grouping separator every three digits.
+     */
+    private static void appendGrouped(State state, StringBuilder builder, long value,
+                                      int minIntegerDigits) {
+        if (value == 0) {
+            if (minIntegerDigits > 0) {
+                builder.append(state.zeroDigit);
+            }
+            return;
+        }
+        char[] digits = state.digits;
+        int count = 0;
+        while (value > 0) {
+            digits[count++] = (char) (state.zeroDigit + (value % 10));
+            value /= 10;
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            builder.append(digits[i]);
+            if (i > 0 && i % 3 == 0) {
+                builder.append(state.groupingSeparator);
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.pocketprofit.source;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.HttpHeaderParser;
+import com.pocketprofit.source.cache.ResponseStore;
+import com.pocketprofit.source.metrics.Metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+/**
+ * Request for a single page of the securities in a sector.
+ * The response is parsed with a streaming reader on Volley's network thread, straight from the
+ * response bytes, so no JSONArray of the page is ever built and the UI thread only receives the
+ * supported securities in a compact columnar form.
+ * A copy of every page is kept by the ResponseStore, and is delivered in place of the page if the
+ * request fails, so that sectors that were browsed before can be browsed offline. Unlike the other
+ * responses, stored pages are not delivered ahead of the request: the securities of a page are
+ * appended to the ones already displayed, so every page must be delivered exactly once.
+ */
+public class SectorPageRequest extends Request<SectorPageRequest.Page> {
+
+    /**
+     * The callback function that will execute code when a page has been successfully retrieved.
+     */
+    public interface Callback {
+        void onSuccess(Page page);
+    }
+
+    /**
+     * The supported securities of a page, column by column. The change of a security is NaN when
+     * the PocketProfit server does not know it.
+     */
+    public static final class Page {
+        private String[] mSymbols;
+        private String[] mNames;
+        private double[] mPrices;
+        private double[] mChanges;
+        private int mSize;
+        private boolean mLast;
+
+        private Page(int capacity) {
+            mSymbols = new String[capacity];
+            mNames = new String[capacity];
+            mPrices = new double[capacity];
+            mChanges = new double[capacity];
+        }
+
+        private void add(String symbol, String name, double price, double change) {
+            if (mSize == mSymbols.length) {
+                int capacity = Math.max(16, mSize * 2);
+                mSymbols = Arrays.copyOf(mSymbols, capacity);
+                mNames = Arrays.copyOf(mNames, capacity);
+                mPrices = Arrays.copyOf(mPrices, capacity);
+                mChanges = Arrays.copyOf(mChanges, capacity);
+            }
+            mSymbols[mSize] = symbol;
+            mNames[mSize] = name;
+            mPrices[mSize] = price;
+            mChanges[mSize] = change;
+            mSize++;
+        }
+
+        public int size() {
+            return mSize;
+        }
+
+        public String getSymbol(int i) {
+            return mSymbols[i];
+        }
+
+        public String getName(int i) {
+            return mNames[i];
+        }
+
+        public double getPrice(int i) {
+            return mPrices[i];
+        }
+
+        public double getChange(int i) {
+            return mChanges[i];
+        }
+
+        /**
+         * @return  true if this is the last page of the sector.
+         */
+        public boolean isLast() {
+            return mLast;
+        }
+    }
+
+    private final Context mContext;
+    private final int mPageSize;
+    private final ResponseStore mStore;
+    private final Callback mCallback;
+    private final ErrorCallback mErrorCallback;
+
+    /**
+     * @param context       the context of the application.
+     * @param url           PocketProfit server endpoint url of the page.
+     * @param pageSize      the number of securities requested.
+     * @param store         keeps a copy of the page, which is delivered if the request fails.
+     * @param callback      the callback function to execute once the page has been retrieved.
+     * @param errorCallback the callback function to execute if the request fails and no copy of
+     *                      the page is stored.
+     */
+    public SectorPageRequest(Context context, String url, int pageSize, ResponseStore store,
+                             Callback callback, ErrorCallback errorCallback) {
+        super(Method.GET, url, null);
+        mContext = context;
+        mPageSize = pageSize;
+        mStore = store;
+        mCallback = callback;
+        mErrorCallback = errorCallback;
+    }
+
+    @Override
+    protected Response<Page> parseNetworkResponse(NetworkResponse response) {
+        try {
+            String charset = HttpHeaderParser.parseCharset(response.headers, "UTF-8");
+            Page page = parsePage(new InputStreamReader(new ByteArrayInputStream(response.data),
+                    charset));
+            // still on the network thread, the copy is only ever read if a request fails.
+            mStore.put(getUrl(), new String(response.data, charset));
+            return Response.success(page, HttpHeaderParser.parseCacheHeaders(response));
+        } catch (IOException e) {
+            return Response.error(new ParseError(e));
+        } catch (IllegalStateException e) {
+            return Response.error(new ParseError(e));
+        }
+    }
+
+    @Override
+    protected void deliverResponse(Page page) {
+        mCallback.onSuccess(page);
+    }
+
+    @Override
+    public void deliverError(final VolleyError error) {
+        mStore.get(getUrl(), new ResponseStore.Callback() {
+            @Override
+            public void onLoaded(ResponseStore.Entry stored) {
+                if (isCanceled()) {
+                    return;
+                }
+                Util.onRequestError(mContext, error, stored);
+                Page page = null;
+                if (stored != null) {
+                    try {
+                        page = parsePage(new StringReader(stored.getBody()));
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    } catch (IllegalStateException e) {
+                        e.printStackTrace();
+                    }
+                }
+                if (page != null) {
+                    Metrics.increment(Metrics.RESPONSE_STORE_HITS);
+                    mCallback.onSuccess(page);
+                } else {
+                    mErrorCallback.onError();
+                }
+            }
+        });
+    }
+
+    /**
+     * Parses a page from the given response body, either the bytes just received or a stored
+     * copy of them.
+     */
+    private Page parsePage(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        try {
+            return parse(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the securities of the page one at a time, only keeping the ones that can be traded
+     * on PocketProfit.
+     */
+    private Page parse(JsonReader reader) throws IOException {
+        Page page = new Page(mPageSize);
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String name = null;
+            String symbol = null;
+            String exchange = null;
+            double price = 0;
+            double change = Double.NaN;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                } else if (field.equals("companyName")) {
+                    name = reader.nextString();
+                } else if (field.equals("symbol")) {
+                    symbol = reader.nextString();
+                } else if (field.equals("primaryExchange")) {
+                    exchange = reader.nextString();
+                } else if (field.equals("latestPrice")) {
+                    price = reader.nextDouble();
+                } else if (field.equals("change")) {
+                    change = reader.nextDouble();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            count++;
+
+            if (name != null && symbol != null && !symbol.contains("-") &&
+                    !Util.EXCHANGES_NOT_SUPPORTED.contains(exchange) && price >= 0.01) {
+                page.add(symbol, name, price, change);
+            }
+        }
+        reader.endArray();
+        // a short page means that the PocketProfit server has nothing more to send.
+        page.mLast = count < mPageSize;
+        return page;
+    }
+}
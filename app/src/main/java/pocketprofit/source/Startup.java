@@ -0,0 +1,210 @@
+package com.pocketprofit.source;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.google.android.gms.ads.MobileAds;
+import com.google.android.gms.ads.initialization.InitializationStatus;
+import com.google.android.gms.ads.initialization.OnInitializationCompleteListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Orchestrates the start of the app so that the user's portfolio is drawn before anything else.
+ * Work that isn't needed for the first frame (initializing the ads SDK, loading ads, writing
+ * preferences) is deferred until the activity has drawn, and SDK initialization runs on a
+ * background thread. The time at which every phase of the start is reached is recorded and
+ * logged, which makes cold start regressions visible in logcat.
+ */
+public final class Startup {
+    public static final String TAG = "Startup";
+
+    // phases of the start of the app, in the order in which they are normally reached.
+    public static final String PHASE_ACTIVITY_STARTING = "activity_starting";
+    public static final String PHASE_ACTIVITY_CREATED = "activity_created";
+    public static final String PHASE_FIRST_DRAW = "first_draw";
+    public static final String PHASE_ADS_INITIALIZED = "ads_initialized";
+    public static final String PHASE_PORTFOLIO_LOADED = "portfolio_loaded";
+
+    // time at which the process was started, so that the phases include the start of the process
+    // and the creation of the activity (e.g. inflating its layout). a process started in the
+    // background (e.g. by a push message) before the user opened the app reports longer times.
+    private static final long START_TIME = getProcessStartTime();
+
+    // phase -> milliseconds since the start when it was first reached.
+    private static final Map<String, Long> mPhases = new LinkedHashMap<String, Long>();
+
+    // initialization of SDKs happens on this thread, off of the UI thread.
+    private static final ExecutorService mWorker = Executors.newSingleThreadExecutor();
+
+    private static final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private static boolean mAdsInitialized = false;
+    private static boolean mAdsInitializing = false;
+
+    // tasks waiting for the ads SDK to be initialized, executed on the UI thread.
+    private static final List<Runnable> mPendingAdTasks = new ArrayList<Runnable>();
+
+    // notified of every phase as it is reached, see setPhaseListener(PhaseListener).
+    private static PhaseListener mPhaseListener;
+
+    /**
+     * Notified of the phases of the start as they are reached (e.g. by the stub server of debug
+     * builds, which checks how long the portfolio took to load).
+     */
+    public interface PhaseListener {
+        void onPhaseReached(String phase, long elapsed);
+    }
+
+    private Startup() {
+    }
+
+    /**
+     * Returns the time (see SystemClock.elapsedRealtime()) at which the process was started.
+     * Versions before Android 7.0 don't keep track of it, the time at which this class is loaded
+     * (when MainActivity marks PHASE_ACTIVITY_STARTING) is used instead.
+     */
+    private static long getProcessStartTime() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return Process.getStartElapsedRealtime();
+        }
+        return SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Records that the given phase of the start has been reached. Only the first time a phase is
+     * reached is recorded, later activities reaching it again are not part of the cold start.
+     *
+     * @param phase the phase that has been reached.
+     */
+    public static void markPhase(String phase) {
+        long elapsed = SystemClock.elapsedRealtime() - START_TIME;
+        PhaseListener listener;
+        synchronized (Startup.class) {
+            if (mPhases.containsKey(phase)) {
+                return;
+            }
+            mPhases.put(phase, elapsed);
+            listener = mPhaseListener;
+        }
+        Log.i(TAG, "Reached " + phase + " after " + elapsed + "ms");
+        if (listener != null) {
+            listener.onPhaseReached(phase, elapsed);
+        }
+    }
+
+    /**
+     * Sets the listener notified of every phase reached from now on.
+     *
+     * @param listener  the listener, null for none.
+     */
+    public static synchronized void setPhaseListener(PhaseListener listener) {
+        mPhaseListener = listener;
+    }
+
+    /**
+     * @return  phase -> milliseconds since the start when it was reached, in the order in which
+     *          the phases were reached.
+     */
+    public static synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<String, Long>(mPhases);
+    }
+
+    /**
+     * Executes the given task on the UI thread once the given activity has drawn its first frame.
+     *
+     * @param activity  the activity being started.
+     * @param task      the task to execute.
+     */
+    public static void runAfterFirstDraw(Activity activity, final Runnable task) {
+        final View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            private boolean mDrawn = false;
+
+            @Override
+            public void onDraw() {
+                if (mDrawn) {
+                    return;
+                }
+                mDrawn = true;
+                final ViewTreeObserver.OnDrawListener listener = this;
+                // posted, as the frame is still being drawn and draw listeners can't be removed
+                // from within onDraw.
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        decorView.getViewTreeObserver().removeOnDrawListener(listener);
+                        markPhase(PHASE_FIRST_DRAW);
+                        task.run();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Initializes the ads SDK on a background thread (only once per process) and then executes
+     * the given task on the UI thread, which is where ads are loaded.
+     *
+     * @param context   the context of the activity.
+     * @param task      the task loading the ads of the activity.
+     */
+    public static void initializeAds(Context context, Runnable task) {
+        synchronized (Startup.class) {
+            if (!mAdsInitialized) {
+                mPendingAdTasks.add(task);
+                if (!mAdsInitializing) {
+                    mAdsInitializing = true;
+                    startAdsInitialization(context.getApplicationContext());
+                }
+                return;
+            }
+        }
+        task.run();
+    }
+
+    private static void startAdsInitialization(final Context context) {
+        mWorker.execute(new Runnable() {
+            @Override
+            public void run() {
+                MobileAds.initialize(context, new OnInitializationCompleteListener() {
+                    @Override
+                    public void onInitializationComplete(InitializationStatus initializationStatus) {
+                        onAdsInitialized();
+                    }
+                });
+            }
+        });
+    }
+
+    private static void onAdsInitialized() {
+        final List<Runnable> tasks;
+        synchronized (Startup.class) {
+            mAdsInitialized = true;
+            tasks = new ArrayList<Runnable>(mPendingAdTasks);
+            mPendingAdTasks.clear();
+        }
+        markPhase(PHASE_ADS_INITIALIZED);
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (Runnable task : tasks) {
+                    task.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.pocketprofit.source;
+
+/**
+ * The callback function that will execute code when an API call is successful, handing over the
+ * raw response so that it can be parsed off of the UI thread.
+ */
+public interface StringCallback {
+    void onSuccess(String result);
+}
@@ -2,9 +2,14 @@ package com.pocketprofit.source;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Uri;
+import android.text.format.DateUtils;
 import android.util.Log;
 import android.widget.Toast;
 
+import androidx.core.net.ConnectivityManagerCompat;
+
 import com.android.volley.AuthFailureError;
 import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.NetworkError;
@@ -16,22 +21,28 @@ import com.android.volley.Response;
 import com.android.volley.ServerError;
 import com.android.volley.TimeoutError;
 import com.android.volley.VolleyError;
+import com.android.volley.toolbox.BaseHttpStack;
 import com.android.volley.toolbox.StringRequest;
 import com.android.volley.toolbox.Volley;
+import com.pocketprofit.source.cache.ResponseStore;
 import com.pocketprofit.source.database.DatabaseHelper;
+import com.pocketprofit.source.database.WatchlistStore;
+import com.pocketprofit.source.metrics.Metrics;
+import com.pocketprofit.source.metrics.Tracing;
+import com.pocketprofit.source.stockchart.ChartLabels;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.text.DecimalFormat;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.TimeZone;
 
 public final class Util {
     public static final String TAG = "Util";
@@ -41,9 +52,8 @@ public final class Util {
                     "OTC GREY MARKET", "OTCQX MARKETPLACE", "OTC PINK LIMITED",
                     "OTC PINK NO INFORMATION", "CAVEAT EMPTOR", "OTCQB MARKETPLACE"));
 
-    // these sectors cause 503 errors (response from PocketProfit is too large to process)
-    public static final List<String> SECTORS_NOT_SUPPORTED =
-            Collections.unmodifiableList(Arrays.asList("Miscellaneous", "Government", "Finance"));
+    // number of securities requested at a time when loading the securities of a sector.
+    public static final int SECTOR_PAGE_SIZE = 100;
 
     public static final String MARKET_HOURS_URL =
             "https://www.tradinghours.com/exchanges/nasdaq/trading-hours";
@@ -64,7 +74,11 @@ public final class Util {
             "com.example.application.pocketprofit.EXTRA_SECTOR";
 
     public static final String SHARED_PREFERENCES = "sharedPreferences";
+    // the cash balance in micros (see Money). versions 4 and older stored the balance as the bits
+    // of a double under CASH_VALUE, which is only read when CASH_MICROS hasn't been written yet.
+    public static final String CASH_MICROS = "cashMicros";
     public static final String CASH_VALUE = "cashValue";
+    // only read to move the watchlist of versions 3 and older into the database.
     public static final String WATCHLIST_STOCKS = "watchlist";
     public static final String DATE_JOINED = "dateJoined";
 
@@ -77,7 +91,47 @@ public final class Util {
 
     public static final double STARTING_VALUE = 15000;
 
+    // minimum time (ms) between two "offline" messages, see showStalenessMarker(...).
+    public static final long STALENESS_MARKER_INTERVAL = 30 * 1000;
+
+    // how long (ms) a stored company profile is used before it is revalidated, the description,
+    // CEO, employee count etc. of a company rarely change.
+    public static final long COMPANY_PROFILE_MAX_AGE = 3 * 24 * 60 * 60 * 1000;
+
+    // how long (ms) the stored top movers are used before they are revalidated while the US
+    // market is open. once the market closes, the movers stay the same until it opens again.
+    public static final long TOP_MOVERS_MAX_AGE = 60 * 1000;
+
     private static RequestQueue mRequestQueue;
+    // the request queue that REQUEST_FINISHED_LISTENER has been added to.
+    private static RequestQueue mInstrumentedQueue;
+    // request -> time it was enqueued, see Metrics.now().
+    private static final Map<Request<?>, Long> mRequestStartTimes =
+            new IdentityHashMap<Request<?>, Long>();
+    // the HTTP stack requests are sent through, null for Volley's default.
+    private static BaseHttpStack mHttpStack;
+    private static long mLastStalenessMarker;
+
+    // records the latency of every finished request (successful, failed or cancelled), ends its
+    // trace section and clears Volley's cache as responses are stored by the ResponseStore.
+    private static final RequestQueue.RequestFinishedListener<Object> REQUEST_FINISHED_LISTENER =
+            new RequestQueue.RequestFinishedListener<Object>() {
+        @Override
+        public void onRequestFinished(Request<Object> request) {
+            Long startTime;
+            synchronized (mRequestStartTimes) {
+                startTime = mRequestStartTimes.remove(request);
+            }
+            if (startTime != null) {
+                String endpoint = getEndpointMetric(request.getUrl());
+                Metrics.recordSince(endpoint, startTime);
+                Tracing.endAsync(endpoint, System.identityHashCode(request));
+            }
+            if (mRequestQueue != null) {
+                mRequestQueue.getCache().clear();
+            }
+        }
+    };
 
     // No instances of this class shall be created.
     private Util() {}
@@ -103,16 +157,22 @@ public final class Util {
      * @return       string in the form '(x/-)$(x,xxx.xx) ((x/-)?(x.xx)%)'
      */
     public static String getPercentChangeText(double priceA, double priceB, boolean includeSign) {
-        String change = "";
-        double delta = Math.abs(priceB - priceA);
-        change += (priceA <= priceB) ? "+$" : "-$";
-        change += Util.formatPriceText(delta, false, false) + " (";
-        if (includeSign) {
-            change += (priceA <= priceB) ? "+" : "-";
-        }
-        double deltaPercentage = Math.abs(((priceB - priceA) / priceA) * 100.00);
-        change += Util.formatPercentageText(deltaPercentage) + ")";
-        return change;
+        return NumberFormatter.formatPercentChange(priceA, priceB, includeSign, false);
+    }
+
+    /**
+     * Calculates the value and percentage increase/decrease from priceA to priceB and uses that
+     * information to build a string that is then returned.
+     *
+     * @param priceA        the starting price.
+     * @param priceB        the ending price.
+     * @param includeSign   boolean which indicates if the percentage should have a +/- prefix.
+     * @param precision     if true, a value change of less than 1 goes 4 places past the decimal.
+     * @return              string in the form '(x/-)$(x,xxx.xx) ((x/-)?(x.xx)%)'
+     */
+    public static String getPercentChangeText(double priceA, double priceB, boolean includeSign,
+                                               boolean precision) {
+        return NumberFormatter.formatPercentChange(priceA, priceB, includeSign, precision);
     }
 
     /**
@@ -129,13 +189,7 @@ public final class Util {
      */
     public static String formatPriceText(double value, boolean includeDollarSign,
                                                                                 boolean precision) {
-        DecimalFormat formatter;
-        if (precision && (value > 0.00 && value < 1.00)) {
-            formatter = new DecimalFormat("0.0000");
-        } else {
-            formatter = new DecimalFormat("#,##0.00");
-        }
-        return (includeDollarSign ? "$" : "") + formatter.format(value);
+        return NumberFormatter.formatPrice(value, includeDollarSign, precision);
     }
 
     /**
@@ -145,7 +199,7 @@ public final class Util {
      * @return              formatted sharecount with commas.
      */
     public static String formatShareCountText(int shareCount) {
-        return new DecimalFormat("#,###").format(shareCount);
+        return NumberFormatter.formatShareCount(shareCount);
     }
 
     /**
@@ -171,8 +225,7 @@ public final class Util {
             divisor = million;
             units = "M";
         }
-        return new DecimalFormat("#,###.00")
-                .format((double) (marketCap) / divisor) + units;
+        return NumberFormatter.formatShort(marketCap / divisor, units);
     }
 
     /**
@@ -182,7 +235,7 @@ public final class Util {
      * @return          a formatted text of the percent.
      */
     public static String formatPercentageText(double percent) {
-        return new DecimalFormat("#,##0.00").format(percent) + "%";
+        return NumberFormatter.formatPercentage(percent);
     }
 
     /**
@@ -208,10 +261,9 @@ public final class Util {
             divisor = thousand;
             units = "K";
         } else {
-            return "" + volume;
+            return String.valueOf(volume);
         }
-        return "" + new DecimalFormat("#,###.00")
-                .format((double) volume / divisor) + units;
+        return NumberFormatter.formatShort((double) volume / divisor, units);
     }
 
     /**
@@ -221,15 +273,11 @@ public final class Util {
      * @return          the current portfolio value.
      */
     public static double getPortfolioValue(Context context) {
-        SharedPreferences sharedPreferences =
-                context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
-        double cashValue =
-                Double.longBitsToDouble(sharedPreferences
-                        .getLong(Util.CASH_VALUE, Double.doubleToLongBits(Util.STARTING_VALUE)));
+        long cashValue = getCashAvailableMicros(context);
         // calculate asset value
-        DatabaseHelper db = DatabaseHelper.getInstance(context); 
-        double equityValue = db.getTotalEquity();
-        return cashValue + equityValue;
+        DatabaseHelper db = DatabaseHelper.getInstance(context);
+        long equityValue = db.getTotalEquityMicros();
+        return Money.toDouble(cashValue + equityValue);
     }
 
     /**
@@ -239,12 +287,26 @@ public final class Util {
      * @return          the amount of cash available.
      */
     public static double getCashAvailable(Context context) {
+        return Money.toDouble(getCashAvailableMicros(context));
+    }
+
+    /**
+     * Uses the given context to retrieve and return the current cash balance in micros.
+     *
+     * @param context   the context of the activity.
+     * @return          the amount of cash available, in micros.
+     */
+    public static long getCashAvailableMicros(Context context) {
         SharedPreferences sharedPreferences =
                 context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
-        double cashValue =
+        if (sharedPreferences.contains(Util.CASH_MICROS)) {
+            return sharedPreferences.getLong(Util.CASH_MICROS, 0);
+        }
+        double legacyCashValue =
                 Double.longBitsToDouble(sharedPreferences
                         .getLong(Util.CASH_VALUE, Double.doubleToLongBits(Util.STARTING_VALUE)));
-        return cashValue;
+        // the drift accumulated by the double is rounded away along with anything below a cent.
+        return Money.roundToCents(Money.toMicros(legacyCashValue));
     }
 
     /**
@@ -287,21 +349,20 @@ public final class Util {
                 context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
         SharedPreferences.Editor editor = sharedPreferences.edit();
 
-        editor.putLong(Util.CASH_VALUE, Double.doubleToLongBits(Util.STARTING_VALUE));
+        editor.putLong(Util.CASH_MICROS, Money.toMicros(Util.STARTING_VALUE));
+        editor.remove(Util.CASH_VALUE);
         editor.apply();
     }
 
     /**
-     * Uses the given context to retrieve and return the set of stocks the user currently has
-     * under his/her watchlist.
+     * Uses the given context to retrieve and return the list of stocks the user currently has
+     * under his/her watchlist, in the order in which they were added.
      *
      * @param context   the context of the activity.
-     * @return          the set of stocks under watch.
+     * @return          the list of stocks under watch.
      */
-    public static Set<String> getWatchlist(Context context) {
-        SharedPreferences sharedPreferences =
-                context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
-        return sharedPreferences.getStringSet(Util.WATCHLIST_STOCKS, new TreeSet<String>());
+    public static List<String> getWatchlist(Context context) {
+        return WatchlistStore.getInstance(context).getSymbols();
     }
 
     /**
@@ -312,16 +373,24 @@ public final class Util {
      * @param change    the value to add to the portfolio (pos/neg value).
      */
     public static void updateCashAvailable(Context context, double change) {
+        updateCashAvailableMicros(context, Money.toMicros(change));
+    }
+
+    /**
+     * Uses the context to add the positive/negative amount of micros given as a parameter to the
+     * user's current portfolio cash balance.
+     *
+     * @param context   the context of the activity.
+     * @param change    the micros to add to the portfolio (pos/neg value).
+     */
+    public static void updateCashAvailableMicros(Context context, long change) {
+        long cashValue = getCashAvailableMicros(context);
+
         SharedPreferences sharedPreferences =
                 context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
-        double cashValue =
-                Double.longBitsToDouble(sharedPreferences.getLong
-                        (Util.CASH_VALUE,
-                        Double.doubleToLongBits(Util.STARTING_VALUE)));
-
         SharedPreferences.Editor editor = sharedPreferences.edit();
-        double updatedValue = cashValue + change;
-        editor.putLong(Util.CASH_VALUE, Double.doubleToLongBits(updatedValue));
+        editor.putLong(Util.CASH_MICROS, cashValue + change);
+        editor.remove(Util.CASH_VALUE);
 
         editor.apply();
     }
@@ -333,12 +402,7 @@ public final class Util {
      * @param context   the context of the activity.
      */
     public static void clearWatchlist(Context context) {
-        SharedPreferences sharedPreferences =
-                context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-
-        editor.putStringSet(Util.WATCHLIST_STOCKS, new TreeSet<String>());
-        editor.apply();
+        WatchlistStore.getInstance(context).clear();
     }
 
     /**
@@ -352,14 +416,7 @@ public final class Util {
      * @param symbol    the symbol to update in the watchlist.
      */
     public static void updateWatchList(Context context, String symbol) {
-        SharedPreferences sharedPreferences =
-                context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-
-        Set<String> watchlist =
-                new TreeSet<String>
-                    (sharedPreferences.getStringSet(Util.WATCHLIST_STOCKS, new TreeSet<String>()));
-
+        WatchlistStore watchlist = WatchlistStore.getInstance(context);
         if (watchlist.contains(symbol)) {
             Util.displayToast(context, symbol + " removed from the watchlist.");
             watchlist.remove(symbol);
@@ -367,9 +424,6 @@ public final class Util {
             Util.displayToast(context, symbol + " added to the watchlist.");
             watchlist.add(symbol);
         }
-
-        editor.putStringSet(Util.WATCHLIST_STOCKS, watchlist);
-        editor.apply();
     }
 
     /**
@@ -381,11 +435,7 @@ public final class Util {
      * @return          true if the symbol is in the watchlist, false otherwise.
      */
     public static boolean currentlyOnWatchlist(Context context, String symbol) {
-        SharedPreferences sharedPreferences =
-                context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
-        Set<String> watchlist =
-                sharedPreferences.getStringSet(Util.WATCHLIST_STOCKS, new TreeSet<String>());
-        return watchlist.contains(symbol);
+        return WatchlistStore.getInstance(context).contains(symbol);
     }
 
     /**
@@ -435,19 +485,7 @@ public final class Util {
      * @return              the suffix associated with the parameter given.
      */
     public static String getDayOfMonthSuffix(int dayOfMonth) {
-        if (dayOfMonth >= 11 && dayOfMonth <= 13) {
-            return "th";
-        }
-        switch (dayOfMonth % 10) {
-            case 1:
-                return "st";
-            case 2:
-                return "nd";
-            case 3:
-                return "rd";
-            default:
-                return "th";
-        }
+        return ChartLabels.getDayOfMonthSuffix(dayOfMonth);
     }
 
     /**
@@ -457,140 +495,479 @@ public final class Util {
      * @return      the result of converting the military time to standard time.
      */
     public static String convertMilitaryToStandard(String time) {
-        if (time == null) {
-            return time;
-        }
-        String[] split = time.split(":");
-        String hour = split[0];
-        String minutes = split[1];
-        String meridian = "AM";
+        return ChartLabels.convertMilitaryToStandard(time);
+    }
 
-        if (hour.substring(0,2).equals("00")) {
-            hour = "12";
-        } else if (hour.substring(0,1).equals("1") || hour.substring(0,1).equals("2")) {
-            meridian = "PM";
-            Integer militaryHour = Integer.parseInt(hour);
-            Integer convertedHour = null;
+    /**
+     * Makes an API call to communicate with the PocketProfit server by using the given endpoint.
+     * The PocketProfit server will then fetch JSON data based on the endpoint given.
+     * If a previous response of the endpoint is stored on the device, the callback function given
+     * as a parameter is executed right away with that response and the request is revalidated in
+     * the background. The callback will then execute a second time only if the PocketProfit
+     * server has sent back something different. If the request fails, the user is notified as to
+     * how old the data on their screen is.
+     *
+     * @param context   the context of the activity.
+     * @param url       PocketProfit server endpoint url.
+     * @param callback  the callback function to execute upon a successful API call.
+     * @return          the request that was sent to the PocketProfit server.
+     */
+    private static Request<String> fetchPocketProfitServerData(Context context, String url,
+                                                    final JSONArrayCallback callback) {
+        return fetchPocketProfitServerData(context, url, 0, callback);
+    }
 
-            if (militaryHour > 12) {
-                convertedHour = (militaryHour - 12);
+    /**
+     * Same as fetchPocketProfitServerData(context, url, callback), except that a stored response
+     * younger than the given max age is used as is and the PocketProfit server is not contacted.
+     *
+     * @param context   the context of the activity.
+     * @param url       PocketProfit server endpoint url.
+     * @param maxAge    how long (ms) a stored response is used before it is revalidated.
+     * @param callback  the callback function to execute upon a successful API call.
+     * @return          the request to the PocketProfit server, which is never sent if the
+     *                  stored response was fresh enough.
+     */
+    private static Request<String> fetchPocketProfitServerData(Context context, String url,
+                                                    long maxAge,
+                                                    final JSONArrayCallback callback) {
+        return fetchPocketProfitServerData(context, url, maxAge, Request.Priority.NORMAL,
+                newResponseHandler(callback), null);
+    }
+
+    /**
+     * Same as fetchPocketProfitServerData(context, url, callback), except that the request is
+     * sent with the given priority and the given error callback is executed as well if the
+     * request fails. Requests the user isn't waiting on (e.g. prefetches) are sent with a low
+     * priority, so that they don't delay the requests of what is on screen.
+     *
+     * @param context       the context of the activity.
+     * @param url           PocketProfit server endpoint url.
+     * @param priority      the priority of the request in the request queue.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails.
+     * @return              the request that was sent to the PocketProfit server.
+     */
+    private static Request<String> fetchPocketProfitServerData(Context context, String url,
+                                                    Request.Priority priority,
+                                                    final JSONArrayCallback callback,
+                                                    ErrorCallback errorCallback) {
+        return fetchPocketProfitServerData(context, url, 0, priority,
+                newResponseHandler(callback), errorCallback);
+    }
 
-                hour = String.valueOf(convertedHour);
+    /**
+     * Returns the handler parsing a response into a JSONArray for the given callback function.
+     *
+     * @param callback  the callback function to execute upon a successful API call.
+     * @return          the handler of the responses.
+     */
+    private static ResponseHandler newResponseHandler(final JSONArrayCallback callback) {
+        return new ResponseHandler() {
+            @Override
+            public void onResponse(String response) throws JSONException {
+                Tracing.begin("Util.parseJSONArray");
+                JSONArray result;
+                try {
+                    result = new JSONArray(response);
+                } finally {
+                    Tracing.end();
+                }
+                callback.onSuccess(result);
             }
-        }
-        time = hour + ":" + minutes + " " + meridian;
-        return time;
+        };
     }
 
     /**
      * Makes an API call to communicate with the PocketProfit server by using the given endpoint.
      * The PocketProfit server will then fetch JSON data based on the endpoint given.
-     * If the PocketProfit server is able to successfuly retrieve and send the JSON data back to
-     * the client, then the callback function given as a parameter will execute. Otherwise,
-     * nothing will happen.
+     * If a previous response of the endpoint is stored on the device, the callback function given
+     * as a parameter is executed right away with that response and the request is revalidated in
+     * the background. The callback will then execute a second time only if the PocketProfit
+     * server has sent back something different. If the request fails, the user is notified as to
+     * how old the data on their screen is.
      *
+     * @param context   the context of the activity.
      * @param url       PocketProfit server endpoint url.
      * @param callback  the callback function to execute upon a successful API call.
+     * @return          the request that was sent to the PocketProfit server.
      */
-    private static void fetchPocketProfitServerData(final String url,
-                                                    final JSONArrayCallback callback) {
-        StringRequest request =
-                new StringRequest(Request.Method.GET, url, new Response.Listener<String>() {
+    private static Request<String> fetchPocketProfitServerData(Context context, String url,
+                                                    final JSONObjectCallback callback) {
+        return fetchPocketProfitServerData(context, url, 0, callback);
+    }
+
+    /**
+     * Same as fetchPocketProfitServerData(context, url, callback), except that a stored response
+     * younger than the given max age is used as is and the PocketProfit server is not contacted.
+     *
+     * @param context   the context of the activity.
+     * @param url       PocketProfit server endpoint url.
+     * @param maxAge    how long (ms) a stored response is used before it is revalidated.
+     * @param callback  the callback function to execute upon a successful API call.
+     * @return          the request to the PocketProfit server, which is never sent if the
+     *                  stored response was fresh enough.
+     */
+    private static Request<String> fetchPocketProfitServerData(Context context, String url,
+                                                    long maxAge,
+                                                    final JSONObjectCallback callback) {
+        return fetchPocketProfitServerData(context, url, maxAge, callback, null);
+    }
+
+    /**
+     * Same as fetchPocketProfitServerData(context, url, maxAge, callback), except that the given
+     * error callback is executed as well if the request fails.
+     *
+     * @param context       the context of the activity.
+     * @param url           PocketProfit server endpoint url.
+     * @param maxAge        how long (ms) a stored response is used before it is revalidated.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails, or null.
+     * @return              the request to the PocketProfit server, which is never sent if the
+     *                      stored response was fresh enough.
+     */
+    private static Request<String> fetchPocketProfitServerData(Context context, String url,
+                                                    long maxAge,
+                                                    final JSONObjectCallback callback,
+                                                    ErrorCallback errorCallback) {
+        return fetchPocketProfitServerData(context, url, maxAge, Request.Priority.NORMAL,
+                new ResponseHandler() {
             @Override
-            public void onResponse(String response) {
+            public void onResponse(String response) throws JSONException {
+                Tracing.begin("Util.parseJSONObject");
+                JSONObject result;
                 try {
-                    callback.onSuccess(new JSONArray(response));
-                } catch (JSONException e) {
-                    e.printStackTrace();
+                    result = new JSONObject(response);
+                } finally {
+                    Tracing.end();
                 }
+                callback.onSuccess(result);
             }
-        }, new Response.ErrorListener() {
+        }, errorCallback);
+    }
+
+    /**
+     * Parses the raw response body of a PocketProfit server request and hands it off to the
+     * callback function of the caller.
+     */
+    private interface ResponseHandler {
+        void onResponse(String response) throws JSONException;
+    }
+
+    /**
+     * Serves the last-known response of the given endpoint from the ResponseStore (if there is
+     * one) and then revalidates it against the PocketProfit server.
+     *
+     * A stored response younger than the given max age is not revalidated at all.
+     * The stored response is read from disk in the background, so the request is only sent once
+     * it has been looked up. The request is returned right away regardless, and cancelling it
+     * before then also keeps the stored response from being delivered.
+     *
+     * @param context       the context of the activity.
+     * @param url           PocketProfit server endpoint url.
+     * @param maxAge        how long (ms) a stored response is used before it is revalidated, 0
+     *                      to always revalidate.
+     * @param priority      the priority of the request in the request queue.
+     * @param handler       parses and delivers a response to the caller.
+     * @param errorCallback the callback function to execute if the API call fails, or null.
+     * @return              the request to the PocketProfit server, which can be cancelled if
+     *                      its response is no longer needed. it is never sent if the stored
+     *                      response was fresh enough.
+     */
+    private static Request<String> fetchPocketProfitServerData(Context context, final String url,
+                                                    final long maxAge,
+                                                    Request.Priority priority,
+                                                    final ResponseHandler handler,
+                                                    ErrorCallback errorCallback) {
+        final Context applicationContext = context.getApplicationContext();
+        final ResponseStore store = ResponseStore.getInstance(applicationContext);
+        final RevalidationRequest request = new RevalidationRequest(applicationContext, url,
+                priority, store, handler, errorCallback);
+        store.get(url, new ResponseStore.Callback() {
             @Override
-            public void onErrorResponse(VolleyError error) {
-                if (error instanceof TimeoutError || error instanceof NoConnectionError) {
-                    Log.e(TAG, "TimeoutError || NoConnectionError");
-                    Log.i(TAG, "TimeoutError || NoConnectionError");
-                } else if (error instanceof AuthFailureError) {
-                    Log.e(TAG, "AuthFailureError");
-                    Log.i(TAG, "AuthFailureError");
-                } else if (error instanceof ServerError) {
-                    Log.e(TAG, "ServerError");
-                    Log.i(TAG, "ServerError");
-                } else if (error instanceof NetworkError) {
-                    Log.e(TAG, "Network Error");
-                    Log.i(TAG, "Network Error");
-                } else if (error instanceof ParseError) {
-                    Log.e(TAG, "ParseError " + error.getMessage());
-                    Log.i(TAG, "ParseError " + error.getMessage());
+            public void onLoaded(ResponseStore.Entry stored) {
+                if (request.isCanceled()) {
+                    return;
+                }
+                if (stored != null) {
+                    Metrics.increment(Metrics.RESPONSE_STORE_HITS);
+                    deliverResponse(stored.getBody(), handler);
+                    if (stored.getAge() < maxAge) {
+                        Metrics.increment(Metrics.RESPONSE_STORE_FRESH_HITS);
+                        return;
+                    }
+                } else {
+                    Metrics.increment(Metrics.RESPONSE_STORE_MISSES);
                 }
-                error.printStackTrace();
+                request.setStored(stored);
+                enqueue(request);
             }
         });
-        request.setRetryPolicy(
-                new DefaultRetryPolicy(750, 5, 3));
-        mRequestQueue.add(request);
-        mRequestQueue
-                .addRequestFinishedListener(new RequestQueue.RequestFinishedListener<Object>() {
-            @Override
-            public void onRequestFinished(Request<Object> request) {
-                mRequestQueue.getCache().clear();
+        return request;
+    }
+
+    /**
+     * Revalidates the stored response of an endpoint, the new response is stored and only
+     * delivered to the caller if it differs from the stored response that is on screen. If the
+     * request fails, the user is notified as to how old the data on their screen is and the
+     * error callback of the caller (if any) is executed.
+     */
+    private static final class RevalidationRequest extends StringRequest {
+        private final Context mContext;
+        private final Priority mPriority;
+        private final ResponseStore mStore;
+        private final ResponseHandler mHandler;
+        private final ErrorCallback mErrorCallback;
+        // the stored response that is on screen, null if there is none.
+        private ResponseStore.Entry mStored;
+
+        RevalidationRequest(Context context, String url, Priority priority, ResponseStore store,
+                            ResponseHandler handler, ErrorCallback errorCallback) {
+            super(Method.GET, url, null, null);
+            mContext = context;
+            mPriority = priority;
+            mStore = store;
+            mHandler = handler;
+            mErrorCallback = errorCallback;
+        }
+
+        void setStored(ResponseStore.Entry stored) {
+            mStored = stored;
+        }
+
+        @Override
+        public Priority getPriority() {
+            return mPriority;
+        }
+
+        @Override
+        protected void deliverResponse(String response) {
+            mStore.put(getUrl(), response);
+            // the stored response is already on screen, only re-render if it has changed.
+            if (mStored == null || !mStored.getBody().equals(response)) {
+                Util.deliverResponse(response, mHandler);
             }
-        });
+        }
+
+        @Override
+        public void deliverError(VolleyError error) {
+            getErrorListener(mContext, mStored).onErrorResponse(error);
+            if (mErrorCallback != null) {
+                mErrorCallback.onError();
+            }
+        }
     }
 
     /**
-     * Makes an API call to communicate with the PocketProfit server by using the given endpoint.
-     * The PocketProfit server will then fetch JSON data based on the endpoint given.
-     * If the PocketProfit server is able to successfuly retrieve and send the JSON data back to
-     * the client, then the callback function given as a parameter will execute. Otherwise,
-     * nothing will happen.
+     * Sends a request to the given PocketProfit server endpoint, the given listener is executed
+     * upon a successful API call. If the request fails, the user is notified as to how old the
+     * data on their screen is.
+     * The response is not stored by the ResponseStore.
      *
+     * @param context   the context of the application.
      * @param url       PocketProfit server endpoint url.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param stored    the stored response that is on screen, null if there is none.
+     * @param listener  the listener to execute upon a successful API call.
+     * @return          the request that was sent to the PocketProfit server.
+     */
+    private static Request<String> sendRequest(final Context context, String url,
+                                               final ResponseStore.Entry stored,
+                                               Response.Listener<String> listener) {
+        return enqueue(new StringRequest(Request.Method.GET, url, listener,
+                getErrorListener(context, stored)));
+    }
+
+    /**
+     * Same as sendRequest(context, url, null, listener), except that the given error callback is
+     * executed as well if the request fails.
+     *
+     * @param context       the context of the application.
+     * @param url           PocketProfit server endpoint url.
+     * @param listener      the listener to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails.
+     * @return              the request that was sent to the PocketProfit server.
      */
-    private static void fetchPocketProfitServerData(String url, final JSONObjectCallback callback) {
-        StringRequest request = new StringRequest(Request.Method.GET, url,
-                                        new Response.Listener<String>() {
+    private static Request<String> sendRequest(final Context context, String url,
+                                               Response.Listener<String> listener,
+                                               final ErrorCallback errorCallback) {
+        final Response.ErrorListener errorListener = getErrorListener(context, null);
+        return enqueue(new StringRequest(Request.Method.GET, url, listener,
+                new Response.ErrorListener() {
             @Override
-            public void onResponse(String response) {
-                try {
-                    callback.onSuccess(new JSONObject(response));
-                } catch (JSONException e) {
-                    e.printStackTrace();
-                }
+            public void onErrorResponse(VolleyError error) {
+                errorListener.onErrorResponse(error);
+                errorCallback.onError();
             }
-        }, new Response.ErrorListener() {
+        }));
+    }
+
+    /**
+     * Returns the listener to execute when a request fails, it logs the reason as to why and
+     * notifies the user as to how old the data on their screen is.
+     *
+     * @param context   the context of the application.
+     * @param stored    the stored response that is on screen, null if there is none.
+     * @return          the listener to execute when a request fails.
+     */
+    private static Response.ErrorListener getErrorListener(final Context context,
+                                                           final ResponseStore.Entry stored) {
+        return new Response.ErrorListener() {
             @Override
             public void onErrorResponse(VolleyError error) {
-                if (error instanceof TimeoutError || error instanceof NoConnectionError) {
-                    Log.e(TAG, "TimeoutError || NoConnectionError");
-                    Log.i(TAG, "TimeoutError || NoConnectionError");
-                } else if (error instanceof AuthFailureError) {
-                    Log.e(TAG, "AuthFailureError");
-                    Log.i(TAG, "AuthFailureError");
-                } else if (error instanceof ServerError) {
-                    Log.e(TAG, "ServerError");
-                    Log.i(TAG, "ServerError");
-                } else if (error instanceof NetworkError) {
-                    Log.e(TAG, "Network Error");
-                    Log.i(TAG, "Network Error");
-                } else if (error instanceof ParseError) {
-                    Log.e(TAG, "ParseError " + error.getMessage());
-                    Log.i(TAG, "ParseError " + error.getMessage());
-                }
-                error.printStackTrace();
+                onRequestError(context, error, stored);
             }
-        });
+        };
+    }
+
+    /**
+     * Logs the reason as to why a request has failed and notifies the user as to how old the
+     * data on their screen is. Used by requests that handle their own errors, such as the
+     * SectorPageRequest.
+     *
+     * @param context   the context of the application.
+     * @param error     the error returned by Volley.
+     * @param stored    the stored response that is on screen, null if there is none.
+     */
+    static void onRequestError(Context context, VolleyError error, ResponseStore.Entry stored) {
+        Metrics.increment(Metrics.HTTP_ERRORS);
+        logRequestError(error);
+        showStalenessMarker(context, stored);
+    }
+
+    /**
+     * Adds the given request to the request queue.
+     *
+     * @param request   the request to send to the PocketProfit server.
+     * @return          the request given as a parameter.
+     */
+    private static <T> Request<T> enqueue(Request<T> request) {
         request.setRetryPolicy(
-                new DefaultRetryPolicy(750, 5, 3));
-        mRequestQueue.add(request);
-        mRequestQueue
-                .addRequestFinishedListener(new RequestQueue.RequestFinishedListener<Object>() {
+                new DefaultRetryPolicy(750, 5, 3) {
             @Override
-            public void onRequestFinished(Request<Object> request) {
-                mRequestQueue.getCache().clear();
+            public void retry(VolleyError error) throws VolleyError {
+                super.retry(error);
+                Metrics.increment(Metrics.HTTP_RETRIES);
             }
         });
+        synchronized (mRequestStartTimes) {
+            mRequestStartTimes.put(request, Metrics.now());
+        }
+        Tracing.beginAsync(getEndpointMetric(request.getUrl()), System.identityHashCode(request));
+        if (mInstrumentedQueue != mRequestQueue) {
+            mRequestQueue.addRequestFinishedListener(REQUEST_FINISHED_LISTENER);
+            mInstrumentedQueue = mRequestQueue;
+        }
+        mRequestQueue.add(request);
+        return request;
+    }
+
+    /**
+     * Returns the name under which the latency of requests to the given endpoint is recorded,
+     * e.g. 'http.quote' for requests to the quote endpoint.
+     *
+     * @param url   PocketProfit server endpoint url.
+     * @return      the name of the latency histogram of the endpoint.
+     */
+    private static String getEndpointMetric(String url) {
+        String endpoint = Uri.parse(url).getLastPathSegment();
+        return "http." + ((endpoint == null) ? "root" : endpoint);
+    }
+
+    /**
+     * Sends all requests to the PocketProfit server through the given HTTP stack (e.g. the
+     * StubServer of debug builds) rather than Volley's default. Requests that are already queued
+     * are dropped.
+     *
+     * @param stack the HTTP stack to use, null for Volley's default.
+     */
+    public static synchronized void setHttpStack(BaseHttpStack stack) {
+        mHttpStack = stack;
+        if (mRequestQueue != null) {
+            mRequestQueue.stop();
+            mRequestQueue = null;
+        }
+    }
+
+    /**
+     * Hands the given response off to the given handler.
+     *
+     * @param response  the raw response body.
+     * @param handler   parses and delivers a response to the caller.
+     */
+    private static void deliverResponse(String response, ResponseHandler handler) {
+        Tracing.begin("Util.deliverResponse");
+        try {
+            handler.onResponse(response);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    /**
+     * Logs the reason as to why a request to the PocketProfit server has failed.
+     *
+     * @param error the error returned by Volley.
+     */
+    private static void logRequestError(VolleyError error) {
+        if (error instanceof TimeoutError || error instanceof NoConnectionError) {
+            Log.e(TAG, "TimeoutError || NoConnectionError");
+            Log.i(TAG, "TimeoutError || NoConnectionError");
+        } else if (error instanceof AuthFailureError) {
+            Log.e(TAG, "AuthFailureError");
+            Log.i(TAG, "AuthFailureError");
+        } else if (error instanceof ServerError) {
+            Log.e(TAG, "ServerError");
+            Log.i(TAG, "ServerError");
+        } else if (error instanceof NetworkError) {
+            Log.e(TAG, "Network Error");
+            Log.i(TAG, "Network Error");
+        } else if (error instanceof ParseError) {
+            Log.e(TAG, "ParseError " + error.getMessage());
+            Log.i(TAG, "ParseError " + error.getMessage());
+        }
+        error.printStackTrace();
+    }
+
+    /**
+     * Lets the user know that the PocketProfit server could not be reached, and if the data on
+     * their screen came from the ResponseStore, how old that data is.
+     * A screen typically makes several requests at once, so the message is only displayed once
+     * every STALENESS_MARKER_INTERVAL milliseconds.
+     *
+     * @param context   the context of the application.
+     * @param stored    the stored response that is on screen, null if there is none.
+     */
+    private static void showStalenessMarker(Context context, ResponseStore.Entry stored) {
+        long now = System.currentTimeMillis();
+        if (now - mLastStalenessMarker < STALENESS_MARKER_INTERVAL) {
+            return;
+        }
+        mLastStalenessMarker = now;
+        if (stored == null) {
+            Util.displayToast(context, "Unable to reach PocketProfit. Check your connection.");
+        } else {
+            Util.displayToast(context, "Offline. Showing data from " +
+                    DateUtils.getRelativeTimeSpanString(stored.getSavedAt(), now,
+                            DateUtils.MINUTE_IN_MILLIS) + ".");
+        }
+    }
+
+    /**
+     * Returns true if the given security can be traded on PocketProfit. Securities on OTC
+     * exchanges, mutual funds, preferred shares and symbols containing '-' are not supported.
+     *
+     * @param symbol        the security ticker symbol.
+     * @param name          the name of the security.
+     * @param exchange      the exchange the security is listed on.
+     * @param securityType  the type of the security.
+     * @return              true if the security is supported, false otherwise.
+     */
+    public static boolean isSupportedSecurity(String symbol, String name, String exchange,
+                                              String securityType) {
+        return !symbol.contains("-") && !EXCHANGES_NOT_SUPPORTED.contains(exchange) &&
+                !name.equals("") && !securityType.equals("MF_O") && !securityType.equals("PREF");
     }
 
     /**
@@ -604,9 +981,43 @@ public final class Util {
         return baseURL.replace("{symbol}", symbol);
     }
 
+    /**
+     * Returns how long (ms) the stored top movers can be used before they are revalidated.
+     * While the US market is open the movers change constantly, so this is TOP_MOVERS_MAX_AGE.
+     * Otherwise, movers that were received after the market last closed are final and used until
+     * the market opens again. Market holidays are not taken into account.
+     *
+     * @return  the max age of the stored top movers.
+     */
+    private static long getTopMoversMaxAge() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("America/New_York"));
+        long now = calendar.getTimeInMillis();
+        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+        int minuteOfDay = calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+        boolean weekday = dayOfWeek != Calendar.SATURDAY && dayOfWeek != Calendar.SUNDAY;
+        if (weekday && minuteOfDay >= 9 * 60 + 30 && minuteOfDay < 16 * 60) {
+            return TOP_MOVERS_MAX_AGE;
+        }
+
+        // finds the time the market last closed at (4:00 PM on the most recent weekday).
+        if (!weekday || minuteOfDay < 16 * 60) {
+            do {
+                calendar.add(Calendar.DAY_OF_MONTH, -1);
+                dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+            } while (dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY);
+        }
+        calendar.set(Calendar.HOUR_OF_DAY, 16);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return Math.max(TOP_MOVERS_MAX_AGE, now - calendar.getTimeInMillis());
+    }
+
     /**
      * Retrieves information about stocks that have lost the most value in the most recent trading
      * day (including today).
+     * Stored movers are delivered right away and only revalidated once they are older than the
+     * max age given by getTopMoversMaxAge().
      * If the PocketProfit server successfully returns back the JSON data regarding this query,
      * the given callback code will be executed. Otherwise, it will not.
      * The context it used to create and execute the call to the PocketProfit server.
@@ -616,14 +1027,17 @@ public final class Util {
      */
     public static void fetchTopLosers(Context context, final JSONArrayCallback callback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.TOP_LOSERS, callback);
+        fetchPocketProfitServerData(context, ServerConfig.TOP_LOSERS, getTopMoversMaxAge(),
+                callback);
     }
 
     /**
      * Retrieves information about stocks that have gained the most value in the most recent trading
      * day (including today).
+     * Stored movers are delivered right away and only revalidated once they are older than the
+     * max age given by getTopMoversMaxAge().
      * If the PocketProfit server successfully returns back the JSON data regarding this query,
      * the given callback code will be executed. Otherwise, it will not.
      * The context it used to create and execute the call to the PocketProfit server.
@@ -633,33 +1047,56 @@ public final class Util {
      */
     public static void fetchTopGainers(Context context, final JSONArrayCallback callback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.TOP_GAINERS, callback);
+        fetchPocketProfitServerData(context, ServerConfig.TOP_GAINERS, getTopMoversMaxAge(),
+                callback);
     }
 
     /**
-     * Retrieves recent articles about the security given by its ticker symbol as a parameter.
+     * Retrieves articles about the security given by its ticker symbol as a parameter, published
+     * after 'since' and before 'before' (both in milliseconds since epoch, 0 for no bound).
      * If the PocketProfit server successfully returns back the JSON data regarding this query,
-     * the given callback code will be executed. Otherwise, it will not.
+     * the given callback code will be executed with the raw response. Otherwise, the given error
+     * callback will be executed.
+     * Articles are kept by the NewsStore, so the response is not stored by this class.
      * The context it used to create and execute the call to the PocketProfit server.
      *
-     * @param context   the context of the activity.
-     * @param symbol    the security ticker symbol, of which data will be retrieved.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param context       the context of the activity.
+     * @param symbol        the security ticker symbol, of which data will be retrieved.
+     * @param since         only articles published after this time are retrieved, 0 for no bound.
+     * @param before        only articles published before this time are retrieved, 0 for no
+     *                      bound.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails.
      */
-    public static void fetchCompanyNews(Context context, String symbol,
-                                      final JSONArrayCallback callback) {
+    public static void fetchCompanyNews(Context context, String symbol, long since, long before,
+                                        final StringCallback callback,
+                                        ErrorCallback errorCallback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
+        }
+        String url = ServerConfig.COMPANY_NEWS + "?symbol=" + symbol;
+        if (since > 0) {
+            url += "&since=" + since;
         }
-        fetchPocketProfitServerData(ServerConfig.COMPANY_NEWS + "?symbol=" + symbol, callback);
+        if (before > 0) {
+            url += "&before=" + before;
+        }
+        sendRequest(context.getApplicationContext(), url, new Response.Listener<String>() {
+            @Override
+            public void onResponse(String response) {
+                callback.onSuccess(response);
+            }
+        }, errorCallback);
     }
 
     /**
      * Retrieves information about the security given by its ticker symbol as a parameter.
      * If the PocketProfit server successfully returns back the JSON data regarding this query,
      * the given callback code will be executed. Otherwise, it will not.
+     * The company profile rarely changes, so a stored profile is delivered right away and only
+     * refreshed in the background once it is older than COMPANY_PROFILE_MAX_AGE.
      * The context it used to create and execute the call to the PocketProfit server.
      *
      * @param context   the context of the activity.
@@ -669,80 +1106,138 @@ public final class Util {
     public static void fetchInfoAboutCompany(Context context, String symbol,
                                            final JSONObjectCallback callback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.COMPANY_INFORMATION + "?symbol=" + symbol,
-                        callback);
+        fetchPocketProfitServerData(context, companyInformationUrl(symbol),
+                        COMPANY_PROFILE_MAX_AGE, callback);
+    }
+
+    /**
+     * Reads the stored company profile of the given security into memory in the background.
+     * Called when a security is selected, right before its StockInformationActivity is started,
+     * so that fetchInfoAboutCompany() can usually render the stored profile on the first frame.
+     *
+     * @param context   the context of the activity.
+     * @param symbol    the security ticker symbol, of which the profile will be preloaded.
+     */
+    public static void preloadInfoAboutCompany(Context context, String symbol) {
+        ResponseStore.getInstance(context).preload(companyInformationUrl(symbol));
+    }
+
+    private static String companyInformationUrl(String symbol) {
+        return ServerConfig.COMPANY_INFORMATION + "?symbol=" + symbol;
     }
 
     /**
      * Retrieves the search result information of a query that a user has made.
      * The search result in this case would consist of securities that match the given query.
      * If the PocketProfit server successfully returns back the JSON data regarding this query,
-     * the given callback code will be executed. Otherwise, it will not.
+     * the given callback code will be executed. Otherwise, the given error callback will be
+     * executed.
+     * The filtered results are kept by the SearchResultCache, so the response is not stored by
+     * this class.
      * The context it used to create and execute the call to the PocketProfit server.
      *
-     * @param context   the context of the activity.
-     * @param query     the query that the user has made.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param context       the context of the activity.
+     * @param query         the query that the user has made.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails.
+     * @return              the request that was sent to the PocketProfit server, which can be
+     *                      cancelled once the user has moved on to a different query.
      */
-    public static void fetchSearchResults(Context context, String query,
-                                          final JSONArrayCallback callback) {
+    public static Request<String> fetchSearchResults(Context context, String query,
+                                          final JSONArrayCallback callback,
+                                          ErrorCallback errorCallback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
         String url = ServerConfig.PROCESS_QUERY + "?inputQuery=" + query;
-        fetchPocketProfitServerData(url.replaceAll(" ", "%20"), callback);
+        final ResponseHandler handler = newResponseHandler(callback);
+        return sendRequest(context.getApplicationContext(), url.replaceAll(" ", "%20"),
+                new Response.Listener<String>() {
+            @Override
+            public void onResponse(String response) {
+                deliverResponse(response, handler);
+            }
+        }, errorCallback);
     }
 
     /**
-     * ...
+     * Retrieves the changes made to the universe of securities available to trade since the given
+     * version of the universe. A version of 0 retrieves the entire universe.
+     * If the PocketProfit server successfully returns back the JSON data regarding these changes,
+     * the given callback code will be executed with the raw response. Otherwise, the given error
+     * callback will be executed.
+     * The universe is kept by the SymbolUniverse, so the response is not stored by this class.
+     * The context it used to create and execute the call to the PocketProfit server.
      *
-     * @param context   the context of the activity.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param context       the context of the activity.
+     * @param since         the version of the universe stored on the device.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails.
      */
-    public static void fetchSectorList(Context context, final JSONArrayCallback callback) {
+    public static void fetchSymbolUniverse(Context context, long since,
+                                           final StringCallback callback,
+                                           ErrorCallback errorCallback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.SECTOR_LIST, callback);
+        String url = ServerConfig.SYMBOL_UNIVERSE + "?since=" + since;
+        sendRequest(context.getApplicationContext(), url, new Response.Listener<String>() {
+            @Override
+            public void onResponse(String response) {
+                callback.onSuccess(response);
+            }
+        }, errorCallback);
     }
 
     /**
      * ...
      *
      * @param context   the context of the activity.
-     * @param sector
      * @param callback  the callback function to execute upon a successful API call.
      */
-    public static void fetchSectorInformation(Context context, String sector, final JSONArrayCallback callback) {
+    public static void fetchSectorList(Context context, final JSONArrayCallback callback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        String url = ServerConfig.SECTOR_INFORMATION + "?sector=" + sector;
-        fetchPocketProfitServerData(url.replaceAll(" ", "%20"), callback);
+        fetchPocketProfitServerData(context, ServerConfig.SECTOR_LIST, callback);
     }
 
     /**
-     * Retrieves the stock quote data of the security given by its ticker symbol as a parameter.
-     * If the PocketProfit server successfully returns back the JSON data regarding this security,
-     * the given callback code will be executed. Otherwise, it will not.
+     * Retrieves a single page of the securities in the given sector, SECTOR_PAGE_SIZE securities
+     * at a time. Loading a sector page by page keeps the responses small enough for the
+     * PocketProfit server to process, even for the largest sectors.
+     * If the PocketProfit server successfully returns back the JSON data regarding this page,
+     * the given callback code will be executed. If the request fails, the callback is executed
+     * with the copy of the page stored the last time it was retrieved, or the given error callback
+     * is executed if there is none. See SectorPageRequest.
      * The context it used to create and execute the call to the PocketProfit server.
      *
-     * @param context   the context of the activity.
-     * @param symbol    the security ticker symbol, of which data will be retrieved.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param context       the context of the activity.
+     * @param sector        the name of the sector.
+     * @param page          the index of the page, starting at 0.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the page could not be retrieved.
+     * @return              the request that was sent to the PocketProfit server, which can be
+     *                      cancelled if the page is no longer needed.
      */
-    public static void fetchStockQuote(final Context context, final String symbol,
-                                     final JSONObjectCallback callback) {
+    public static Request<SectorPageRequest.Page> fetchSectorPage(Context context, String sector,
+                                                  int page, SectorPageRequest.Callback callback,
+                                                  ErrorCallback errorCallback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.STOCK_QUOTE + "?symbol=" + symbol, callback);
+        Context applicationContext = context.getApplicationContext();
+        String url = ServerConfig.SECTOR_INFORMATION + "?sector=" + sector + "&page=" + page +
+                "&pageSize=" + SECTOR_PAGE_SIZE;
+        return enqueue(new SectorPageRequest(applicationContext, url.replaceAll(" ", "%20"),
+                SECTOR_PAGE_SIZE, ResponseStore.getInstance(applicationContext), callback,
+                errorCallback));
     }
 
     /**
-     * Retrieves the intraday chart data of the security given by its ticker symbol as a parameter.
+     * Retrieves the stock quote data of the security given by its ticker symbol as a parameter.
      * If the PocketProfit server successfully returns back the JSON data regarding this security,
      * the given callback code will be executed. Otherwise, it will not.
      * The context it used to create and execute the call to the PocketProfit server.
@@ -751,107 +1246,124 @@ public final class Util {
      * @param symbol    the security ticker symbol, of which data will be retrieved.
      * @param callback  the callback function to execute upon a successful API call.
      */
-    public static void fetchIntradayChartData(final Context context, final String symbol,
-                                          final JSONArrayCallback callback) {
-        if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
-        }
-        fetchPocketProfitServerData(ServerConfig.INTRADAY_DATA + "?symbol=" + symbol,
-                callback);
+    public static void fetchStockQuote(final Context context, final String symbol,
+                                     final JSONObjectCallback callback) {
+        fetchStockQuote(context, symbol, callback, null);
     }
 
     /**
-     * Retrieves the five dya chart data of the security given by its ticker symbol as a parameter.
-     * If the PocketProfit server successfully returns back the JSON data regarding this security,
-     * the given callback code will be executed. Otherwise, it will not.
-     * The context it used to create and execute the call to the PocketProfit server.
+     * Same as fetchStockQuote(context, symbol, callback), except that the given error callback is
+     * executed if the API call fails. A stored quote may have been delivered to the callback
+     * already by then.
      *
-     * @param context   the context of the activity.
-     * @param symbol    the security ticker symbol, of which data will be retrieved.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param context       the context of the activity.
+     * @param symbol        the security ticker symbol, of which data will be retrieved.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails, or null.
      */
-    public static void fetchFiveDayChartData(final Context context, final String symbol,
-                                           final JSONArrayCallback callback) {
+    public static void fetchStockQuote(final Context context, final String symbol,
+                                     final JSONObjectCallback callback,
+                                     ErrorCallback errorCallback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.FIVE_DAY_DATA + "?symbol=" + symbol,
-                callback);
+        fetchPocketProfitServerData(context, ServerConfig.STOCK_QUOTE + "?symbol=" + symbol, 0,
+                callback, errorCallback);
     }
 
     /**
-     * Retrieves the one month chart data of the security given by its ticker symbol as a parameter.
-     * If the PocketProfit server successfully returns back the JSON data regarding this security,
-     * the given callback code will be executed. Otherwise, it will not.
-     * The context it used to create and execute the call to the PocketProfit server.
+     * Returns whether the user has turned on Data Saver and hasn't exempted PocketProfit from it,
+     * in which case data the user hasn't asked for (e.g. prefetches) must not be downloaded.
      *
      * @param context   the context of the activity.
-     * @param symbol    the security ticker symbol, of which data will be retrieved.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @return          true if background data usage is restricted, false otherwise.
      */
-    public static void fetchOneMonthChartData(final Context context, final String symbol,
-                                            final JSONArrayCallback callback) {
-        if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
-        }
-        fetchPocketProfitServerData(ServerConfig.ONE_MONTH_DATA + "?symbol=" + symbol,
-                callback);
+    public static boolean isDataSaverEnabled(Context context) {
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        return connectivityManager != null &&
+                ConnectivityManagerCompat.getRestrictBackgroundStatus(connectivityManager) ==
+                        ConnectivityManagerCompat.RESTRICT_BACKGROUND_STATUS_ENABLED;
     }
 
     /**
-     * Retrieves the six month chart data of the security given by its ticker symbol as a parameter.
+     * Retrieves the intraday chart data of the security given by its ticker symbol as a parameter.
      * If the PocketProfit server successfully returns back the JSON data regarding this security,
-     * the given callback code will be executed. Otherwise, it will not.
+     * the given callback code will be executed. Otherwise, the given error callback will be
+     * executed.
      * The context it used to create and execute the call to the PocketProfit server.
      *
-     * @param context   the context of the activity.
-     * @param symbol    the security ticker symbol, of which data will be retrieved.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param context       the context of the activity.
+     * @param symbol        the security ticker symbol, of which data will be retrieved.
+     * @param priority      the priority of the request, low if the user isn't waiting on it.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails.
+     * @return              the request that was sent to the PocketProfit server, which can be
+     *                      cancelled if the chart data is no longer needed.
      */
-    public static void fetchSixMonthChartData(final Context context, final String symbol,
-                                            final JSONArrayCallback callback) {
+    public static Request<String> fetchIntradayChartData(final Context context,
+                                                         final String symbol,
+                                                         final Request.Priority priority,
+                                                         final JSONArrayCallback callback,
+                                                         final ErrorCallback errorCallback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.SIX_MONTH_DATA + "?symbol=" + symbol,
-                callback);
+        String url = ServerConfig.INTRADAY_DATA + "?symbol=" + symbol;
+        return fetchPocketProfitServerData(context, url, priority, callback, errorCallback);
     }
 
     /**
-     * Retrieves the one year chart data of the security given by its ticker symbol as a parameter.
+     * Retrieves the five dya chart data of the security given by its ticker symbol as a parameter.
      * If the PocketProfit server successfully returns back the JSON data regarding this security,
-     * the given callback code will be executed. Otherwise, it will not.
+     * the given callback code will be executed. Otherwise, the given error callback will be
+     * executed.
      * The context it used to create and execute the call to the PocketProfit server.
      *
-     * @param context   the context of the activity.
-     * @param symbol    the security ticker symbol, of which data will be retrieved.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param context       the context of the activity.
+     * @param symbol        the security ticker symbol, of which data will be retrieved.
+     * @param priority      the priority of the request, low if the user isn't waiting on it.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails.
+     * @return              the request that was sent to the PocketProfit server, which can be
+     *                      cancelled if the chart data is no longer needed.
      */
-    public static void fetchOneYearChartData(final Context context, final String symbol,
-                                           final JSONArrayCallback callback) {
+    public static Request<String> fetchFiveDayChartData(final Context context,
+                                                        final String symbol,
+                                                        final Request.Priority priority,
+                                                        final JSONArrayCallback callback,
+                                                        final ErrorCallback errorCallback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.ONE_YEAR_DATA + "?symbol=" + symbol,
-                callback);
+        String url = ServerConfig.FIVE_DAY_DATA + "?symbol=" + symbol;
+        return fetchPocketProfitServerData(context, url, priority, callback, errorCallback);
     }
 
     /**
      * Retrieves the five year chart data of the security given by its ticker symbol as a parameter.
      * If the PocketProfit server successfully returns back the JSON data regarding this security,
-     * the given callback code will be executed. Otherwise, it will not.
+     * the given callback code will be executed. Otherwise, the given error callback will be
+     * executed.
      * The context it used to create and execute the call to the PocketProfit server.
      *
-     * @param context   the context of the activity.
-     * @param symbol    the security ticker symbol, of which data will be retrieved.
-     * @param callback  the callback function to execute upon a successful API call.
+     * @param context       the context of the activity.
+     * @param symbol        the security ticker symbol, of which data will be retrieved.
+     * @param priority      the priority of the request, low if the user isn't waiting on it.
+     * @param callback      the callback function to execute upon a successful API call.
+     * @param errorCallback the callback function to execute if the API call fails.
+     * @return              the request that was sent to the PocketProfit server, which can be
+     *                      cancelled if the chart data is no longer needed.
      */
-    public static void fetchFiveYearChartData(final Context context, final String symbol,
-                                            final JSONArrayCallback callback) {
+    public static Request<String> fetchFiveYearChartData(final Context context,
+                                                         final String symbol,
+                                                         final Request.Priority priority,
+                                                         final JSONArrayCallback callback,
+                                                         final ErrorCallback errorCallback) {
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(context);
+            mRequestQueue = Volley.newRequestQueue(context, mHttpStack);
         }
-        fetchPocketProfitServerData(ServerConfig.FIVE_YEAR_DATA + "?symbol=" + symbol,
-                callback);
+        String url = ServerConfig.FIVE_YEAR_DATA + "?symbol=" + symbol;
+        return fetchPocketProfitServerData(context, url, priority, callback, errorCallback);
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -14,25 +15,38 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.AdView;
 import com.pocketprofit.R;
-import com.pocketprofit.source.JSONArrayCallback;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.adapters.NewsAdapter;
 import com.pocketprofit.source.adapters.SearchResultAdapter;
+import com.pocketprofit.source.cache.NewsStore;
 import com.pocketprofit.source.entries.NewsEntry;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.util.ArrayList;
 import java.util.List;
 
 public class CompanyNewsActivity extends AppCompatActivity {
 
+    // number of articles displayed at a time as the user scrolls down.
+    private static final int PAGE_SIZE = 10;
+
+    // number of articles from the bottom of the list at which the next page is displayed.
+    private static final int PREFETCH_DISTANCE = 3;
+
     // bridge between our data (mNewsList) and our RecyclerView
     private NewsAdapter mAdapter;
     private List<NewsEntry> mNewsList;
 
+    private String mSymbol;
+
+    private NewsStore mNewsStore;
+    private NewsStore.Listener mNewsListener;
+
+    // every article of the stock known so far, newest first (mNewsList holds the displayed ones).
+    private List<NewsEntry> mAllNews;
+
+    private boolean mLoadingOlder;
+    private boolean mOlderAvailable = true;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -58,63 +72,77 @@ public class CompanyNewsActivity extends AppCompatActivity {
             }
         });
 
+        mSymbol = getIntent().getStringExtra(Util.EXTRA_SYMBOL);
+        mNewsStore = NewsStore.getInstance(this);
         mNewsList = new ArrayList<>();
+        mAllNews = new ArrayList<>();
+        mNewsListener = new NewsStore.Listener() {
+            @Override
+            public void onNewsLoaded(List<NewsEntry> news, boolean olderAvailable) {
+                boolean wasLoadingOlder = mLoadingOlder;
+                mLoadingOlder = false;
+                mOlderAvailable = olderAvailable;
+                mAllNews = news;
+                findViewById(R.id.no_news).setVisibility(news.isEmpty() ? View.VISIBLE : View.GONE);
+
+                int count = Math.min(news.size(), Math.max(mNewsList.size(), PAGE_SIZE));
+                if (news.size() >= mNewsList.size() &&
+                        news.subList(0, mNewsList.size()).equals(mNewsList)) {
+                    // articles were only added after the ones on screen.
+                    insertEntries(count);
+                } else {
+                    // newer articles were added on top of the ones on screen.
+                    mNewsList.clear();
+                    mNewsList.addAll(news.subList(0, count));
+                    mAdapter.notifyDataSetChanged();
+                }
+                if (wasLoadingOlder) {
+                    showNextPage();
+                }
+            }
+
+            @Override
+            public void onNewsFailed() {
+                // older articles are requested again the next time the user scrolls down.
+                mLoadingOlder = false;
+            }
+        };
         buildRecyclerView();
 
         getNewsInformation();
     }
 
     /**
-     * Makes an external API call for recent news articles regarding a stock.
+     * Loads the news articles regarding the stock, the stored articles are displayed right away
+     * and newer articles are added once they are received from the PocketProfit server.
      */
     public void getNewsInformation() {
-        String symbol = getIntent().getStringExtra(Util.EXTRA_SYMBOL);
-        Util.fetchCompanyNews(getBaseContext(), symbol, new JSONArrayCallback() {
-            @Override
-            public void onSuccess(JSONArray response) {
-                if (response.length() == 0) {
-                    CompanyNewsActivity.this.findViewById(R.id.no_news).setVisibility(View.VISIBLE);
-                } else {
-                    for (int i = 0; i < response.length(); i++) {
-                        try {
-                            JSONObject result = response.getJSONObject(i);
-
-                            String headline = result.getString("headline");
-                            String source = result.getString("source");
-                            String siteURL = result.getString("url");
-                            String summary = result.getString("summary");
-                            String imageURL = result.getString("image");
-
-                            String language = result.getString("lang");
-                            boolean hasPaywall = result.getBoolean("hasPaywall");
-                            if (language.equals("en") && !hasPaywall) {
-                                insertEntry(i, source, headline, summary, imageURL, siteURL);
-                            }
-                        } catch (JSONException e) {
-                            e.printStackTrace();
-                        }
-                    }
-                }
-            }
-        });
+        mNewsStore.load(getBaseContext(), mSymbol, mNewsListener);
+    }
+
+    /**
+     * Displays the next page of articles. Stored articles are displayed first, once all of them
+     * are on screen older articles are requested from the PocketProfit server.
+     */
+    private void showNextPage() {
+        if (mNewsList.size() < mAllNews.size()) {
+            insertEntries(Math.min(mAllNews.size(), mNewsList.size() + PAGE_SIZE));
+        } else if (mOlderAvailable && !mLoadingOlder) {
+            mLoadingOlder = true;
+            mNewsStore.loadOlder(getBaseContext(), mSymbol, mNewsListener);
+        }
     }
 
     /**
-     * Creates and initializes a news article entry using the given information.
-     * This article is then visible on the screen for the user to see, with its position relative
-     * to other articles being determined by the parameter 'position'.
+     * Displays the articles of mAllNews up until the given count, following the ones that are on
+     * screen already.
      *
-     * @param position  the position in the list to place the news entry.
-     * @param source    source of the article
-     * @param headline  headline of the article
-     * @param summary   summary of the article
-     * @param imageURL  image url of the article
-     * @param siteURL   website url of the article
+     * @param count the number of articles that should be on screen.
      */
-    public void insertEntry(int position, String source, String headline, String summary,
-                            String imageURL, String siteURL) {
-        mNewsList.add(new NewsEntry(source, headline, summary, imageURL, siteURL));
-        mAdapter.notifyItemInserted(position);
+    private void insertEntries(int count) {
+        int position = mNewsList.size();
+        mNewsList.addAll(mAllNews.subList(position, count));
+        mAdapter.notifyItemRangeInserted(position, count - position);
     }
 
     /**
@@ -128,6 +156,16 @@ public class CompanyNewsActivity extends AppCompatActivity {
 
         mRecyclerView.setLayoutManager(mLayoutManager);
         mRecyclerView.setAdapter(mAdapter);
+        mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int lastVisible = ((LinearLayoutManager) recyclerView.getLayoutManager())
+                        .findLastVisibleItemPosition();
+                if (dy > 0 && lastVisible >= mNewsList.size() - PREFETCH_DISTANCE) {
+                    showNextPage();
+                }
+            }
+        });
 
         mAdapter.setOnItemClickListener(new SearchResultAdapter.OnItemClickListener() {
             @Override
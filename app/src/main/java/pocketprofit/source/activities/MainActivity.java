@@ -6,7 +6,6 @@ import android.os.Bundle;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.animation.OvershootInterpolator;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -15,22 +14,26 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
-import com.facebook.shimmer.ShimmerFrameLayout;
 import com.getbase.floatingactionbutton.FloatingActionButton;
 import com.getbase.floatingactionbutton.FloatingActionsMenu;
 import com.google.android.gms.ads.AdListener;
 import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.AdView;
 import com.google.android.gms.ads.InterstitialAd;
-import com.google.android.gms.ads.MobileAds;
-import com.google.android.gms.ads.initialization.InitializationStatus;
-import com.google.android.gms.ads.initialization.OnInitializationCompleteListener;
+import com.pocketprofit.BuildConfig;
 import com.pocketprofit.R;
+import com.pocketprofit.source.ErrorCallback;
 import com.pocketprofit.source.JSONObjectCallback;
+import com.pocketprofit.source.Money;
+import com.pocketprofit.source.Startup;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.adapters.StockAdapter;
 import com.pocketprofit.source.database.DatabaseHelper;
 import com.pocketprofit.source.entries.StockEntry;
+import com.pocketprofit.source.metrics.MetricsDialog;
+import com.pocketprofit.source.metrics.Tracing;
+import com.pocketprofit.source.portfolio.PortfolioMath;
+import com.pocketprofit.source.portfolio.TodaysPurchases;
 import com.robinhood.ticker.TickerUtils;
 import com.robinhood.ticker.TickerView;
 
@@ -38,17 +41,29 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.Stack;
 
 public class MainActivity extends AppCompatActivity {
+    // name of the trace section spanning a refresh, from the first request to the last row.
+    private static final String TRACE_REFRESH = "MainActivity.refresh";
+
     private StockAdapter mStocksOwnedAdapter;
     private StockAdapter mWatchlistAdapter;
 
     private List<StockEntry> mStocksOwned;
     private List<StockEntry> mWatchlistStocks;
 
+    // true while the stock data of the list is being refreshed.
+    private boolean mLoadingStocksOwned;
+    private boolean mLoadingWatchlist;
+
+    // symbol -> how much that portfolio stock has gained/lost in value in the most recent trading
+    // day.
+    private Map<String, Double> mTodaysStockProfit;
+
     private DatabaseHelper mDatabase;
 
     private SwipeRefreshLayout mSwipeRefreshLayout;
@@ -57,39 +72,61 @@ public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        Startup.markPhase(Startup.PHASE_ACTIVITY_STARTING);
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        Startup.markPhase(Startup.PHASE_ACTIVITY_CREATED);
 
-        if (Util.DISPLAY_ADS) {
-            MobileAds.initialize(this, new OnInitializationCompleteListener() {
-                @Override
-                public void onInitializationComplete(InitializationStatus initializationStatus) {
-                }
-            });
-            AdView adView = (AdView) this.findViewById(R.id.ad_view);
-            final AdRequest adRequest = new AdRequest.Builder().build();
-            adView.loadAd(adRequest);
-
-            mInterstitialAd = new InterstitialAd(this);
-            mInterstitialAd.setAdUnitId(getResources().getString(R.string.homepage_interstitial_ad));
-            mInterstitialAd.loadAd(adRequest);
-            mInterstitialAd.setAdListener(new AdListener() {
-                @Override
-                public void onAdClosed() {
-                    mInterstitialAd.loadAd(adRequest);
-                }
-            });
-        } else {
+        if (!Util.DISPLAY_ADS) {
             this.findViewById(R.id.ad_container).setVisibility(View.GONE);
         }
 
         setupPortfolioValueText();
         mDatabase = DatabaseHelper.getInstance(this);
-        Util.setDateJoined(this);
+        mTodaysStockProfit = new HashMap<>();
         setPortfolioText();
         buildRecyclerViews();
         setUpSwipeRefresh();
         setUpButtons();
+
+        // nothing below is needed to display the portfolio, so it waits for the first frame.
+        Startup.runAfterFirstDraw(this, new Runnable() {
+            @Override
+            public void run() {
+                Util.setDateJoined(MainActivity.this);
+                if (Util.DISPLAY_ADS) {
+                    Startup.initializeAds(MainActivity.this, new Runnable() {
+                        @Override
+                        public void run() {
+                            loadAds();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads the banner ad and the interstitial ad of the homepage, once the ads SDK has been
+     * initialized.
+     */
+    private void loadAds() {
+        if (isFinishing()) {
+            return;
+        }
+        AdView adView = (AdView) this.findViewById(R.id.ad_view);
+        final AdRequest adRequest = new AdRequest.Builder().build();
+        adView.loadAd(adRequest);
+
+        mInterstitialAd = new InterstitialAd(this);
+        mInterstitialAd.setAdUnitId(getResources().getString(R.string.homepage_interstitial_ad));
+        mInterstitialAd.loadAd(adRequest);
+        mInterstitialAd.setAdListener(new AdListener() {
+            @Override
+            public void onAdClosed() {
+                mInterstitialAd.loadAd(adRequest);
+            }
+        });
     }
 
     /**
@@ -125,15 +162,17 @@ public class MainActivity extends AppCompatActivity {
         RecyclerView stockRecyclerView = this.findViewById(R.id.stock_recycler_view);
         stockRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         mStocksOwned = new ArrayList<>();
-        mStocksOwnedAdapter = new StockAdapter(this, mStocksOwned);
+        mStocksOwnedAdapter = new StockAdapter(this);
         stockRecyclerView.setAdapter(mStocksOwnedAdapter);
         stockRecyclerView.setNestedScrollingEnabled(false);
 
         mStocksOwnedAdapter.setOnItemClickListener(new StockAdapter.OnItemClickListener() {
             @Override
             public void onItemClick(int position) {
+                String symbol = mStocksOwnedAdapter.getSymbol(position);
+                Util.preloadInfoAboutCompany(getApplicationContext(), symbol);
                 Intent intent = new Intent(getApplicationContext(), StockInformationActivity.class);
-                intent.putExtra(Util.EXTRA_SYMBOL, mStocksOwnedAdapter.getSymbol(position));
+                intent.putExtra(Util.EXTRA_SYMBOL, symbol);
                 startActivity(intent);
             }
         });
@@ -142,14 +181,16 @@ public class MainActivity extends AppCompatActivity {
         watchlistRecyclerView.setLayoutManager(new LinearLayoutManager(this));
 
         mWatchlistStocks = new ArrayList<>();
-        mWatchlistAdapter = new StockAdapter(this, mWatchlistStocks);
+        mWatchlistAdapter = new StockAdapter(this);
         watchlistRecyclerView.setAdapter(mWatchlistAdapter);
         watchlistRecyclerView.setNestedScrollingEnabled(false);
         mWatchlistAdapter.setOnItemClickListener(new StockAdapter.OnItemClickListener() {
             @Override
             public void onItemClick(int position) {
+                String symbol = mWatchlistAdapter.getSymbol(position);
+                Util.preloadInfoAboutCompany(getApplicationContext(), symbol);
                 Intent intent = new Intent (getApplicationContext(), StockInformationActivity.class);
-                intent.putExtra(Util.EXTRA_SYMBOL, mWatchlistAdapter.getSymbol(position));
+                intent.putExtra(Util.EXTRA_SYMBOL, symbol);
                 startActivity(intent);
             }
         });
@@ -247,12 +288,24 @@ public class MainActivity extends AppCompatActivity {
      * most recent price data.
      */
     private void recalibrateStockData() {
-        LinearLayout stockShimmer = this.findViewById(R.id.shimmer_stock);
-        LinearLayout watchlistShimmer = (LinearLayout) this.findViewById(R.id.shimmer_watchlist);
         // don't refresh the stock data is a previous refresh is still in progress.
-        if ((stockShimmer.getChildCount() == 0) && (watchlistShimmer.getChildCount() == 0)) {
+        if (!mLoadingStocksOwned && !mLoadingWatchlist) {
+            Tracing.begin("MainActivity.recalibrateStockData");
+            Tracing.beginAsync(TRACE_REFRESH, System.identityHashCode(this));
             loadPortfolioStockData();
             loadWatchlistStockData();
+            onStockListLoaded();
+            Tracing.end();
+        }
+    }
+
+    /**
+     * Ends the trace section of the refresh once both the portfolio and the watchlist have been
+     * loaded.
+     */
+    private void onStockListLoaded() {
+        if (!mLoadingStocksOwned && !mLoadingWatchlist) {
+            Tracing.endAsync(TRACE_REFRESH, System.identityHashCode(this));
         }
     }
 
@@ -315,22 +368,14 @@ public class MainActivity extends AppCompatActivity {
      * user. Once this stock data is retrieved, it is processed and displayed on the user's screen.
      */
     private void loadWatchlistStockData() {
-        if (mWatchlistStocks.size() > 0) {
-            mWatchlistStocks.clear();
-            mWatchlistAdapter.notifyDataSetChanged();
-        }
+        Tracing.begin("MainActivity.loadWatchlistStockData");
         final List<String> symbols = new ArrayList<>(Util.getWatchlist(this));
         toggleViewVisibility(symbols.size(), findViewById(R.id.watchlist_header));
+        prepareStockEntries(mWatchlistStocks, mWatchlistAdapter, symbols);
 
-        final ShimmerFrameLayout watchlistShimmerLayout = this.findViewById(R.id.watchlist_placeholder);
-        final LinearLayout layout = (LinearLayout) this.findViewById(R.id.shimmer_watchlist);
-        watchlistShimmerLayout.setVisibility(View.VISIBLE);
-        watchlistShimmerLayout.startShimmer();
-        for (int i = layout.getChildCount(); i < symbols.size(); i++) {
-            insertPlaceholder(layout);
-        }
-
-        stockDataRequest(0, symbols, layout, watchlistShimmerLayout, false, 0.0);
+        mLoadingWatchlist = !symbols.isEmpty();
+        stockDataRequest(0, symbols, false);
+        Tracing.end();
     }
 
     /**
@@ -339,117 +384,206 @@ public class MainActivity extends AppCompatActivity {
      * user's screen.
      */
     private void loadPortfolioStockData() {
-        if (mStocksOwned.size() > 0) {
-            mStocksOwned.clear();
-            mStocksOwnedAdapter.notifyDataSetChanged();
-        }
+        Tracing.begin("MainActivity.loadPortfolioStockData");
+        mTodaysStockProfit.clear();
         final List<String> symbols = mDatabase.getAllStockSymbols();
         if (symbols.size() == 0) {
             setPortfolioText();
         }
         toggleViewVisibility(symbols.size(), findViewById(R.id.stock_header));
+        prepareStockEntries(mStocksOwned, mStocksOwnedAdapter, symbols);
 
-
-        final ShimmerFrameLayout stocksShimmerLayout = this.findViewById(R.id.stocks_owned_placeholder);
-        final LinearLayout layout = (LinearLayout) this.findViewById(R.id.shimmer_stock);
-        stocksShimmerLayout.setVisibility(View.VISIBLE);
-        stocksShimmerLayout.startShimmer();
-        for (int i = layout.getChildCount(); i < symbols.size(); i++) {
-            insertPlaceholder(layout);
-        }
-
-        stockDataRequest(0, symbols, layout, stocksShimmerLayout, true, 0.0);
+        mLoadingStocksOwned = !symbols.isEmpty();
+        stockDataRequest(0, symbols, true);
+        Tracing.end();
     }
 
     /**
-     * Fetches stock data of the i'th element of the given list (0 based index) and adds a view
-     * onto the users screen as well as removing a placeholder view.
+     * Fetches stock data of the i'th element of the given list (0 based index) and displays it
+     * on the users screen in place of its placeholder row.
      * The boolean isPortfolioStock tells us if the stock we are going to process is in the user's
      * portfolio or watchlist. It uses this boolean to determine which block of code to execute
      * and how to format the view that will be added to the user's screen.
-     * The parameter 'totalChange' is used if the stock processed is in the user's portfolio, it
-     * will store how much the stock has gained/lost in value in the most recent trading day.
+     * The stock data may be delivered twice, first from the data stored on the device and then
+     * again once it has been revalidated with the PocketProfit server. The second delivery only
+     * updates the view that was already added, it does not move on to the next element. A stock
+     * whose data can't be retrieved keeps its placeholder row and the next element is fetched.
      *
      * @param position              the i'th index element of the list given for which we will fetch
      *                              the stock data.
      * @param list                  the list of stock symbols to get data for.
-     * @param placeholderContainer  the layout that holds the placeholder views.
-     * @param shimmerLayout         the shimmer layout that will serve as a placeholder until all
-     *                              of the symbols in the list are processed.
      * @param isPortfolioStock      boolean value which tells us if the stock processed is a stock
      *                              in the users portfolio.
-     * @param totalChange           parameter that will be used to store the daily price fluctuation
-     *                              of all the stocks in the user's portfolio as they are
-     *                              processed recursively.
      */
-    private void stockDataRequest(final int position, final List<String> list,
-                                      final LinearLayout placeholderContainer,
-                                      final ShimmerFrameLayout shimmerLayout,
-                                      final boolean isPortfolioStock, final double totalChange) {
+    private void stockDataRequest(int position, List<String> list, boolean isPortfolioStock) {
         if (position < list.size()) {
-            final String symbol = list.get(position);
-            Util.fetchStockQuote(this, symbol, new JSONObjectCallback() {
-                @Override
-                public void onSuccess(JSONObject result) {
-                    try {
-                        double latestPrice = Math.round(result.getDouble("latestPrice") * 100.0) / 100.0;
-                        double change = result.getDouble("change");
-                        int color = (change >= 0) ? MainActivity.this.getResources().getColor(R.color.profit) :
-                                MainActivity.this.getResources().getColor(R.color.loss);
-
-                        // todaysStockProfit refers to the total net gain/loss of the stocks that
-                        // the user currently owns in his/her portfolio. this value is only changed
-                        // if the parameter 'isStockOwned' is true.
-                        double todaysStockProfit = totalChange;
-                        if (isPortfolioStock) {
-                            int sharesOwned = mDatabase.getShareCount(symbol);
-                            String formattedShares = Util.formatShareCountText(sharesOwned);
-
-                            double previousClose = result.getDouble("previousClose");
-
-                            mDatabase.updateCurrentPrice(symbol, latestPrice);
-
-                            Stack<Double> stocksPurchasedToday = mDatabase.getSharesBoughtToday(symbol, Util.getTodaysDate());
-                            for (double purchasePrice : stocksPurchasedToday) {
-                                todaysStockProfit += (latestPrice - purchasePrice);
-                            }
-                            int sharesOwnedPriorToToday = mDatabase.getShareCount(symbol) - stocksPurchasedToday.size();
-                            todaysStockProfit += (sharesOwnedPriorToToday * (latestPrice - previousClose));
-                            dailyPortfolioChangeUpdate(todaysStockProfit);
-
-                            mStocksOwned.add(
-                                    new StockEntry(symbol,
-                                            formattedShares + " " +
-                                                    (sharesOwned > 1 ? "Shares" : "Share"),
-                                            latestPrice, color));
-                            mStocksOwnedAdapter.notifyDataSetChanged();
-                        } else {
-                            String companyName = result.getString("companyName");
-
-                            mWatchlistStocks.add(new StockEntry(symbol, companyName,
+            StockQuoteCallback callback = new StockQuoteCallback(position, list, isPortfolioStock);
+            Util.fetchStockQuote(this, list.get(position), callback, callback);
+        }
+    }
+
+    /**
+     * Displays the stock data of the i'th element of a list of stocks (see stockDataRequest(...))
+     * and moves on to the next element once the data of this element has been displayed for the
+     * first time. If the data can't be retrieved or parsed, it moves on to the next element as
+     * well so that a single stock never keeps the rest of the list from loading.
+     */
+    private final class StockQuoteCallback implements JSONObjectCallback, ErrorCallback {
+        private final int mPosition;
+        private final List<String> mList;
+        private final boolean mIsPortfolioStock;
+        private final String mSymbol;
+
+        // true once this element has been processed and the next one has been requested.
+        private boolean mProcessed = false;
+
+        StockQuoteCallback(int position, List<String> list, boolean isPortfolioStock) {
+            mPosition = position;
+            mList = list;
+            mIsPortfolioStock = isPortfolioStock;
+            mSymbol = list.get(position);
+        }
+
+        @Override
+        public void onSuccess(JSONObject result) {
+            Tracing.begin(mIsPortfolioStock ? "MainActivity.onPortfolioQuote" :
+                    "MainActivity.onWatchlistQuote");
+            try {
+                double latestPrice = Money.roundPrice(result.getDouble("latestPrice"));
+                double change = result.getDouble("change");
+                int color = (change >= 0) ? MainActivity.this.getResources().getColor(R.color.profit) :
+                        MainActivity.this.getResources().getColor(R.color.loss);
+
+                if (mIsPortfolioStock) {
+                    int sharesOwned = mDatabase.getShareCount(mSymbol);
+                    String formattedShares = Util.formatShareCountText(sharesOwned);
+
+                    double previousClose = result.getDouble("previousClose");
+
+                    Tracing.begin("MainActivity.updateHolding");
+                    mDatabase.updateCurrentPrice(mSymbol, latestPrice);
+
+                    // how much this stock has gained/lost in value in the most recent
+                    // trading day.
+                    TodaysPurchases purchasesToday = mDatabase.getTodaysPurchases(mSymbol, Util.getTodaysDate());
+                    long todaysStockProfit = PortfolioMath.todaysStockProfit(
+                            Money.toMicros(latestPrice), Money.toMicros(previousClose),
+                            sharesOwned, purchasesToday.getShares(),
+                            purchasesToday.getCost());
+                    mTodaysStockProfit.put(mSymbol, Money.toDouble(todaysStockProfit));
+                    Tracing.end();
+
+                    Tracing.begin("MainActivity.dailyPortfolioChangeUpdate");
+                    dailyPortfolioChangeUpdate(getTodaysStockProfit());
+                    Tracing.end();
+
+                    displayStockEntry(mStocksOwned, mStocksOwnedAdapter,
+                            new StockEntry(mSymbol,
+                                    formattedShares + " " +
+                                            (sharesOwned > 1 ? "Shares" : "Share"),
                                     latestPrice, color));
-                            mWatchlistAdapter.notifyDataSetChanged();
-                        }
+                } else {
+                    String companyName = result.getString("companyName");
 
-                        // removing the placeholder shimmer view.
-                        // if there are no more placeholder views are left (meaning all stocks have
-                        // been processed) then the shimmer animation is stopped and the view is
-                        // hidden.
-                        placeholderContainer.removeView(placeholderContainer.getChildAt(0));
-                        if (position == list.size() - 1) {
-                            shimmerLayout.setVisibility(View.GONE);
-                            shimmerLayout.stopShimmer();
-                        }
+                    displayStockEntry(mWatchlistStocks, mWatchlistAdapter,
+                            new StockEntry(mSymbol, companyName, latestPrice, color));
+                }
+            } catch (JSONException e) {
+                e.printStackTrace();
+            } finally {
+                onProcessed();
+                Tracing.end();
+            }
+        }
 
-                        // recursive call..
-                        stockDataRequest(position + 1, list, placeholderContainer,
-                                shimmerLayout, isPortfolioStock, todaysStockProfit);
-                    } catch (JSONException e) {
-                        e.printStackTrace();
-                    }
+        @Override
+        public void onError() {
+            onProcessed();
+        }
+
+        /**
+         * Moves on to the next element of the list, the first time this is called.
+         */
+        private void onProcessed() {
+            if (mProcessed) {
+                return;
+            }
+            mProcessed = true;
+            // once every stock in the list has been processed, another refresh can take place.
+            if (mPosition == mList.size() - 1) {
+                if (mIsPortfolioStock) {
+                    mLoadingStocksOwned = false;
+                    Startup.markPhase(Startup.PHASE_PORTFOLIO_LOADED);
+                } else {
+                    mLoadingWatchlist = false;
                 }
-            });
+                onStockListLoaded();
+            }
+
+            // recursive call..
+            stockDataRequest(mPosition + 1, mList, mIsPortfolioStock);
+        }
+    }
+
+    /**
+     * Displays the given stock entry in the given list, in place of the existing entry (a
+     * placeholder, or the entry of a previous refresh) for the same stock. On a refresh, only the
+     * price of the row is rebound on screen.
+     *
+     * @param entries   the list of entries displayed by the adapter.
+     * @param adapter   the adapter which displays the list.
+     * @param entry     the stock entry to display.
+     */
+    private void displayStockEntry(List<StockEntry> entries, StockAdapter adapter,
+                                   StockEntry entry) {
+        Tracing.begin("MainActivity.displayStockEntry");
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).getHeader().equals(entry.getHeader())) {
+                entries.set(i, entry);
+                break;
+            }
+        }
+        // the adapter diffs a copy of the list against the one it displays in the background.
+        adapter.submitList(new ArrayList<StockEntry>(entries));
+        Tracing.end();
+    }
+
+    /**
+     * Prepares the given list to display the stocks of the given symbols, in that order. Entries
+     * of stocks that are still in the list of symbols stay on screen until their data is
+     * refreshed, entries of the stocks that aren't (e.g. sold stocks) are removed and the stocks
+     * without an entry yet are displayed as placeholder rows until their data is retrieved.
+     *
+     * @param entries   the list of entries displayed by the adapter.
+     * @param adapter   the adapter which displays the list.
+     * @param symbols   the symbols of the stocks that should be displayed.
+     */
+    private void prepareStockEntries(List<StockEntry> entries, StockAdapter adapter,
+                                     List<String> symbols) {
+        Map<String, StockEntry> previousEntries = new HashMap<>();
+        for (StockEntry entry : entries) {
+            previousEntries.put(entry.getHeader(), entry);
+        }
+        entries.clear();
+        for (String symbol : symbols) {
+            StockEntry entry = previousEntries.get(symbol);
+            entries.add((entry != null) ? entry : StockEntry.placeholder(symbol));
+        }
+        adapter.submitList(new ArrayList<StockEntry>(entries));
+    }
+
+    /**
+     * Returns how much the stocks in the user's portfolio have gained/lost in value in the most
+     * recent trading day, based on the stock data that has been processed so far.
+     *
+     * @return  the daily price fluctuation of the stocks in the user's portfolio.
+     */
+    private double getTodaysStockProfit() {
+        double total = 0.0;
+        for (double stockProfit : mTodaysStockProfit.values()) {
+            total += stockProfit;
         }
+        return total;
     }
 
     /**
@@ -464,6 +598,17 @@ public class MainActivity extends AppCompatActivity {
         tickerView.setCharacterLists(TickerUtils.provideNumberList());
         tickerView.setAnimationInterpolator(new OvershootInterpolator());
         tickerView.setPreferredScrollingDirection(TickerView.ScrollingDirection.ANY);
+
+        // hidden debug screen of the metrics recorded so far.
+        if (BuildConfig.DEBUG) {
+            tickerView.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View view) {
+                    MetricsDialog.show(MainActivity.this);
+                    return true;
+                }
+            });
+        }
     }
 
     /**
@@ -473,19 +618,10 @@ public class MainActivity extends AppCompatActivity {
      * @param value the value of the portfolio.
      */
     private void setPortfolioValue(double value) {
+        Tracing.begin("MainActivity.setPortfolioValue");
         TickerView portfolioValue = (TickerView) this.findViewById(R.id.portfolio_value_heading);
         portfolioValue.setText(Util.formatPriceText(value, true, true));
-    }
-
-    /**
-     * Inflates a stock placeholder view into the layout provided. This layout is useful to show
-     * on the screen while the stock information is being fetched from the API.
-     *
-     * @param layout the layout that will be the parent of the newly inserted placeholder.
-     */
-    private void insertPlaceholder(LinearLayout layout) {
-        View placeholder = getLayoutInflater().inflate(R.layout.stock_placeholder, layout, false);
-        layout.addView(placeholder);
+        Tracing.end();
     }
 
     @Override
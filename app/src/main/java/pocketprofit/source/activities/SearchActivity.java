@@ -2,6 +2,7 @@ package com.pocketprofit.source.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.View;
@@ -12,34 +13,59 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.android.volley.Request;
 import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.AdView;
 import com.pocketprofit.R;
+import com.pocketprofit.source.ErrorCallback;
 import com.pocketprofit.source.JSONArrayCallback;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.adapters.SearchResultAdapter;
+import com.pocketprofit.source.cache.SearchResultCache;
 import com.pocketprofit.source.entries.SearchResultEntry;
+import com.pocketprofit.source.metrics.Metrics;
+import com.pocketprofit.source.search.SymbolUniverse;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class SearchActivity extends AppCompatActivity {
+    public static final String TAG = "SearchActivity";
+
+    // time (in milliseconds) the search box has to be idle before a query is sent to the
+    // PocketProfit API, this prevents a request from being sent for every keystroke.
+    private static final long QUERY_DEBOUNCE_DELAY = 250;
+
+    // maximum number of results displayed for a query answered on the device.
+    private static final int MAX_LOCAL_RESULTS = 25;
 
     // bridge between our data (List<SearchResultEntry> - search result for query) and our RecyclerView
     private SearchResultAdapter mAdapter;
 
+    // every security available to trade, used to answer queries without the PocketProfit API.
+    private SymbolUniverse mSymbolUniverse;
+
     // caches all search results to increase performance on searches on previous queries (the first
     // call to query "APPL" will take time as it will send a request to the PocketProfit API, however,
-    // after this the result is cached locally and all future calls to "APPL" in this activity instance
-    // will display the results almost immediately). also this serves as a way to save money, since
-    // search queries that were performed already don't have to request data from the API again.
-    private Map<String, List<SearchResultEntry>> mResultCache;
+    // after this the result is cached and all future calls to "APPL" will display the results almost
+    // immediately, even in later sessions). also this serves as a way to save money, since search
+    // queries that were performed already don't have to request data from the API again.
+    private SearchResultCache mResultCache;
+
+    // used to delay sending the query in the search box until the user stops typing.
+    private Handler mQueryHandler;
+    private Runnable mPendingQuery;
+
+    // the request for the latest query sent, cancelled as soon as the query is superseded.
+    private Request<String> mInFlightRequest;
+
+    // time of the last keystroke (see Metrics.now()), used to record how long it takes for results
+    // to be displayed.
+    private long mKeystrokeTime;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -64,11 +90,19 @@ public class SearchActivity extends AppCompatActivity {
 
         buildRecyclerView();
 
-        mResultCache = new HashMap<String, List<SearchResultEntry>>();
-        mResultCache.put("", new ArrayList<SearchResultEntry>());  // empty search box.
+        mResultCache = SearchResultCache.getInstance(this);
+        mQueryHandler = new Handler();
+        mSymbolUniverse = SymbolUniverse.getInstance(this);
+        mSymbolUniverse.refreshIfStale(getApplicationContext());
         setSearchBar();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cancelPendingQuery();
+    }
+
     /**
      * Sets up the search bar which the user will use to look up different companies/securities
      * available to trade.
@@ -80,9 +114,10 @@ public class SearchActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                toggleSearchProgressBarVisibility(true);
+                mKeystrokeTime = Metrics.now();
                 executeQuery(getQuery());
             }
+
             @Override
             public void afterTextChanged(Editable editable) {}
         });
@@ -145,6 +180,7 @@ public class SearchActivity extends AppCompatActivity {
      * @param symbol the symbol of the security selected.
      */
     private void openStockInformationActivity(String name, String symbol) {
+        Util.preloadInfoAboutCompany(getBaseContext(), symbol);
         Intent intent = new Intent(getBaseContext(), StockInformationActivity.class);
         intent.putExtra(Util.EXTRA_NAME, name);
         intent.putExtra(Util.EXTRA_SYMBOL, symbol);
@@ -152,30 +188,135 @@ public class SearchActivity extends AppCompatActivity {
     }
 
     /**
-     * Fetches search result information from an external API using the provided user input.
-     * This information will then be displayed on the screen for the user to see.
+     * Displays search results for the provided user input.
+     * Queries are answered on the device using the symbol universe whenever possible. Otherwise,
+     * queries that were performed already are displayed immediately (or as soon as they have been
+     * read from disk, for queries of earlier sessions), or the results of the longest cached
+     * prefix of the query are filtered locally and displayed in the meantime, and the query is
+     * sent to the PocketProfit API once the user stops typing.
      *
      * @param query the user input
      */
     public void executeQuery(final String query) {
-        if (mResultCache.containsKey(query)) {
-            toggleSearchProgressBarVisibility(false);
-            mAdapter.setList(mResultCache.get(query));
-        } else {
-            Util.fetchSearchResults(getBaseContext(), query, new JSONArrayCallback() {
-                @Override
-                public void onSuccess(JSONArray response) {
-                    List<SearchResultEntry> searchResultList = parseSearchResult(response);
-                    mResultCache.put(query, searchResultList);
-                    // only update the search result view if the JSON response is for the query
-                    // currently on the search box. 
-                    if (query.equals(getQuery())) {
-                        toggleSearchProgressBarVisibility(false);
-                        mAdapter.setList(searchResultList);
+        cancelPendingQuery();
+        List<SearchResultEntry> localResults = mSymbolUniverse.search(query, MAX_LOCAL_RESULTS);
+        if (localResults != null && !localResults.isEmpty()) {
+            displayResults(localResults);
+            return;
+        }
+        if (query.isEmpty()) {
+            displayResults(new ArrayList<SearchResultEntry>());  // empty search box.
+            return;
+        }
+        List<SearchResultEntry> cachedResults = mResultCache.getFromMemory(query);
+        if (cachedResults != null) {
+            displayResults(cachedResults);
+            return;
+        }
+
+        List<SearchResultEntry> provisionalResults = filterCachedResults(query);
+        if (provisionalResults != null) {
+            mAdapter.setList(provisionalResults);
+        }
+        toggleSearchProgressBarVisibility(true);
+
+        mPendingQuery = new Runnable() {
+            @Override
+            public void run() {
+                mPendingQuery = null;
+                mInFlightRequest = Util.fetchSearchResults(getBaseContext(), query,
+                        new JSONArrayCallback() {
+                    @Override
+                    public void onSuccess(JSONArray response) {
+                        List<SearchResultEntry> searchResultList = parseSearchResult(response);
+                        mResultCache.put(query, searchResultList);
+                        // only update the search result view if the JSON response is for the
+                        // query currently on the search box.
+                        if (query.equals(getQuery())) {
+                            displayResults(searchResultList);
+                        }
+                    }
+                }, new ErrorCallback() {
+                    @Override
+                    public void onError() {
+                        // the provisional results (if any) stay on screen.
+                        if (query.equals(getQuery())) {
+                            toggleSearchProgressBarVisibility(false);
+                        }
                     }
+                });
+            }
+        };
+        mQueryHandler.postDelayed(mPendingQuery, QUERY_DEBOUNCE_DELAY);
+
+        // the query may have been cached on disk in an earlier session, in which case its results
+        // are displayed as soon as they have been read and the query is no longer sent.
+        mResultCache.get(query, new SearchResultCache.Callback() {
+            @Override
+            public void onLoaded(List<SearchResultEntry> results) {
+                if (results != null && query.equals(getQuery())) {
+                    cancelPendingQuery();
+                    displayResults(results);
                 }
-            });
+            }
+        });
+    }
+
+    /**
+     * Cancels the query waiting to be sent as well as the request already sent to the
+     * PocketProfit API (if any), since their results would no longer be displayed.
+     */
+    private void cancelPendingQuery() {
+        if (mPendingQuery != null) {
+            mQueryHandler.removeCallbacks(mPendingQuery);
+            mPendingQuery = null;
+        }
+        if (mInFlightRequest != null) {
+            mInFlightRequest.cancel();
+            mInFlightRequest = null;
+        }
+    }
+
+    /**
+     * Displays the given search results on the screen and records how long it took for them to
+     * be displayed since the user last typed into the search box.
+     *
+     * @param results   the search results to display.
+     */
+    private void displayResults(List<SearchResultEntry> results) {
+        toggleSearchProgressBarVisibility(false);
+        mAdapter.setList(results);
+        Metrics.recordSince(Metrics.SEARCH_DISPLAY, mKeystrokeTime);
+    }
+
+    /**
+     * Returns the search results of the longest cached prefix of the given query, filtered down
+     * to the entries that also match the given query. For example, the results of "mic" can be
+     * used to answer "micr" while the request for "micr" is still pending.
+     * The PocketProfit API may return more matches for the longer query, so these results are
+     * only displayed until the actual results arrive.
+     * Only results kept in memory are considered, so this never blocks on the disk no matter how
+     * long the query is, and the search stops at the longest prefix that is cached.
+     *
+     * @param query the user input.
+     * @return      the locally filtered results, or null if no prefix of the query is cached.
+     */
+    private List<SearchResultEntry> filterCachedResults(String query) {
+        for (int length = query.length() - 1; length > 0; length--) {
+            List<SearchResultEntry> superset =
+                    mResultCache.getFromMemory(query.substring(0, length));
+            if (superset != null) {
+                List<SearchResultEntry> filteredList = new ArrayList<SearchResultEntry>();
+                for (SearchResultEntry entry : superset) {
+                    if (entry.getHeader().toLowerCase().startsWith(query) ||
+                            entry.getSubheader().toLowerCase().contains(query)) {
+                        filteredList.add(entry);
+                    }
+                }
+                return filteredList;
+            }
         }
+        return null;
     }
 
     /**
@@ -196,9 +337,7 @@ public class SearchActivity extends AppCompatActivity {
                 String exchange = result.getString("exchange");
                 String securityType = result.getString("securityType");
 
-                if (!symbol.contains("-") &&
-                        !Util.EXCHANGES_NOT_SUPPORTED.contains(exchange) && !name.equals("")
-                        && !securityType.equals("MF_O") && !securityType.equals("PREF")) {
+                if (Util.isSupportedSecurity(symbol, name, exchange, securityType)) {
                     parsedList.add(new SearchResultEntry(symbol, name));
                 }
             } catch (JSONException e) {
@@ -59,13 +59,15 @@ public class SectorListActivity extends AppCompatActivity {
     private void parseJSONResult(JSONArray json) {
         ShimmerFrameLayout shimmerFrameLayout = this.findViewById(R.id.sector_list_shimmer);
         shimmerFrameLayout.stopShimmer();
+        // the sector list may be delivered more than once (stored data first, then the data
+        // revalidated by the PocketProfit server).
+        LinearLayout sectorList = this.findViewById(R.id.sector_list);
+        sectorList.removeAllViews();
         for (int i = 0; i < json.length(); i++) {
             try {
                 JSONObject sectorJSON = json.getJSONObject(i);
                 String sector = sectorJSON.getString("name");
-                if (!Util.SECTORS_NOT_SUPPORTED.contains(sector)) {
-                    insertItem(sector);
-                }
+                insertItem(sector);
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -2,6 +2,7 @@ package com.pocketprofit.source.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
 import android.view.MotionEvent;
 import android.view.View;
 import android.widget.ImageView;
@@ -14,26 +15,54 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.facebook.shimmer.ShimmerFrameLayout;
 import com.getbase.floatingactionbutton.FloatingActionsMenu;
+import com.android.volley.Request;
 import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.AdView;
 import com.pocketprofit.R;
-import com.pocketprofit.source.JSONArrayCallback;
+import com.pocketprofit.source.ErrorCallback;
+import com.pocketprofit.source.SectorPageRequest;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.adapters.StockAdapter;
+import com.pocketprofit.source.entries.SecurityTable;
 import com.pocketprofit.source.entries.StockEntry;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SectorSecurityInformation extends AppCompatActivity {
-    private List<StockEntry> sectorDataList;
+    // the orders in which the securities can be displayed, see setSortingMenu().
+    private static final int LOAD_ORDER = 0;
+    private static final int SYMBOL_ASCENDING = 1;
+    private static final int SYMBOL_DESCENDING = 2;
+    private static final int PRICE_ASCENDING = 3;
+    private static final int PRICE_DESCENDING = 4;
+
+    // how long (ms) to wait before requesting a page that could not be retrieved again, doubled
+    // after every failure in a row up until PAGE_RETRY_MAX_DELAY.
+    private static final long PAGE_RETRY_DELAY = 2 * 1000;
+    private static final long PAGE_RETRY_MAX_DELAY = 60 * 1000;
+
+    // the securities of the sector, in the order they were received from the PocketProfit server.
+    private SecurityTable mSecurityTable;
+
+    // sorted orders of the securities, recomputed in the background every time a page arrives.
+    private SecurityTable.SortedOrders mSortedOrders;
+
+    private int mSortOrder = LOAD_ORDER;
+
+    // sorting is done on this thread, the results are posted back to the UI thread.
+    private ExecutorService mSorter;
+    private Handler mHandler;
+
     private StockAdapter mAdapter;
 
+    // the page request currently in flight, cancelled if the activity is closed.
+    private Request<SectorPageRequest.Page> mPageRequest;
+
+    private long mPageRetryDelay = PAGE_RETRY_DELAY;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -55,71 +84,158 @@ public class SectorSecurityInformation extends AppCompatActivity {
             }
         });
 
+        mSecurityTable = new SecurityTable();
+        mSorter = Executors.newSingleThreadExecutor();
+        mHandler = new Handler();
+
         buildRecyclerView();
         setToolbar();
         setSortingMenu();
-        Util.fetchSectorInformation(this, getIntent().getStringExtra(Util.EXTRA_SECTOR), new JSONArrayCallback() {
+        loadPage(0);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (mPageRequest != null) {
+            mPageRequest.cancel();
+        }
+        mHandler.removeCallbacksAndMessages(null);
+        mSorter.shutdownNow();
+    }
+
+    /**
+     * Requests the page of securities at the given index from the PocketProfit server. Pages are
+     * requested one after the other until the entire sector has been loaded. A page that could
+     * not be retrieved (nor was stored on the device) is requested again after a delay, the user
+     * has been notified by Util that the PocketProfit server could not be reached.
+     *
+     * @param page  the index of the page, starting at 0.
+     */
+    private void loadPage(final int page) {
+        mPageRequest = Util.fetchSectorPage(this, getIntent().getStringExtra(Util.EXTRA_SECTOR),
+                page, new SectorPageRequest.Callback() {
             @Override
-            public void onSuccess(JSONArray result) {
-                processSectorInformation(result);
+            public void onSuccess(SectorPageRequest.Page result) {
+                mPageRequest = null;
+                mPageRetryDelay = PAGE_RETRY_DELAY;
+                processSectorPage(result);
+                if (!result.isLast()) {
+                    loadPage(page + 1);
+                }
+            }
+        }, new ErrorCallback() {
+            @Override
+            public void onError() {
+                mPageRequest = null;
+                mHandler.postDelayed(new Runnable() {
+                    @Override
+                    public void run() {
+                        loadPage(page);
+                    }
+                }, mPageRetryDelay);
+                mPageRetryDelay = Math.min(mPageRetryDelay * 2, PAGE_RETRY_MAX_DELAY);
             }
         });
     }
 
     /**
-     * Parses the JSON response from the PocketProfit server and displays relevant information on
-     * the user's screen.
-     * The JSON data given in as a parameter will contain information (price, symbol, name)
-     * of stocks all in the same sector.
+     * Displays the securities of a page retrieved from the PocketProfit server, following the
+     * securities of the pages retrieved before it.
+     * The page given in as a parameter will contain information (price, symbol, name) of stocks
+     * all in the same sector.
      *
-     * @param jsonArray     the JSON data retrieved from the API call.
+     * @param page  the page retrieved from the API call.
      */
-    private void processSectorInformation(JSONArray jsonArray) {
+    private void processSectorPage(SectorPageRequest.Page page) {
         // Removing the shimmer layout.
         ShimmerFrameLayout shimmerFrameLayout = this.findViewById(R.id.sector_info_shimmer);
         shimmerFrameLayout.stopShimmer();
         ScrollView scrollView = this.findViewById(R.id.placeholder_view);
         scrollView.setVisibility(View.GONE);
 
-        int counter = 0;
-        for (int i = 0; i < jsonArray.length(); i++) {
-            try {
-                JSONObject companyData = jsonArray.getJSONObject(i);
-                String name = companyData.getString("companyName");
-                String symbol = companyData.getString("symbol");
-
-                double currentPrice = companyData.getDouble("latestPrice");
-                String exchange = companyData.getString("primaryExchange");
+        int profitColor = getResources().getColor(R.color.profit);
+        int lossColor = getResources().getColor(R.color.loss);
+        // a security that was on an earlier page already (e.g. a stored page that overlaps with
+        // the fresh page after it) is skipped by the table.
+        for (int i = 0; i < page.size(); i++) {
+            double change = page.getChange(i);
+            int color = (Double.isNaN(change) || change < 0.0) ? lossColor : profitColor;
+            mSecurityTable.add(page.getSymbol(i), page.getName(i), page.getPrice(i), color);
+        }
 
-                int color;
-                if (companyData.isNull("change") || companyData.getDouble("change") < 0.0) {
-                    color = getResources().getColor(R.color.loss);
-                } else {
-                    color = this.getResources().getColor(R.color.profit);
-                }
+        TextView bottomHeader = (TextView) this.findViewById(R.id.bottom_header);
+        bottomHeader.setText(Util.formatShareCountText(mSecurityTable.size()) + " items");
 
-                if (!symbol.contains("-") && !Util.EXCHANGES_NOT_SUPPORTED.contains(exchange) && currentPrice >= 0.01) {
-                    counter++;
-                    sectorDataList.add(new StockEntry(symbol, name, currentPrice, color));
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
+        // the new securities are displayed once they have been sorted into place.
+        final SecurityTable.SortTask sortTask = mSecurityTable.newSortTask();
+        mSorter.execute(new Runnable() {
+            @Override
+            public void run() {
+                final SecurityTable.SortedOrders sortedOrders = sortTask.sort();
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // pages are sorted in the order they arrive, so these orders are the
+                        // most recent ones.
+                        mSortedOrders = sortedOrders;
+                        setSortOrder(mSortOrder);
+                    }
+                });
             }
+        });
+    }
+
+    /**
+     * Displays the securities in the given order. The sorted orders are computed ahead of time,
+     * so only the changes between the current order and the given one are computed (in the
+     * background, by the adapter) and the rows are animated into place.
+     *
+     * @param sortOrder the order to display the securities in.
+     */
+    private void setSortOrder(int sortOrder) {
+        mSortOrder = sortOrder;
+        if (mSortedOrders == null) {
+            return;
         }
+        final int[] order;
+        switch (sortOrder) {
+            case SYMBOL_ASCENDING:
+                order = mSortedOrders.bySymbol(true);
+                break;
+            case SYMBOL_DESCENDING:
+                order = mSortedOrders.bySymbol(false);
+                break;
+            case PRICE_ASCENDING:
+                order = mSortedOrders.byPrice(true);
+                break;
+            case PRICE_DESCENDING:
+                order = mSortedOrders.byPrice(false);
+                break;
+            default:
+                order = SecurityTable.insertionOrder(mSortedOrders.size());
+        }
+        // a view of the table through the order, rows of the table never change once added.
+        mAdapter.submitList(new AbstractList<StockEntry>() {
+            @Override
+            public StockEntry get(int position) {
+                return mSecurityTable.getEntry(order[position]);
+            }
 
-        TextView bottomHeader = (TextView) this.findViewById(R.id.bottom_header);
-        bottomHeader.setText(Util.formatShareCountText(counter) + " items");
+            @Override
+            public int size() {
+                return order.length;
+            }
+        });
     }
 
     /**
      * Sets up a container that will be used to store stock information.
      */
     private void buildRecyclerView() {
-        sectorDataList = new ArrayList<>();
-
         RecyclerView mRecyclerView = (RecyclerView) this.findViewById(R.id.sector_recycler_view);
         RecyclerView.LayoutManager mLayoutManager = new LinearLayoutManager(this);
-        mAdapter = new StockAdapter(this, sectorDataList);
+        mAdapter = new StockAdapter(this);
 
         mRecyclerView.setLayoutManager(mLayoutManager);
         mRecyclerView.setAdapter(mAdapter);
@@ -131,6 +247,7 @@ public class SectorSecurityInformation extends AppCompatActivity {
                 String companySymbol = itemSelected.getHeader();
                 String companyName = itemSelected.getSubheader();
 
+                Util.preloadInfoAboutCompany(getBaseContext(), companySymbol);
                 Intent intent = new Intent(getBaseContext(), StockInformationActivity.class);
                 intent.putExtra(Util.EXTRA_NAME, companyName);
                 intent.putExtra(Util.EXTRA_SYMBOL, companySymbol);
@@ -190,13 +307,7 @@ public class SectorSecurityInformation extends AppCompatActivity {
             @Override
             public void onClick(View view) {
                 menu.collapse();
-                Collections.sort(sectorDataList, new Comparator<StockEntry>() {
-                    @Override
-                    public int compare(StockEntry a, StockEntry b) {
-                        return a.getHeader().compareTo(b.getHeader());
-                    }
-                });
-                mAdapter.notifyDataSetChanged();
+                setSortOrder(SYMBOL_ASCENDING);
                 recyclerView.smoothScrollToPosition(0);
             }
         });
@@ -204,13 +315,7 @@ public class SectorSecurityInformation extends AppCompatActivity {
             @Override
             public void onClick(View view) {
                 menu.collapse();
-                Collections.sort(sectorDataList, new Comparator<StockEntry>() {
-                    @Override
-                    public int compare(StockEntry a, StockEntry b) {
-                        return -a.getHeader().compareTo(b.getHeader());
-                    }
-                });
-                mAdapter.notifyDataSetChanged();
+                setSortOrder(SYMBOL_DESCENDING);
                 recyclerView.smoothScrollToPosition(0);
             }
         });
@@ -218,13 +323,7 @@ public class SectorSecurityInformation extends AppCompatActivity {
             @Override
             public void onClick(View view) {
                 menu.collapse();
-                Collections.sort(sectorDataList, new Comparator<StockEntry>() {
-                    @Override
-                    public int compare(StockEntry a, StockEntry b) {
-                        return -Double.compare(b.getPrice(), a.getPrice());
-                    }
-                });
-                mAdapter.notifyDataSetChanged();
+                setSortOrder(PRICE_ASCENDING);
                 recyclerView.smoothScrollToPosition(0);
             }
         });
@@ -232,13 +331,7 @@ public class SectorSecurityInformation extends AppCompatActivity {
             @Override
             public void onClick(View view) {
                 menu.collapse();
-                Collections.sort(sectorDataList, new Comparator<StockEntry>() {
-                    @Override
-                    public int compare(StockEntry a, StockEntry b) {
-                        return Double.compare(b.getPrice(), a.getPrice());
-                    }
-                });
-                mAdapter.notifyDataSetChanged();
+                setSortOrder(PRICE_DESCENDING);
                 recyclerView.smoothScrollToPosition(0);
             }
         });
@@ -36,9 +36,12 @@ import com.google.android.gms.ads.AdView;
 import com.google.android.gms.ads.InterstitialAd;
 import com.pocketprofit.R;
 import com.pocketprofit.source.JSONObjectCallback;
+import com.pocketprofit.source.Money;
+import com.pocketprofit.source.Startup;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.database.DatabaseHelper;
 import com.pocketprofit.source.stockchart.AbstractStockChartView;
+import com.pocketprofit.source.stockchart.Indicators;
 import com.pocketprofit.source.stockchart.StockChartView;
 import com.robinhood.ticker.TickerUtils;
 import com.robinhood.ticker.TickerView;
@@ -79,19 +82,17 @@ public class StockInformationActivity extends AppCompatActivity implements View.
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_stock_information);
 
-        // loading Ad.
+        // loading Ad, once the stock information has been drawn.
         if (Util.DISPLAY_ADS) {
-            AdView adView = (AdView) this.findViewById(R.id.ad_view);
-            final AdRequest adRequest = new AdRequest.Builder().build();
-            adView.loadAd(adRequest);
-
-            mInterstitialAd = new InterstitialAd(this);
-            mInterstitialAd.setAdUnitId(getResources().getString(R.string.stockchart_interstitial_ad));
-            mInterstitialAd.loadAd(adRequest);
-            mInterstitialAd.setAdListener(new AdListener() {
+            Startup.runAfterFirstDraw(this, new Runnable() {
                 @Override
-                public void onAdClosed() {
-                    mInterstitialAd.loadAd(adRequest);
+                public void run() {
+                    Startup.initializeAds(StockInformationActivity.this, new Runnable() {
+                        @Override
+                        public void run() {
+                            loadAds();
+                        }
+                    });
                 }
             });
         } else {
@@ -143,7 +144,7 @@ public class StockInformationActivity extends AppCompatActivity implements View.
                     String companyName = result.getString("companyName");
                     setCompanyName(companyName);
 
-                    mLatestPrice = Math.round(result.getDouble("latestPrice") * 100.0) / 100.0;
+                    mLatestPrice = Money.roundPrice(result.getDouble("latestPrice"));
                     double previousClose = result.getDouble("previousClose");
 
                     // if the user currently owns the stock, its current price in the internal
@@ -157,8 +158,13 @@ public class StockInformationActivity extends AppCompatActivity implements View.
                     updateStockPriceText(mLatestPrice);
 
                     mStockChartView.setValues(mSymbol, previousClose, mLatestPrice);
-                    setUpChartRangeOptions();
-                    setStartingRange();
+                    // the quote may be delivered twice (stored quote first, then the revalidated
+                    // quote), the chart only needs to be set up once.
+                    if (optionSelected == null) {
+                        setUpChartRangeOptions();
+                        setUpIndicatorOptions();
+                        setStartingRange();
+                    }
 
                     int color = (mLatestPrice < previousClose) ? getResources().getColor(R.color.loss) : getResources().getColor(R.color.profit);
 
@@ -192,7 +198,7 @@ public class StockInformationActivity extends AppCompatActivity implements View.
                     public void onSuccess(JSONObject result) {
                         try {
                             mUSMarketOpen = result.getBoolean("isUSMarketOpen");
-                            mLatestPrice = Math.round(result.getDouble("latestPrice") * 100.0) / 100.0;
+                            mLatestPrice = Money.roundPrice(result.getDouble("latestPrice"));
 
                             mLatestTime = Util.normalizeDate(result.getString("latestTime"));
 
@@ -238,7 +244,7 @@ public class StockInformationActivity extends AppCompatActivity implements View.
                 if (Util.DISPLAY_ADS) {
                     int randomNumber = new Random().nextInt(100) + 1;
                     if (randomNumber <= Util.AD_FREQUENCY) {
-                        if (mInterstitialAd.isLoaded()) {
+                        if (mInterstitialAd != null && mInterstitialAd.isLoaded()) {
                             mInterstitialAd.show();
                         }
                     }
@@ -249,7 +255,9 @@ public class StockInformationActivity extends AppCompatActivity implements View.
             }
         });
 
-        // information about company
+        // information about company, the stored profile was preloaded into memory when the
+        // security was selected, so it is usually rendered on the first frame. otherwise it is
+        // rendered as soon as it has been read from disk.
         Util.fetchInfoAboutCompany(getBaseContext(), mSymbol, new JSONObjectCallback() {
             @Override
             public void onSuccess(JSONObject result) {
@@ -328,6 +336,29 @@ public class StockInformationActivity extends AppCompatActivity implements View.
 
     }
 
+    /**
+     * Loads the banner ad and the interstitial ad of the activity, once the ads SDK has been
+     * initialized.
+     */
+    private void loadAds() {
+        if (isFinishing()) {
+            return;
+        }
+        AdView adView = (AdView) this.findViewById(R.id.ad_view);
+        final AdRequest adRequest = new AdRequest.Builder().build();
+        adView.loadAd(adRequest);
+
+        mInterstitialAd = new InterstitialAd(this);
+        mInterstitialAd.setAdUnitId(getResources().getString(R.string.stockchart_interstitial_ad));
+        mInterstitialAd.loadAd(adRequest);
+        mInterstitialAd.setAdListener(new AdListener() {
+            @Override
+            public void onAdClosed() {
+                mInterstitialAd.loadAd(adRequest);
+            }
+        });
+    }
+
     /**
      * Sets and displays statistics about the security displayed in this activity.
      *
@@ -348,6 +379,7 @@ public class StockInformationActivity extends AppCompatActivity implements View.
                     Util.formatPriceText(result.getDouble("peRatio"), false, true);
 
             GridLayout statsLayout = (GridLayout) findViewById(R.id.stats_grid);
+            statsLayout.removeAllViews();
 
             inflateText("Open:", open, statsLayout, R.layout.text_entry_grid, true);
             inflateText("Volume:", volume, statsLayout, R.layout.text_entry_grid, false);
@@ -554,6 +586,7 @@ public class StockInformationActivity extends AppCompatActivity implements View.
             }
 
             LinearLayout aboutCompanyGrid = (LinearLayout) findViewById(R.id.about_grid);
+            aboutCompanyGrid.removeAllViews();
 
             inflateText("CEO:", ceo, aboutCompanyGrid);
             inflateText("Exchange:", exchange, aboutCompanyGrid);
@@ -644,6 +677,46 @@ public class StockInformationActivity extends AppCompatActivity implements View.
         fiveYearOption.setOnClickListener(this);
     }
 
+    /**
+     * Initializes the technical indicator options, which toggle an indicator on the chart. An
+     * option that is on takes the color of its indicator. The last option toggles between the
+     * line chart and candlesticks.
+     */
+    public void setUpIndicatorOptions() {
+        setUpIndicatorOption(R.id.smaIndicator, Indicators.SMA, R.color.smaIndicator);
+        setUpIndicatorOption(R.id.emaIndicator, Indicators.EMA, R.color.emaIndicator);
+        setUpIndicatorOption(R.id.bollingerIndicator, Indicators.BOLLINGER,
+                R.color.bollingerIndicator);
+        setUpIndicatorOption(R.id.rsiIndicator, Indicators.RSI, R.color.rsiIndicator);
+        setUpIndicatorOption(R.id.vwapIndicator, Indicators.VWAP, R.color.vwapIndicator);
+
+        final TextView candlestickOption = this.findViewById(R.id.candlestickMode);
+        candlestickOption.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                view.performHapticFeedback(HapticFeedbackConstants.VIRTUAL_KEY, HapticFeedbackConstants.FLAG_IGNORE_GLOBAL_SETTING);
+                boolean candlestickMode = !mStockChartView.isCandlestickMode();
+                mStockChartView.setCandlestickMode(candlestickMode);
+                candlestickOption.setTextColor(candlestickMode ? Color.WHITE :
+                        getResources().getColor(R.color.gray));
+            }
+        });
+    }
+
+    private void setUpIndicatorOption(int id, final int indicator, final int colorResId) {
+        final TextView option = this.findViewById(id);
+        option.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                view.performHapticFeedback(HapticFeedbackConstants.VIRTUAL_KEY, HapticFeedbackConstants.FLAG_IGNORE_GLOBAL_SETTING);
+                int indicators = mStockChartView.getIndicators() ^ indicator;
+                mStockChartView.setIndicators(indicators);
+                option.setTextColor(getResources().getColor(
+                        ((indicators & indicator) != 0) ? colorResId : R.color.gray));
+            }
+        });
+    }
+
     /**
      * This method is called whenever the user taps on the watchlist icon, to add/remove a stock
      * from the watchlist.
@@ -803,6 +876,9 @@ public class StockInformationActivity extends AppCompatActivity implements View.
     protected void onDestroy() {
         super.onDestroy();
 
+        // chart data requested (or prefetched) for this activity is no longer needed.
+        mStockChartView.cancelRequests();
+
         // unregister the listeners we created.
         mStockChartView.removeUserSelectionListener(this);
         mStockChartView.removeChartChangeListener(this);
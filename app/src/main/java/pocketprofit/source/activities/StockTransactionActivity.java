@@ -20,6 +20,7 @@ import com.google.android.gms.ads.AdView;
 import com.pocketprofit.R;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.database.DatabaseHelper;
+import com.pocketprofit.source.metrics.Tracing;
 
 import nl.dionsegijn.konfetti.KonfettiView;
 import nl.dionsegijn.konfetti.models.Shape;
@@ -104,6 +105,18 @@ public class StockTransactionActivity extends AppCompatActivity implements View.
      * If not, an error popup is displayed to the user notifying them.
      */
     public void executeTrade() {
+        Tracing.begin("StockTransactionActivity.executeTrade");
+        try {
+            trade();
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    /**
+     * Executes the transaction, see executeTrade().
+     */
+    private void trade() {
         String name = getIntent().getStringExtra(Util.EXTRA_NAME);
 
         TextView priceText = (TextView) this.findViewById(R.id.share_price);
@@ -127,8 +140,10 @@ public class StockTransactionActivity extends AppCompatActivity implements View.
                         "Enter at least 1 share.");
             } else if (cashOnHand >= total) {
                 DatabaseHelper databaseHelper = DatabaseHelper.getInstance(this);
+                Tracing.begin("DatabaseHelper.stockPurchase");
                 boolean successs = databaseHelper.stockPurchase(name, mSymbol, mShares, price,
                         price, Util.getTodaysDate());
+                Tracing.end();
 
                 if (successs) {
 
@@ -170,8 +185,10 @@ public class StockTransactionActivity extends AppCompatActivity implements View.
                                 (sharesAvailable == 1 ? " share " : " shares ") + "available to sell.");
             } else {
                 // Sell order transaction can be made.
-                double amountSold = databaseHelper.liquidateStock(mSymbol, mShares, mPreviousClose, mDate);
-                Util.updateCashAvailable(this, amountSold);
+                Tracing.begin("DatabaseHelper.liquidateStock");
+                long amountSold = databaseHelper.liquidateStock(mSymbol, mShares, mPreviousClose, mDate);
+                Tracing.end();
+                Util.updateCashAvailableMicros(this, amountSold);
                 openPopup(true, "Order filled!",
                         Util.formatShareCountText(mShares) +
                         (mShares == 1 ? " share" : " shares") + " sold for " + priceText.getText().toString() +
@@ -45,6 +45,10 @@ public class TopMoversActivity extends AppCompatActivity {
 
     private EnhancedStockAdapter mAdapter;
 
+    // both lists are displayed at the same time, once both have been received.
+    private boolean mGainersReceived;
+    private boolean mLosersReceived;
+
     @SuppressLint("ClickableViewAccessibility")
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -118,43 +122,58 @@ public class TopMoversActivity extends AppCompatActivity {
     }
 
     /**
-     * Fetches information about today's largest price movements by making an external API call.
+     * Fetches information about today's largest price movements by making external API calls.
+     * The gainers and losers are requested at the same time and displayed once both have been
+     * received. Movers received earlier in the session (or a previous one) are displayed right
+     * away and refreshed in the background.
      */
     public void fetchTopMoversData() {
-        final ShimmerFrameLayout shimmerFrameLayout = this.findViewById(R.id.top_mover_shimmer);
-        final ScrollView scrollView = this.findViewById(R.id.placeholder_view);
-
         Util.fetchTopGainers(this, new JSONArrayCallback() {
             @Override
             public void onSuccess(JSONArray result) {
                 parseData(result, mGainerList);
-
-                Util.fetchTopLosers(getBaseContext(), new JSONArrayCallback() {
-                    @Override
-                    public void onSuccess(JSONArray result) {
-                        parseData(result, mLoserList);
-
-                        scrollView.setVisibility(View.GONE);
-                        shimmerFrameLayout.stopShimmer();
-                        if (mSelected.getText().toString().contains("Gainers")) {
-                            setList(mGainerList);
-                        } else {
-                            setList(mLoserList);
-                        }
-                    }
-                });
+                mGainersReceived = true;
+                onTopMoversReceived();
+            }
+        });
+        Util.fetchTopLosers(this, new JSONArrayCallback() {
+            @Override
+            public void onSuccess(JSONArray result) {
+                parseData(result, mLoserList);
+                mLosersReceived = true;
+                onTopMoversReceived();
             }
         });
     }
 
+    /**
+     * Displays the selected list of movers once both the gainers and the losers have been
+     * received, and again every time either of them is refreshed afterwards.
+     */
+    private void onTopMoversReceived() {
+        if (!mGainersReceived || !mLosersReceived) {
+            return;
+        }
+        ShimmerFrameLayout shimmerFrameLayout = this.findViewById(R.id.top_mover_shimmer);
+        ScrollView scrollView = this.findViewById(R.id.placeholder_view);
+        scrollView.setVisibility(View.GONE);
+        shimmerFrameLayout.stopShimmer();
+        if (mSelected == mGainers) {
+            setList(mGainerList);
+        } else {
+            setList(mLoserList);
+        }
+    }
+
     /**
      * Parses through the JSON response data and puts that information into the list given as a
-     * parameter.
+     * parameter. Any previous contents of the list are replaced.
      *
      * @param result the JSON response from an external API call.
      * @param list the list that will be populated with the response information.
      */
     private void parseData(JSONArray result, List<EnhancedStockEntry> list) {
+        list.clear();
         for (int i = 0; i < result.length(); i++) {
             try {
                 JSONObject json = result.getJSONObject(i);
@@ -229,6 +248,7 @@ public class TopMoversActivity extends AppCompatActivity {
      * @param symbol the ticker symbol of the security.
      */
     public void openStockInformationActivity(String name, String symbol) {
+        Util.preloadInfoAboutCompany(getBaseContext(), symbol);
         Intent intent = new Intent(getBaseContext(), StockInformationActivity.class);
         intent.putExtra(Util.EXTRA_NAME, name);
         intent.putExtra(Util.EXTRA_SYMBOL, symbol);
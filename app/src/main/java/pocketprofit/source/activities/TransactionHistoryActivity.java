@@ -133,6 +133,7 @@ public class TransactionHistoryActivity extends AppCompatActivity {
             chartLinkText.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View view) {
+                    Util.preloadInfoAboutCompany(getApplicationContext(), symbol);
                     Intent intent = new Intent(getApplicationContext(), StockInformationActivity.class);
                     intent.putExtra(Util.EXTRA_SYMBOL, symbol);
                     startActivity(intent);
@@ -11,16 +11,18 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.pocketprofit.R;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.entries.EnhancedStockEntry;
 
 import java.util.List;
 
-public class EnhancedStockAdapter extends RecyclerView.Adapter<EnhancedStockAdapter.TopMoverViewHolder> {
+public class EnhancedStockAdapter extends RecyclerView.Adapter<EnhancedStockAdapter.TopMoverViewHolder>
+        implements LogoLoader.SymbolProvider {
 
     private Context mContext;
+    private LogoLoader mLogoLoader;
+    private RecyclerView.OnScrollListener mLogoPreloader;
     private List<EnhancedStockEntry> mList;
     private OnItemClickListener mListener;
 
@@ -69,6 +71,7 @@ public class EnhancedStockAdapter extends RecyclerView.Adapter<EnhancedStockAdap
     public EnhancedStockAdapter(List<EnhancedStockEntry> list, Context context) {
         this.mList = list;
         this.mContext = context;
+        mLogoLoader = new LogoLoader(context, R.dimen.logo_size);
     }
 
     @NonNull
@@ -83,7 +86,7 @@ public class EnhancedStockAdapter extends RecyclerView.Adapter<EnhancedStockAdap
     public void onBindViewHolder(@NonNull TopMoverViewHolder holder, int position) {
         EnhancedStockEntry entry = mList.get(position);
 
-        Glide.with(mContext).load(Util.getCompanyLogoURL(entry.getHeader())).into(holder.companyLogo);
+        mLogoLoader.load(entry.getHeader(), holder.companyLogo);
         holder.companySymbol.setText(entry.getHeader());
         holder.subheader.setText(entry.getSubheader());
 
@@ -116,6 +119,27 @@ public class EnhancedStockAdapter extends RecyclerView.Adapter<EnhancedStockAdap
         return mList.get(position);
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mLogoPreloader = mLogoLoader.newPreloader(this);
+        recyclerView.addOnScrollListener(mLogoPreloader);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(mLogoPreloader);
+    }
+
+    @Override
+    public String getSymbol(int position) {
+        if (position < 0 || position >= mList.size()) {
+            return null;
+        }
+        return mList.get(position).getHeader();
+    }
+
     @Override
     public int getItemCount() {
         return mList.size();
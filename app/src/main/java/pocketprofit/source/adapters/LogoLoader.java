@@ -0,0 +1,169 @@
+package com.pocketprofit.source.adapters;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
+import com.pocketprofit.source.Util;
+import com.pocketprofit.source.metrics.Metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads company logos into the rows of the adapters. Logos are decoded at the exact size of the
+ * view they are displayed in and the decoded result is what gets cached on disk, so a logo that
+ * was seen before never has to be downloaded or downscaled again. Logos of the rows just outside
+ * of the screen are loaded ahead of time as the user scrolls.
+ */
+public final class LogoLoader {
+    public static final String TAG = "LogoLoader";
+
+    // number of rows ahead of the scroll direction whose logos are preloaded.
+    private static final int MAX_PRELOAD = 10;
+
+    // the cache hit rate is logged every time this many logos have been loaded.
+    private static final int REPORT_INTERVAL = 50;
+
+    // logos loaded so far in the process, by where they were loaded from.
+    private static int mMemoryHits;
+    private static int mDiskHits;
+    private static int mDownloads;
+
+    private final RequestManager mGlide;
+    private final int mSize;
+
+    /**
+     * Provides the symbol of the security displayed at a given position of an adapter.
+     */
+    public interface SymbolProvider {
+        String getSymbol(int position);
+    }
+
+    // counts where every logo was loaded from.
+    private static final RequestListener<Drawable> HIT_COUNTER = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                    Target<Drawable> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                       DataSource dataSource, boolean isFirstResource) {
+            countLoad(dataSource);
+            return false;
+        }
+    };
+
+    /**
+     * @param context   the context of the activity displaying the logos.
+     * @param sizeResId dimension resource of the size of the (square) logo views.
+     */
+    public LogoLoader(Context context, int sizeResId) {
+        mGlide = Glide.with(context);
+        mSize = context.getResources().getDimensionPixelSize(sizeResId);
+    }
+
+    /**
+     * Displays the logo of the given security in the given view.
+     *
+     * @param symbol    the security ticker symbol.
+     * @param view      the view to display the logo in.
+     */
+    public void load(String symbol, ImageView view) {
+        request(symbol).into(view);
+    }
+
+    /**
+     * Returns the request of the logo of the given security, shared by the rows and the
+     * preloader. The logo views are all fitCenter, which is set explicitly: into(ImageView)
+     * would otherwise add it to the displayed requests only, and a preloaded logo would be
+     * cached under a key the rows never ask for.
+     *
+     * @param symbol    the security ticker symbol.
+     * @return          the request of the logo.
+     */
+    private RequestBuilder<Drawable> request(String symbol) {
+        return mGlide.load(Util.getCompanyLogoURL(symbol))
+                .override(mSize)
+                .fitCenter()
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE)
+                .listener(HIT_COUNTER);
+    }
+
+    /**
+     * Returns a scroll listener that preloads the logos of the rows about to be scrolled onto
+     * the screen, to be added to the RecyclerView displaying the logos.
+     *
+     * @param symbols   provides the symbols of the rows.
+     * @return          the scroll listener.
+     */
+    public RecyclerView.OnScrollListener newPreloader(final SymbolProvider symbols) {
+        ListPreloader.PreloadModelProvider<String> modelProvider =
+                new ListPreloader.PreloadModelProvider<String>() {
+            @NonNull
+            @Override
+            public List<String> getPreloadItems(int position) {
+                String symbol = symbols.getSymbol(position);
+                if (symbol == null) {
+                    return Collections.emptyList();
+                }
+                return Collections.singletonList(symbol);
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull String symbol) {
+                return request(symbol);
+            }
+        };
+        return new RecyclerViewPreloader<String>(mGlide, modelProvider,
+                new FixedPreloadSizeProvider<String>(mSize, mSize), MAX_PRELOAD);
+    }
+
+    private static synchronized void countLoad(DataSource dataSource) {
+        if (dataSource == DataSource.MEMORY_CACHE) {
+            mMemoryHits++;
+            Metrics.increment(Metrics.LOGO_MEMORY_HITS);
+        } else if (dataSource == DataSource.RESOURCE_DISK_CACHE ||
+                dataSource == DataSource.DATA_DISK_CACHE) {
+            mDiskHits++;
+            Metrics.increment(Metrics.LOGO_DISK_HITS);
+        } else {
+            mDownloads++;
+            Metrics.increment(Metrics.LOGO_DOWNLOADS);
+        }
+        int total = mMemoryHits + mDiskHits + mDownloads;
+        if (total % REPORT_INTERVAL == 0) {
+            Log.i(TAG, "Logo cache hit rate " + Util.formatPercentageText(getHitRate() * 100) +
+                    " (memory " + mMemoryHits + ", disk " + mDiskHits + ", downloaded " +
+                    mDownloads + ")");
+        }
+    }
+
+    /**
+     * @return  the fraction of logos that were loaded from the memory or disk cache rather than
+     *          downloaded, since the process started.
+     */
+    public static synchronized double getHitRate() {
+        int total = mMemoryHits + mDiskHits + mDownloads;
+        return (total == 0) ? 0 : (double) (mMemoryHits + mDiskHits) / total;
+    }
+}
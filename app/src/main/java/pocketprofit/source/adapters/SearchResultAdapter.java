@@ -10,16 +10,17 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.pocketprofit.R;
-import com.pocketprofit.source.Util;
 import com.pocketprofit.source.entries.SearchResultEntry;
 
 import java.util.List;
 
-public class SearchResultAdapter extends RecyclerView.Adapter<SearchResultAdapter.SearchResultViewHolder> {
+public class SearchResultAdapter extends RecyclerView.Adapter<SearchResultAdapter.SearchResultViewHolder>
+        implements LogoLoader.SymbolProvider {
 
     private Context mContext;
+    private LogoLoader mLogoLoader;
+    private RecyclerView.OnScrollListener mLogoPreloader;
     private List<SearchResultEntry> mList;
     private OnItemClickListener mListener;
 
@@ -60,6 +61,7 @@ public class SearchResultAdapter extends RecyclerView.Adapter<SearchResultAdapte
     public SearchResultAdapter(List<SearchResultEntry> list, Context context) {
         this.mList = list;
         this.mContext = context;
+        mLogoLoader = new LogoLoader(context, R.dimen.logo_size_large);
     }
 
     @NonNull
@@ -74,14 +76,55 @@ public class SearchResultAdapter extends RecyclerView.Adapter<SearchResultAdapte
     public void onBindViewHolder(@NonNull SearchResultViewHolder holder, int position) {
         SearchResultEntry entry = mList.get(position);
 
-        Glide.with(mContext).load(Util.getCompanyLogoURL(entry.getHeader())).into(holder.companyLogo);
+        mLogoLoader.load(entry.getHeader(), holder.companyLogo);
         holder.companySymbol.setText(entry.getHeader());
         holder.companyName.setText(entry.getSubheader());
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mLogoPreloader = mLogoLoader.newPreloader(this);
+        recyclerView.addOnScrollListener(mLogoPreloader);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(mLogoPreloader);
+    }
+
+    @Override
+    public String getSymbol(int position) {
+        if (position < 0 || position >= mList.size()) {
+            return null;
+        }
+        return mList.get(position).getHeader();
+    }
+
     @Override
     public int getItemCount() {
         return mList.size();
     }
 
+    /**
+     * Returns the search result at the given position.
+     *
+     * @param position  the position of the search result.
+     * @return          the search result at the given position.
+     */
+    public SearchResultEntry get(int position) {
+        return mList.get(position);
+    }
+
+    /**
+     * Replaces the search results being displayed with the given list.
+     *
+     * @param list  the search results to display.
+     */
+    public void setList(List<SearchResultEntry> list) {
+        mList = list;
+        notifyDataSetChanged();
+    }
+
 }
\ No newline at end of file
@@ -9,20 +9,65 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.pocketprofit.R;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.entries.StockEntry;
+import com.pocketprofit.source.metrics.Tracing;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+public class StockAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
+        implements LogoLoader.SymbolProvider {
+    // rows of stocks whose data is displayed, and rows of stocks whose data is still being
+    // retrieved.
+    private static final int VIEW_TYPE_STOCK = 0;
+    private static final int VIEW_TYPE_PLACEHOLDER = 1;
+
+    // payload of a row whose price (and color) changed, only the price is rebound.
+    private static final Object PAYLOAD_PRICE = new Object();
+
+    // rows are the same stock if they have the same symbol, a row whose name (or share count)
+    // is unchanged only had its price updated. a placeholder row replaced by the stock's data
+    // is rebound entirely (as a different view type).
+    private static final DiffUtil.ItemCallback<StockEntry> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<StockEntry>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull StockEntry a, @NonNull StockEntry b) {
+            return a.getHeader().equals(b.getHeader());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull StockEntry a, @NonNull StockEntry b) {
+            return a.isPlaceholder() == b.isPlaceholder() &&
+                    a.getSubheader().equals(b.getSubheader()) && a.getPrice() == b.getPrice() &&
+                    a.getColor() == b.getColor();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull StockEntry a, @NonNull StockEntry b) {
+            return (a.isPlaceholder() == b.isPlaceholder() &&
+                    a.getSubheader().equals(b.getSubheader())) ? PAYLOAD_PRICE : null;
+        }
+    };
 
-public class StockAdapter extends RecyclerView.Adapter<StockAdapter.StockViewHolder> {
     private Context mContext;
-    private List<StockEntry> mStocks;
     private OnItemClickListener mListener;
+    private LogoLoader mLogoLoader;
+    private RecyclerView.OnScrollListener mLogoPreloader;
 
+    // computes the changes between the displayed list and a submitted list in the background,
+    // then dispatches only those changes to the RecyclerView.
+    private final AsyncListDiffer<StockEntry> mDiffer;
+
+    // stable ids of the symbols displayed so far. rows are identified by their symbol, so a list
+    // must not hold the same symbol twice.
+    private final Map<String, Long> mIds;
 
     public interface OnItemClickListener {
         void onItemClick(int position);
@@ -33,12 +78,21 @@ public class StockAdapter extends RecyclerView.Adapter<StockAdapter.StockViewHol
     }
 
     public StockAdapter(Context context) {
-        this(context, null);
+        mContext = context;
+        mLogoLoader = new LogoLoader(context, R.dimen.logo_size);
+        mDiffer = new AsyncListDiffer<StockEntry>(this, DIFF_CALLBACK);
+        mIds = new HashMap<String, Long>();
+        setHasStableIds(true);
     }
 
-    public StockAdapter(Context context, List<StockEntry> stocks) {
-        mContext = context;
-        mStocks = stocks;
+    /**
+     * Displays the given list of stocks. The list must not be modified afterwards, submit a new
+     * list instead.
+     *
+     * @param stocks    the stocks to display.
+     */
+    public void submitList(List<StockEntry> stocks) {
+        mDiffer.submitList(stocks);
     }
 
     public static class StockViewHolder extends RecyclerView.ViewHolder {
@@ -69,49 +123,119 @@ public class StockAdapter extends RecyclerView.Adapter<StockAdapter.StockViewHol
         }
     }
 
+    public static class PlaceholderViewHolder extends RecyclerView.ViewHolder {
+        public PlaceholderViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return get(position).isPlaceholder() ? VIEW_TYPE_PLACEHOLDER : VIEW_TYPE_STOCK;
+    }
+
     @NonNull
     @Override
-    public StockViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         LayoutInflater inflater = LayoutInflater.from(mContext);
+        if (viewType == VIEW_TYPE_PLACEHOLDER) {
+            return new PlaceholderViewHolder(
+                    inflater.inflate(R.layout.stock_placeholder, parent, false));
+        }
         View view = inflater.inflate(R.layout.stock_entry, parent, false);
         return new StockViewHolder(view, mListener);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull StockViewHolder holder, int position) {
-        if (position >= 0 && position < mStocks.size()) {
-            StockEntry stockEntry = mStocks.get(position);
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder viewHolder, int position) {
+        // placeholder rows display nothing specific to the stock.
+        if (!(viewHolder instanceof StockViewHolder)) {
+            return;
+        }
+        Tracing.begin("StockAdapter.onBindViewHolder");
+        try {
+            StockViewHolder holder = (StockViewHolder) viewHolder;
+            StockEntry stockEntry = get(position);
             String symbol = stockEntry.getHeader();
 
-            Glide.with(mContext).load(Util.getCompanyLogoURL(symbol)).into(holder.logo);
+            mLogoLoader.load(symbol, holder.logo);
 
             holder.symbol.setText(symbol);
 
             holder.subheader.setText(stockEntry.getSubheader());
 
-            holder.currentPrice.getBackground().setColorFilter(stockEntry.getColor(), PorterDuff.Mode.SRC_ATOP);
-            holder.currentPrice.setText(Util.formatPriceText(stockEntry.getPrice(),
-                    true, true));
+            bindPrice(holder, stockEntry);
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_PRICE) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        if (payloads.isEmpty() || !(holder instanceof StockViewHolder)) {
+            onBindViewHolder(holder, position);
+        } else {
+            Tracing.begin("StockAdapter.bindPrice");
+            try {
+                bindPrice((StockViewHolder) holder, get(position));
+            } finally {
+                Tracing.end();
+            }
+        }
+    }
+
+    private void bindPrice(StockViewHolder holder, StockEntry stockEntry) {
+        holder.currentPrice.getBackground().setColorFilter(stockEntry.getColor(), PorterDuff.Mode.SRC_ATOP);
+        holder.currentPrice.setText(Util.formatPriceText(stockEntry.getPrice(),
+                true, true));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String symbol = get(position).getHeader();
+        Long id = mIds.get(symbol);
+        if (id == null) {
+            id = (long) mIds.size();
+            mIds.put(symbol, id);
         }
+        return id;
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mLogoPreloader = mLogoLoader.newPreloader(this);
+        recyclerView.addOnScrollListener(mLogoPreloader);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(mLogoPreloader);
     }
 
     public StockEntry get(int position) {
-        return mStocks.get(position);
+        return mDiffer.getCurrentList().get(position);
     }
 
     @Override
     public int getItemCount() {
-        if (mStocks == null) {
-            return 0;
-        }
-        return mStocks.size();
+        return mDiffer.getCurrentList().size();
     }
 
+    @Override
     public String getSymbol(int position) {
-        if (position < 0 || position >= mStocks.size()) {
+        if (position < 0 || position >= getItemCount()) {
             return null;
         }
-        return mStocks.get(position).getHeader();
+        return get(position).getHeader();
     }
 
-}
\ No newline at end of file
+}
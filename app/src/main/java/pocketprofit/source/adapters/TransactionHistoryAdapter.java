@@ -14,6 +14,7 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.pocketprofit.R;
+import com.pocketprofit.source.Money;
 import com.pocketprofit.source.Util;
 import com.pocketprofit.source.database.DatabaseTables;
 
@@ -75,7 +76,7 @@ public class TransactionHistoryAdapter extends RecyclerView.Adapter<TransactionH
         if (mCursor.moveToPosition(position)) {
             String orderType = mCursor.getString(mCursor.getColumnIndex(DatabaseTables.Transaction.COLUMN_ORDER_TYPE));
             String companyName = mCursor.getString(mCursor.getColumnIndex(DatabaseTables.Transaction.COLUMN_SYMBOL));
-            double orderPrice = mCursor.getDouble(mCursor.getColumnIndex(DatabaseTables.Transaction.COLUMN_PRICE));
+            double orderPrice = Money.toDouble(mCursor.getLong(mCursor.getColumnIndex(DatabaseTables.Transaction.COLUMN_PRICE)));
             double orderQuantity = mCursor.getDouble(mCursor.getColumnIndex(DatabaseTables.Transaction.COLUMN_QUANTITY));
             String orderDate = mCursor.getString(mCursor.getColumnIndex(DatabaseTables.Transaction.COLUMN_DATE));
 
@@ -129,7 +130,7 @@ public class TransactionHistoryAdapter extends RecyclerView.Adapter<TransactionH
         if (!mCursor.moveToPosition(position)) {
             return -1;
         }
-        return mCursor.getDouble(mCursor.getColumnIndex(DatabaseTables.Transaction.COLUMN_PRICE));
+        return Money.toDouble(mCursor.getLong(mCursor.getColumnIndex(DatabaseTables.Transaction.COLUMN_PRICE)));
     }
 
     public String getDate(int position) {
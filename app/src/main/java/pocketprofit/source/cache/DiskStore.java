@@ -0,0 +1,169 @@
+package com.pocketprofit.source.cache;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A directory of entries keyed by a string, one file per entry, bounded by a byte budget. Least
+ * recently used entries are deleted first.
+ * Every file starts with the format version and the key of its entry, the rest of the file is
+ * up to the owner of the store. This is not thread safe, the owner serializes all calls on a
+ * single background thread.
+ */
+final class DiskStore {
+    private final String mTag;
+    private final File mDirectory;
+    private final int mFormatVersion;
+    private final long mBudget;
+
+    /**
+     * Reads the contents of an entry that follow its header.
+     */
+    interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * Writes the contents of an entry that follow its header.
+     */
+    interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * @param tag           tag of the owner of the store, used when logging errors.
+     * @param directory     directory holding the entries, created when the first entry is
+     *                      written.
+     * @param formatVersion version of the on-disk format of an entry, entries of any other
+     *                      version are ignored.
+     * @param budget        number of bytes worth of entries that are kept.
+     */
+    DiskStore(String tag, File directory, int formatVersion, long budget) {
+        mTag = tag;
+        mDirectory = directory;
+        mFormatVersion = formatVersion;
+        mBudget = budget;
+    }
+
+    /**
+     * Reads the entry of the given key.
+     *
+     * @param key       the key of the entry.
+     * @param reader    reads the contents of the entry.
+     * @return          the entry, or null if there is none or it can't be read.
+     */
+    <T> T read(String key, Reader<T> reader) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != mFormatVersion || !in.readUTF().equals(key)) {
+                return null;
+            }
+            T entry = reader.read(in);
+            // the modification time doubles as the last access time when trimming the disk.
+            file.setLastModified(System.currentTimeMillis());
+            return entry;
+        } catch (IOException e) {
+            Log.e(mTag, "Unable to read entry for " + key);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Writes the entry of the given key, replacing the previous entry of the key (if any), and
+     * then deletes the least recently used entries until the store fits within its budget.
+     *
+     * @param key       the key of the entry.
+     * @param writer    writes the contents of the entry.
+     */
+    void write(String key, Writer writer) {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            Log.e(mTag, "Unable to create " + mDirectory);
+            return;
+        }
+        // written to a temporary file first so that a crash mid-write never leaves a corrupt
+        // entry behind.
+        File file = fileFor(key);
+        File temp = new File(mDirectory, file.getName() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(mFormatVersion);
+            out.writeUTF(key);
+            writer.write(out);
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                Log.e(mTag, "Unable to write entry for " + key);
+            }
+        } catch (IOException e) {
+            Log.e(mTag, "Unable to write entry for " + key);
+        } finally {
+            closeQuietly(out);
+            temp.delete();
+        }
+        trimToBudget();
+    }
+
+    /**
+     * Returns the file that holds the entry of the given key.
+     * The key itself is stored inside of the file as well, which guards against hash collisions.
+     */
+    private File fileFor(String key) {
+        return new File(mDirectory, Integer.toHexString(key.hashCode()));
+    }
+
+    /**
+     * Deletes the least recently used files until the entries fit within the budget.
+     */
+    private void trimToBudget() {
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long totalSize = 0;
+        for (File file : files) {
+            totalSize += file.length();
+        }
+        if (totalSize <= mBudget) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (int i = 0; i < files.length && totalSize > mBudget; i++) {
+            totalSize -= files[i].length();
+            files[i].delete();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // nothing to do here.
+            }
+        }
+    }
+}
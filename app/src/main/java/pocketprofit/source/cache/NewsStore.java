@@ -0,0 +1,376 @@
+package com.pocketprofit.source.cache;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.pocketprofit.source.ErrorCallback;
+import com.pocketprofit.source.StringCallback;
+import com.pocketprofit.source.Util;
+import com.pocketprofit.source.entries.NewsEntry;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the news articles that were seen for each security on the device, newest first.
+ * Only articles newer than the latest stored article are requested from the PocketProfit server
+ * when the news is opened, older articles are requested page by page once the user has scrolled
+ * past the stored ones. Responses are parsed and filtered (non-English and paywalled articles are
+ * dropped) on a worker thread.
+ */
+public final class NewsStore {
+    public static final String TAG = "NewsStore";
+
+    // name of the directory (inside of the app's private files directory) holding the articles.
+    private static final String DIRECTORY_NAME = "news";
+
+    // bumped whenever the on-disk format of the articles changes, stale formats are ignored.
+    private static final int FORMAT_VERSION = 1;
+
+    // maximum number of articles kept for a single security, the oldest are dropped first. once a
+    // security has this many articles, no older articles are requested.
+    private static final int MAX_ARTICLES = 250;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static NewsStore mInstance = null;
+
+    private final File mDirectory;
+
+    // loading, merging and storing articles is done on this thread.
+    private final ExecutorService mWorker;
+
+    private final Handler mMainHandler;
+
+    // articles of every security loaded so far, newest first. only accessed on the worker thread.
+    private final Map<String, List<NewsEntry>> mArticles;
+
+    /**
+     * Receives the articles of a security every time they change.
+     */
+    public interface Listener {
+        /**
+         * Executed on the UI thread.
+         *
+         * @param news              the articles of the security, newest first.
+         * @param olderAvailable    false once the PocketProfit server has no articles older than
+         *                          the ones given, or once no more articles can be kept.
+         */
+        void onNewsLoaded(List<NewsEntry> news, boolean olderAvailable);
+
+        /**
+         * Executed on the UI thread when the articles could not be requested from the
+         * PocketProfit server.
+         */
+        void onNewsFailed();
+    }
+
+    public static synchronized NewsStore getInstance(Context context) {
+        // Using context.getApplicationContext(), which will ensure that I don't
+        // accidentally leak an Activity's context.
+        if (mInstance == null) {
+            mInstance = new NewsStore(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private NewsStore(Context context) {
+        mDirectory = new File(context.getFilesDir(), DIRECTORY_NAME);
+        mWorker = Executors.newSingleThreadExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mArticles = new HashMap<String, List<NewsEntry>>();
+    }
+
+    /**
+     * Hands the stored articles of the given security to the listener (if there are any), then
+     * requests the articles published since the latest stored one and hands the listener the
+     * merged articles once they arrive.
+     *
+     * @param context   the context of the activity.
+     * @param symbol    the security ticker symbol.
+     * @param listener  receives the articles of the security.
+     */
+    public void load(final Context context, final String symbol, final Listener listener) {
+        mWorker.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<NewsEntry> articles = getArticles(symbol);
+                if (!articles.isEmpty()) {
+                    post(listener, articles, articles.size() < MAX_ARTICLES);
+                }
+                final long since = articles.isEmpty() ? 0 : articles.get(0).getDatetime();
+                fetch(context, symbol, since, 0, listener);
+            }
+        });
+    }
+
+    /**
+     * Requests the articles published before the oldest stored article of the given security and
+     * hands the listener the merged articles once they arrive.
+     *
+     * @param context   the context of the activity.
+     * @param symbol    the security ticker symbol.
+     * @param listener  receives the articles of the security.
+     */
+    public void loadOlder(final Context context, final String symbol, final Listener listener) {
+        mWorker.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<NewsEntry> articles = getArticles(symbol);
+                if (articles.size() >= MAX_ARTICLES) {
+                    // older articles would be dropped again right away.
+                    post(listener, articles, false);
+                    return;
+                }
+                final long before = articles.isEmpty() ?
+                        0 : articles.get(articles.size() - 1).getDatetime();
+                fetch(context, symbol, 0, before, listener);
+            }
+        });
+    }
+
+    /**
+     * Requests articles from the PocketProfit server (on the UI thread, which is where the
+     * request queue lives) and merges the response on the worker thread.
+     */
+    private void fetch(final Context context, final String symbol, final long since,
+                       final long before, final Listener listener) {
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Util.fetchCompanyNews(context, symbol, since, before, new StringCallback() {
+                    @Override
+                    public void onSuccess(final String result) {
+                        mWorker.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                int added = merge(symbol, parse(result));
+                                // a request for older articles that brings nothing new (or
+                                // nothing that could be kept) means that the end of the news
+                                // has been reached.
+                                List<NewsEntry> articles = getArticles(symbol);
+                                post(listener, articles, articles.size() < MAX_ARTICLES &&
+                                        (before == 0 || added > 0));
+                            }
+                        });
+                    }
+                }, new ErrorCallback() {
+                    @Override
+                    public void onError() {
+                        listener.onNewsFailed();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Hands a copy of the given articles to the listener on the UI thread.
+     */
+    private void post(final Listener listener, List<NewsEntry> articles,
+                      final boolean olderAvailable) {
+        final List<NewsEntry> snapshot =
+                Collections.unmodifiableList(new ArrayList<NewsEntry>(articles));
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onNewsLoaded(snapshot, olderAvailable);
+            }
+        });
+    }
+
+    /**
+     * Returns the articles of the given security, reading them from disk the first time.
+     * Runs on the worker thread.
+     */
+    private List<NewsEntry> getArticles(String symbol) {
+        List<NewsEntry> articles = mArticles.get(symbol);
+        if (articles == null) {
+            articles = read(symbol);
+            mArticles.put(symbol, articles);
+        }
+        return articles;
+    }
+
+    /**
+     * Parses the articles of a PocketProfit server response, dropping the articles that are not
+     * in English or are behind a paywall. Runs on the worker thread.
+     */
+    private static List<NewsEntry> parse(String response) {
+        List<NewsEntry> parsedList = new ArrayList<NewsEntry>();
+        try {
+            JSONArray jsonResponse = new JSONArray(response);
+            for (int i = 0; i < jsonResponse.length(); i++) {
+                try {
+                    JSONObject result = jsonResponse.getJSONObject(i);
+
+                    String language = result.getString("lang");
+                    boolean hasPaywall = result.getBoolean("hasPaywall");
+                    if (language.equals("en") && !hasPaywall) {
+                        parsedList.add(new NewsEntry(result.getString("source"),
+                                result.getString("headline"), result.getString("summary"),
+                                result.getString("image"), result.getString("url"),
+                                result.getLong("datetime")));
+                    }
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+            }
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        return parsedList;
+    }
+
+    /**
+     * Adds the given articles to the stored articles of the given security, skipping the ones that
+     * are stored already, and writes the result to disk. Runs on the worker thread.
+     *
+     * @return  the number of articles that were added, not counting the ones that were dropped
+     *          right away to stay within MAX_ARTICLES.
+     */
+    private int merge(String symbol, List<NewsEntry> received) {
+        List<NewsEntry> articles = getArticles(symbol);
+        Set<String> seen = new HashSet<String>();
+        for (NewsEntry article : articles) {
+            seen.add(article.getSiteURL());
+        }
+        Set<String> added = new HashSet<String>();
+        for (NewsEntry article : received) {
+            if (seen.add(article.getSiteURL())) {
+                articles.add(article);
+                added.add(article.getSiteURL());
+            }
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(articles, new Comparator<NewsEntry>() {
+            @Override
+            public int compare(NewsEntry a, NewsEntry b) {
+                return Long.compare(b.getDatetime(), a.getDatetime());
+            }
+        });
+        while (articles.size() > MAX_ARTICLES) {
+            added.remove(articles.remove(articles.size() - 1).getSiteURL());
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+        write(symbol, articles);
+        return added.size();
+    }
+
+    private File fileFor(String symbol) {
+        return new File(mDirectory, symbol);
+    }
+
+    private List<NewsEntry> read(String symbol) {
+        List<NewsEntry> articles = new ArrayList<NewsEntry>();
+        File file = fileFor(symbol);
+        if (!file.exists()) {
+            return articles;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != FORMAT_VERSION) {
+                return articles;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long datetime = in.readLong();
+                articles.add(new NewsEntry(readString(in), readString(in), readString(in),
+                        readString(in), readString(in), datetime));
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to read stored news for " + symbol);
+            articles.clear();
+        } finally {
+            closeQuietly(in);
+        }
+        return articles;
+    }
+
+    private void write(String symbol, List<NewsEntry> articles) {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            Log.e(TAG, "Unable to create " + mDirectory);
+            return;
+        }
+        // written to a temporary file first so that a crash mid-write never leaves a corrupt
+        // file behind.
+        File file = fileFor(symbol);
+        File temp = new File(mDirectory, symbol + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(articles.size());
+            for (NewsEntry article : articles) {
+                out.writeLong(article.getDatetime());
+                writeString(out, article.getSource());
+                writeString(out, article.getHeadline());
+                writeString(out, article.getSummary());
+                writeString(out, article.getImageURL());
+                writeString(out, article.getSiteURL());
+            }
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                Log.e(TAG, "Unable to store news for " + symbol);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to store news for " + symbol);
+        } finally {
+            closeQuietly(out);
+            temp.delete();
+        }
+    }
+
+    // DataOutputStream.writeUTF is limited to 64KB, which an article summary could exceed.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // nothing to do here.
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.pocketprofit.source.cache;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persistent store of the raw responses sent back by the PocketProfit server, keyed by the
+ * endpoint url that produced them, bounded on disk by a byte budget. Least recently used
+ * responses are evicted first.
+ * The calls made through Util for data displayed by the screens of PocketProfit (quotes, charts,
+ * top movers, sectors and company profiles) consult this store first so that the last-known
+ * payload can be rendered instantly (even when the device is offline) while the request is
+ * revalidated in the background. Search results, the symbol universe and news articles are kept
+ * by their own stores and are not stored here.
+ */
+public final class ResponseStore {
+    public static final String TAG = "ResponseStore";
+
+    // name of the directory (inside of the app's private files directory) holding the responses.
+    private static final String DIRECTORY_NAME = "responses";
+
+    // bumped whenever the on-disk format of an entry changes, stale formats are ignored.
+    private static final int FORMAT_VERSION = 1;
+
+    // number of characters worth of responses that are kept in memory, and number of bytes worth
+    // of responses that are kept on disk.
+    private static final int MEMORY_BUDGET = 512 * 1024;
+    private static final long DISK_BUDGET = 4 * 1024 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static ResponseStore mInstance = null;
+
+    // responses on disk, only accessed from mExecutor.
+    private final DiskStore mDisk;
+
+    // recently used entries, avoids going to disk for screens that are re-opened in a session.
+    private final LruCache<String, Entry> mMemoryCache;
+
+    // all disk reads and writes are serialized on this thread so that the UI thread never blocks
+    // on them, and a read always sees the writes that were made before it.
+    private final ExecutorService mExecutor;
+
+    private final Handler mMainHandler;
+
+    /**
+     * Receives a stored response once it has been looked up.
+     */
+    public interface Callback {
+        /**
+         * Executed on the UI thread.
+         *
+         * @param entry the stored response, or null if there is none.
+         */
+        void onLoaded(Entry entry);
+    }
+
+    /**
+     * A response as it was last received from the PocketProfit server.
+     */
+    public static final class Entry {
+        private final String mBody;
+        private final long mSavedAt;
+
+        Entry(String body, long savedAt) {
+            mBody = body;
+            mSavedAt = savedAt;
+        }
+
+        public String getBody() {
+            return mBody;
+        }
+
+        /**
+         * @return  the time (in milliseconds since epoch) the response was received.
+         */
+        public long getSavedAt() {
+            return mSavedAt;
+        }
+
+        /**
+         * @return  how long ago (in milliseconds) the response was received.
+         */
+        public long getAge() {
+            return System.currentTimeMillis() - mSavedAt;
+        }
+    }
+
+    public static synchronized ResponseStore getInstance(Context context) {
+        // Using context.getApplicationContext(), which will ensure that I don't
+        // accidentally leak an Activity's context.
+        if (mInstance == null) {
+            mInstance = new ResponseStore(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private ResponseStore(Context context) {
+        mDisk = new DiskStore(TAG, new File(context.getFilesDir(), DIRECTORY_NAME),
+                FORMAT_VERSION, DISK_BUDGET);
+        mMemoryCache = new LruCache<String, Entry>(MEMORY_BUDGET) {
+            @Override
+            protected int sizeOf(String key, Entry entry) {
+                return key.length() + entry.getBody().length();
+            }
+        };
+        mExecutor = Executors.newSingleThreadExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Looks up the last-known response of the given endpoint url, which is null if the endpoint
+     * has never successfully responded on this device.
+     * A response that is in memory is handed to the callback right away, before this method
+     * returns. Otherwise the response is read from disk in the background and handed to the
+     * callback on the UI thread. This never touches the network.
+     *
+     * @param url       PocketProfit server endpoint url.
+     * @param callback  receives the stored response, or null if there is none.
+     */
+    public void get(final String url, final Callback callback) {
+        Entry entry = mMemoryCache.get(url);
+        if (entry != null) {
+            callback.onLoaded(entry);
+            return;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Entry entry = read(url);
+                if (entry != null) {
+                    mMemoryCache.put(url, entry);
+                }
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onLoaded(entry);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Reads the last-known response of the given endpoint url from disk into memory in the
+     * background, so that a later get() of the same url is answered before it returns.
+     * Used to warm a response that a screen which is about to be opened will ask for.
+     *
+     * @param url   PocketProfit server endpoint url.
+     */
+    public void preload(final String url) {
+        if (mMemoryCache.get(url) != null) {
+            return;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (mMemoryCache.get(url) != null) {
+                    return;
+                }
+                Entry entry = read(url);
+                if (entry != null) {
+                    mMemoryCache.put(url, entry);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stores the given response as the last-known response of the given endpoint url.
+     * The in-memory copy is updated immediately, the disk copy is written in the background.
+     *
+     * @param url   PocketProfit server endpoint url.
+     * @param body  the raw response body.
+     */
+    public void put(final String url, String body) {
+        final Entry entry = new Entry(body, System.currentTimeMillis());
+        mMemoryCache.put(url, entry);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                write(url, entry);
+            }
+        });
+    }
+
+    private Entry read(String url) {
+        return mDisk.read(url, new DiskStore.Reader<Entry>() {
+            @Override
+            public Entry read(DataInputStream in) throws IOException {
+                long savedAt = in.readLong();
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                return new Entry(new String(body, UTF_8), savedAt);
+            }
+        });
+    }
+
+    private void write(String url, final Entry entry) {
+        mDisk.write(url, new DiskStore.Writer() {
+            @Override
+            public void write(DataOutputStream out) throws IOException {
+                byte[] body = entry.getBody().getBytes(UTF_8);
+                out.writeLong(entry.getSavedAt());
+                out.writeInt(body.length);
+                out.write(body);
+            }
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package com.pocketprofit.source.cache;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.pocketprofit.source.entries.SearchResultEntry;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide cache of the (already filtered) search results of the queries made by the user,
+ * bounded in memory and on disk by a byte budget. Least recently used queries are evicted first.
+ * Results survive across SearchActivity instances as well as across sessions, so popular queries
+ * are displayed without a request to the PocketProfit API or parsing its response.
+ */
+public final class SearchResultCache {
+    public static final String TAG = "SearchResultCache";
+
+    // name of the directory (inside of the app's private cache directory) holding the results.
+    private static final String DIRECTORY_NAME = "search";
+
+    // bumped whenever the on-disk format of an entry changes, stale formats are ignored.
+    private static final int FORMAT_VERSION = 1;
+
+    // number of bytes worth of search results that are kept in memory and on disk.
+    private static final int MEMORY_BUDGET = 256 * 1024;
+    private static final long DISK_BUDGET = 1024 * 1024;
+
+    // approximate number of bytes taken up by an object besides its strings.
+    private static final int OBJECT_OVERHEAD = 32;
+
+    private static SearchResultCache mInstance = null;
+
+    // results on disk, only accessed from mExecutor.
+    private final DiskStore mDisk;
+
+    private final LruCache<String, List<SearchResultEntry>> mMemoryCache;
+
+    // all disk reads and writes are serialized on this thread so that the UI thread never blocks
+    // on them, and a read always sees the writes that were made before it.
+    private final ExecutorService mExecutor;
+
+    private final Handler mMainHandler;
+
+    /**
+     * Receives cached search results once they have been looked up.
+     */
+    public interface Callback {
+        /**
+         * Executed on the UI thread.
+         *
+         * @param results   the cached search results, or null if there are none.
+         */
+        void onLoaded(List<SearchResultEntry> results);
+    }
+
+    public static synchronized SearchResultCache getInstance(Context context) {
+        // Using context.getApplicationContext(), which will ensure that I don't
+        // accidentally leak an Activity's context.
+        if (mInstance == null) {
+            mInstance = new SearchResultCache(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private SearchResultCache(Context context) {
+        mDisk = new DiskStore(TAG, new File(context.getCacheDir(), DIRECTORY_NAME),
+                FORMAT_VERSION, DISK_BUDGET);
+        mMemoryCache = new LruCache<String, List<SearchResultEntry>>(MEMORY_BUDGET) {
+            @Override
+            protected int sizeOf(String query, List<SearchResultEntry> results) {
+                return estimateSize(query, results);
+            }
+        };
+        mExecutor = Executors.newSingleThreadExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Returns the search results of the given query if they are in memory, or null otherwise.
+     * This never touches the disk, so it is cheap enough to call on every keystroke.
+     *
+     * @param query the query that the user has made.
+     * @return      the search results kept in memory, or null if there are none.
+     */
+    public List<SearchResultEntry> getFromMemory(String query) {
+        return mMemoryCache.get(query);
+    }
+
+    /**
+     * Looks up the search results of the given query, which are null if the query is not cached.
+     * Results that are in memory are handed to the callback right away, before this method
+     * returns. Otherwise the results are read from disk in the background and handed to the
+     * callback on the UI thread. This never touches the network.
+     *
+     * @param query     the query that the user has made.
+     * @param callback  receives the cached search results, or null if there are none.
+     */
+    public void get(final String query, final Callback callback) {
+        List<SearchResultEntry> results = mMemoryCache.get(query);
+        if (results != null) {
+            callback.onLoaded(results);
+            return;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<SearchResultEntry> results = read(query);
+                if (results != null) {
+                    mMemoryCache.put(query, results);
+                }
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onLoaded(results);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Caches the search results of the given query.
+     * The in-memory copy is updated immediately, the disk copy is written in the background.
+     *
+     * @param query     the query that the user has made.
+     * @param results   the filtered search results of the query.
+     */
+    public void put(final String query, List<SearchResultEntry> results) {
+        final List<SearchResultEntry> copy =
+                Collections.unmodifiableList(new ArrayList<SearchResultEntry>(results));
+        mMemoryCache.put(query, copy);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                write(query, copy);
+            }
+        });
+    }
+
+    private static int estimateSize(String query, List<SearchResultEntry> results) {
+        int size = OBJECT_OVERHEAD + 2 * query.length();
+        for (SearchResultEntry entry : results) {
+            size += OBJECT_OVERHEAD +
+                    2 * (entry.getHeader().length() + entry.getSubheader().length());
+        }
+        return size;
+    }
+
+    private List<SearchResultEntry> read(String query) {
+        return mDisk.read(query, new DiskStore.Reader<List<SearchResultEntry>>() {
+            @Override
+            public List<SearchResultEntry> read(DataInputStream in) throws IOException {
+                int count = in.readInt();
+                List<SearchResultEntry> results = new ArrayList<SearchResultEntry>(count);
+                for (int i = 0; i < count; i++) {
+                    results.add(new SearchResultEntry(in.readUTF(), in.readUTF()));
+                }
+                return Collections.unmodifiableList(results);
+            }
+        });
+    }
+
+    private void write(String query, final List<SearchResultEntry> results) {
+        mDisk.write(query, new DiskStore.Writer() {
+            @Override
+            public void write(DataOutputStream out) throws IOException {
+                out.writeInt(results.size());
+                for (SearchResultEntry entry : results) {
+                    out.writeUTF(entry.getHeader());
+                    out.writeUTF(entry.getSubheader());
+                }
+            }
+        });
+    }
+}
@@ -8,21 +8,25 @@ import android.database.sqlite.SQLiteOpenHelper;
 
 import androidx.annotation.Nullable;
 
+import com.pocketprofit.source.Money;
 import com.pocketprofit.source.database.DatabaseTables.DailyTransactionProfitLog;
 import com.pocketprofit.source.database.DatabaseTables.Stock;
 import com.pocketprofit.source.database.DatabaseTables.StockSplits;
 import com.pocketprofit.source.database.DatabaseTables.Transaction;
+import com.pocketprofit.source.database.DatabaseTables.Watchlist;
+import com.pocketprofit.source.metrics.Metrics;
+import com.pocketprofit.source.portfolio.FifoLiquidation;
+import com.pocketprofit.source.portfolio.TodaysPurchases;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
     private static DatabaseHelper mInstance = null;
     public static final String DATABASE_NAME = "pocketprofit.db";
-    public static final int DATABASE_VERSION = 3;
+    public static final int DATABASE_VERSION = 5;
 
     public static DatabaseHelper getInstance(Context context) {
         // Using context.getApplicationContext(), which will ensure that I don't
@@ -37,60 +41,136 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
      }
 
+    // prices, costs and values of money are stored as INTEGER micros (see Money).
+    private static final String SQL_CREATE_STOCK_TABLE = "CREATE TABLE " +
+            Stock.TABLE_NAME + " (" +
+            Stock._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            Stock.COLUMN_NAME + " TEXT, " +
+            Stock.COLUMN_SYMBOL + " TEXT, " +
+            Stock.COLUMN_QUANTITY + " INTEGER, " +
+            Stock.COLUMN_PRICE_PAID + " INTEGER, " +
+            Stock.COLUMN_CURRENT_PRICE + " INTEGER, " +
+            Stock.COLUMN_DATE + " TEXT" +
+            ");";
+
+    private static final String SQL_CREATE_TRANSACTION_TABLE = "CREATE TABLE " +
+            Transaction.TABLE_NAME + " (" +
+            Transaction._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            Transaction.COLUMN_NAME + " TEXT, " +
+            Transaction.COLUMN_SYMBOL + " TEXT, " +
+            Transaction.COLUMN_ORDER_TYPE + " TEXT, " +
+            Transaction.COLUMN_QUANTITY + " INTEGER, " +
+            Transaction.COLUMN_PRICE + " INTEGER, " +
+            Transaction.COLUMN_DATE + " TEXT" +
+            ");";
+
+    private static final String SQL_CREATE_STOCK_SPLITS_TABLE = "CREATE TABLE " +
+            StockSplits.TABLE_NAME + " (" +
+            StockSplits._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            StockSplits.COLUMN_SYMBOL + " TEXT, " +
+            StockSplits.COLUMN_EX_DATE + " TEXT, " +
+            StockSplits.COLUMN_DESCRIPTION + " TEXT, " +
+            StockSplits.COLUMN_FROM_FACTOR + " INTEGER, " +
+            StockSplits.COLUMN_TO_FACTOR + " INTEGER" +
+            ");";
+
+    private static final String SQL_CREATE_DAILY_STOCK_TRANSACTION_LOG_TABLE = "CREATE TABLE " +
+            DailyTransactionProfitLog.TABLE_NAME + " (" +
+            DailyTransactionProfitLog._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            DailyTransactionProfitLog.COLUMN_DATE + " TEXT, " +
+            DailyTransactionProfitLog.COLUMN_VALUE + " INTEGER" +
+            ");";
+
+    private static final String SQL_CREATE_WATCHLIST_TABLE = "CREATE TABLE " +
+            Watchlist.TABLE_NAME + " (" +
+            Watchlist._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            Watchlist.COLUMN_SYMBOL + " TEXT UNIQUE NOT NULL, " +
+            Watchlist.COLUMN_POSITION + " INTEGER NOT NULL, " +
+            Watchlist.COLUMN_ADDED_AT + " INTEGER NOT NULL" +
+            ");";
+
     @Override
     public void onCreate(SQLiteDatabase sqLiteDatabase) {
-        final String SQL_CREATE_STOCK_TABLE = "CREATE TABLE " +
-                Stock.TABLE_NAME + " (" +
-                Stock._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                Stock.COLUMN_NAME + " TEXT, " +
-                Stock.COLUMN_SYMBOL + " TEXT, " +
-                Stock.COLUMN_QUANTITY + " INTEGER, " +
-                Stock.COLUMN_PRICE_PAID + " REAL, " +
-                Stock.COLUMN_CURRENT_PRICE + " REAL, " +
-                Stock.COLUMN_DATE + " TEXT" +
-                ");";
-
-        final String SQL_CREATE_TRANSACTION_TABLE = "CREATE TABLE " +
-                Transaction.TABLE_NAME + " (" +
-                Transaction._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                Transaction.COLUMN_NAME + " TEXT, " +
-                Transaction.COLUMN_SYMBOL + " TEXT, " +
-                Transaction.COLUMN_ORDER_TYPE + " TEXT, " +
-                Transaction.COLUMN_QUANTITY + " INTEGER, " +
-                Transaction.COLUMN_PRICE + " REAL, " +
-                Transaction.COLUMN_DATE + " TEXT" +
-                ");";
-
-        final String SQL_CREATE_STOCK_SPLITS_TABLE = "CREATE TABLE " +
-                StockSplits.TABLE_NAME + " (" +
-                StockSplits._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                StockSplits.COLUMN_SYMBOL + " TEXT, " +
-                StockSplits.COLUMN_EX_DATE + " TEXT, " +
-                StockSplits.COLUMN_DESCRIPTION + " TEXT, " +
-                StockSplits.COLUMN_FROM_FACTOR + " INTEGER, " +
-                StockSplits.COLUMN_TO_FACTOR + " INTEGER" +
-                ");";
-
-        final String SQL_CREATE_DAILY_STOCK_TRANSACTION_LOG_TABLE = "CREATE TABLE " +
-                DailyTransactionProfitLog.TABLE_NAME + " (" +
-                DailyTransactionProfitLog._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                DailyTransactionProfitLog.COLUMN_DATE + " TEXT, " +
-                DailyTransactionProfitLog.COLUMN_VALUE + " VALUE" +
-                ");";
-
         sqLiteDatabase.execSQL(SQL_CREATE_STOCK_TABLE);
         sqLiteDatabase.execSQL(SQL_CREATE_TRANSACTION_TABLE);
         sqLiteDatabase.execSQL(SQL_CREATE_STOCK_SPLITS_TABLE);
         sqLiteDatabase.execSQL(SQL_CREATE_DAILY_STOCK_TRANSACTION_LOG_TABLE);
+        sqLiteDatabase.execSQL(SQL_CREATE_WATCHLIST_TABLE);
     }
 
     @Override
-    public void onUpgrade(SQLiteDatabase sqLiteDatabase, int i, int i1) {
+    public void onUpgrade(SQLiteDatabase sqLiteDatabase, int oldVersion, int newVersion) {
+        if (oldVersion < 3) {
+            // versions before 3 are not migrated, the portfolio starts over.
+            dropTables(sqLiteDatabase);
+            onCreate(sqLiteDatabase);
+            return;
+        }
+        if (oldVersion < 4) {
+            // version 4 moved the watchlist out of the shared preferences, the symbols are copied
+            // over the first time the watchlist is loaded (see WatchlistStore).
+            sqLiteDatabase.execSQL(SQL_CREATE_WATCHLIST_TABLE);
+        }
+        if (oldVersion < 5) {
+            // version 5 stores money as INTEGER micros rather than REAL dollars.
+            migrateToMicros(sqLiteDatabase, Stock.TABLE_NAME, SQL_CREATE_STOCK_TABLE,
+                    new String[] { Stock._ID, Stock.COLUMN_NAME, Stock.COLUMN_SYMBOL,
+                            Stock.COLUMN_QUANTITY, Stock.COLUMN_DATE },
+                    new String[] { Stock.COLUMN_PRICE_PAID, Stock.COLUMN_CURRENT_PRICE });
+            migrateToMicros(sqLiteDatabase, Transaction.TABLE_NAME, SQL_CREATE_TRANSACTION_TABLE,
+                    new String[] { Transaction._ID, Transaction.COLUMN_NAME,
+                            Transaction.COLUMN_SYMBOL, Transaction.COLUMN_ORDER_TYPE,
+                            Transaction.COLUMN_QUANTITY, Transaction.COLUMN_DATE },
+                    new String[] { Transaction.COLUMN_PRICE });
+            migrateToMicros(sqLiteDatabase, DailyTransactionProfitLog.TABLE_NAME,
+                    SQL_CREATE_DAILY_STOCK_TRANSACTION_LOG_TABLE,
+                    new String[] { DailyTransactionProfitLog._ID,
+                            DailyTransactionProfitLog.COLUMN_DATE },
+                    new String[] { DailyTransactionProfitLog.COLUMN_VALUE });
+        }
+    }
+
+    /**
+     * Recreates the given table with the given schema, copying its rows over and converting the
+     * given money columns from dollars to micros. SQLite can't change the type of a column in
+     * place. Runs inside of the upgrade transaction, so a failure leaves the old table intact.
+     *
+     * @param sqLiteDatabase    the database being upgraded.
+     * @param table             the name of the table.
+     * @param createTable       the statement that creates the table with the new schema.
+     * @param columns           the columns copied as they are.
+     * @param moneyColumns      the columns converted to micros.
+     */
+    private void migrateToMicros(SQLiteDatabase sqLiteDatabase, String table, String createTable,
+                                 String[] columns, String[] moneyColumns) {
+        StringBuilder targetColumns = new StringBuilder();
+        StringBuilder sourceColumns = new StringBuilder();
+        for (String column : columns) {
+            targetColumns.append(column).append(", ");
+            sourceColumns.append(column).append(", ");
+        }
+        for (String column : moneyColumns) {
+            targetColumns.append(column).append(", ");
+            sourceColumns.append("CAST(ROUND(").append(column).append(" * ")
+                    .append(Money.MICROS_PER_DOLLAR).append(") AS INTEGER), ");
+        }
+        targetColumns.setLength(targetColumns.length() - 2);
+        sourceColumns.setLength(sourceColumns.length() - 2);
+
+        String legacyTable = table + "_v4";
+        sqLiteDatabase.execSQL("ALTER TABLE " + table + " RENAME TO " + legacyTable + ";");
+        sqLiteDatabase.execSQL(createTable);
+        sqLiteDatabase.execSQL("INSERT INTO " + table + " (" + targetColumns + ") " +
+                "SELECT " + sourceColumns + " FROM " + legacyTable + ";");
+        sqLiteDatabase.execSQL("DROP TABLE " + legacyTable + ";");
+    }
+
+    private void dropTables(SQLiteDatabase sqLiteDatabase) {
         sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + Stock.TABLE_NAME);
         sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + Transaction.TABLE_NAME);
         sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + StockSplits.TABLE_NAME);
         sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + DailyTransactionProfitLog.TABLE_NAME);
-        onCreate(sqLiteDatabase);
+        sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + Watchlist.TABLE_NAME);
     }
 
     /**
@@ -98,10 +178,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     public void clearTables() {
         SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
-        sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + Stock.TABLE_NAME);
-        sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + Transaction.TABLE_NAME);
-        sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + StockSplits.TABLE_NAME);
-        sqLiteDatabase.execSQL("DROP TABLE IF EXISTS " + DailyTransactionProfitLog.TABLE_NAME);
+        dropTables(sqLiteDatabase);
         onCreate(sqLiteDatabase);
     }
 
@@ -126,7 +203,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         cv.put(Transaction.COLUMN_SYMBOL, symbol);
         cv.put(Transaction.COLUMN_ORDER_TYPE, orderType);
         cv.put(Transaction.COLUMN_QUANTITY, quantity);
-        cv.put(Transaction.COLUMN_PRICE, price);
+        cv.put(Transaction.COLUMN_PRICE, Money.toMicros(price));
         cv.put(Transaction.COLUMN_DATE, date);
 
         long status = sqLiteDatabase.insert(Transaction.TABLE_NAME, null, cv);
@@ -150,73 +227,81 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     public boolean stockPurchase(String name, String symbol, int quantity, double price,
                                  double currentPrice, String date) {
-        SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
-        ContentValues cv = new ContentValues();
-
-        cv.put(Stock.COLUMN_NAME, name);
-        cv.put(Stock.COLUMN_SYMBOL, symbol);
-        cv.put(Stock.COLUMN_QUANTITY, quantity);
-        cv.put(Stock.COLUMN_PRICE_PAID, price);
-        cv.put(Stock.COLUMN_CURRENT_PRICE, currentPrice);
-        cv.put(Stock.COLUMN_DATE, date);
-
-        long status = sqLiteDatabase.insert(Stock.TABLE_NAME, null, cv);
-        return (status >= 0);
+        try (Metrics.Timer timer = Metrics.time("db.stockPurchase")) {
+            SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+            ContentValues cv = new ContentValues();
+
+            cv.put(Stock.COLUMN_NAME, name);
+            cv.put(Stock.COLUMN_SYMBOL, symbol);
+            cv.put(Stock.COLUMN_QUANTITY, quantity);
+            cv.put(Stock.COLUMN_PRICE_PAID, Money.toMicros(price));
+            cv.put(Stock.COLUMN_CURRENT_PRICE, Money.toMicros(currentPrice));
+            cv.put(Stock.COLUMN_DATE, date);
+
+            long status = sqLiteDatabase.insert(Stock.TABLE_NAME, null, cv);
+            return (status >= 0);
+        }
     }
 
     /**
      * Sells an 'sharesToSell' amount of shares of 'symbol'.
      * PocketProfit uses the "first in, first out" (FIFO) method. This means that the user's
      * longest-held shares are sold first.
-     * Returns the total amount of shares sold.
+     * Returns the total value of the shares sold, in micros.
      *
      * @param symbol        the security ticker symbol.
      * @param sharesToSell  the number of shares to sell.
      * @param previousClose the previous close price.
      * @param latestDate    the shares were sold.
-     * @return              the amount of shares sold.
+     * @return              the value of the shares sold, in micros.
      */
-    public double liquidateStock(String symbol, int sharesToSell, double previousClose,
+    public long liquidateStock(String symbol, int sharesToSell, double previousClose,
                                  String latestDate) {
-        int sharesOwned = getShareCount(symbol);
-        if (sharesOwned < sharesToSell) {
-            return 0;
-        }
-        /*
-        SELECT *
-        FROM Stock.TABLE_NAME
-        WHERE Stock.COLUMN_SYMBOL = 'symbol'
-        ORDER BY Stock._ID ASC
-         */
-        String query = "SELECT * " +
-                "FROM " + Stock.TABLE_NAME + "  " +
-                "WHERE " + Stock.COLUMN_SYMBOL + " = '" + symbol + "' " +
-                "ORDER BY " + Stock._ID + " ASC;";
-        SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
-        Cursor cursor = sqLiteDatabase.rawQuery(query, null);
-        boolean done = false;
-        double amountChangedToday = 0.0;
-        double amountSold = 0.0;
-        try {
-            while (!done && cursor.moveToNext()) {
-                int quantity = cursor.getInt(cursor.getColumnIndex(Stock.COLUMN_QUANTITY));
-                double price = cursor.getDouble(cursor.getColumnIndex(Stock.COLUMN_CURRENT_PRICE));
-                double pricePaid = cursor.getDouble(cursor.getColumnIndex(Stock.COLUMN_PRICE_PAID));
-                double id = cursor.getInt(cursor.getColumnIndex(Stock._ID));
-                String date = cursor.getString(cursor.getColumnIndex(Stock.COLUMN_DATE));
-
-                while (!done && quantity != 0) {
-                    if (date.equals(latestDate)) {
-                        amountChangedToday += (price - pricePaid);
-                    } else {
-                        amountChangedToday += (price - previousClose);
-                    }
-                    amountSold += price;
-                    quantity--;
-                    sharesToSell--;
-                    if (sharesToSell == 0) {
-                        done = true;
-                    }
+        try (Metrics.Timer timer = Metrics.time("db.liquidateStock")) {
+            int sharesOwned = countShares(symbol);
+            if (sharesOwned < sharesToSell) {
+                return 0;
+            }
+            /*
+            SELECT *
+            FROM Stock.TABLE_NAME
+            WHERE Stock.COLUMN_SYMBOL = 'symbol'
+            ORDER BY Stock._ID ASC
+             */
+            String query = "SELECT * " +
+                    "FROM " + Stock.TABLE_NAME + "  " +
+                    "WHERE " + Stock.COLUMN_SYMBOL + " = '" + symbol + "' " +
+                    "ORDER BY " + Stock._ID + " ASC;";
+            SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+            Cursor cursor = sqLiteDatabase.rawQuery(query, null);
+            int lots = cursor.getCount();
+            int[] ids = new int[lots];
+            int[] quantities = new int[lots];
+            long[] currentPrices = new long[lots];
+            long[] pricesPaid = new long[lots];
+            boolean[] boughtToday = new boolean[lots];
+            try {
+                int idIndex = cursor.getColumnIndex(Stock._ID);
+                int quantityIndex = cursor.getColumnIndex(Stock.COLUMN_QUANTITY);
+                int currentPriceIndex = cursor.getColumnIndex(Stock.COLUMN_CURRENT_PRICE);
+                int pricePaidIndex = cursor.getColumnIndex(Stock.COLUMN_PRICE_PAID);
+                int dateIndex = cursor.getColumnIndex(Stock.COLUMN_DATE);
+                for (int i = 0; cursor.moveToNext(); i++) {
+                    ids[i] = cursor.getInt(idIndex);
+                    quantities[i] = cursor.getInt(quantityIndex);
+                    currentPrices[i] = cursor.getLong(currentPriceIndex);
+                    pricesPaid[i] = cursor.getLong(pricePaidIndex);
+                    boughtToday[i] = cursor.getString(dateIndex).equals(latestDate);
+                }
+            } finally {
+                cursor.close();
+            }
+            int[] quantitiesOwned = quantities.clone();
+            FifoLiquidation sale = FifoLiquidation.liquidate(quantities, currentPrices, pricesPaid,
+                    boughtToday, Money.toMicros(previousClose), sharesToSell);
+            for (int i = 0; i < lots; i++) {
+                if (quantities[i] == quantitiesOwned[i]) {
+                    continue;
                 }
                 /*
                 UPDATE Stock.TABLE_NAME
@@ -224,27 +309,25 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 WHERE Stock._ID = id AND Stock.COLUMN_SYMBOL = 'symbol';
                  */
                 String updateEntry = "UPDATE " + Stock.TABLE_NAME + " " +
-                        "SET " + Stock.COLUMN_QUANTITY + " = " + quantity + " " +
-                        "WHERE " + Stock._ID + " = " + id + " AND " + Stock.COLUMN_SYMBOL + " = '" +
+                        "SET " + Stock.COLUMN_QUANTITY + " = " + quantities[i] + " " +
+                        "WHERE " + Stock._ID + " = " + ids[i] + " AND " + Stock.COLUMN_SYMBOL + " = '" +
                         symbol + "';";
                 sqLiteDatabase.execSQL(updateEntry);
             }
-        } finally {
-            cursor.close();
-        }
-        /*
-        Cleaning:
-        DELETE FROM Stock.TABLE_NAME
-        WHERE Stock.QUANTITY = 0;
-         */
-        String clean = "DELETE FROM " + Stock.TABLE_NAME + " " +
-                "WHERE " + Stock.COLUMN_QUANTITY + " = " + 0 + ";";
-        sqLiteDatabase.execSQL(clean);
-        sqLiteDatabase.close();
+            /*
+            Cleaning:
+            DELETE FROM Stock.TABLE_NAME
+            WHERE Stock.QUANTITY = 0;
+             */
+            String clean = "DELETE FROM " + Stock.TABLE_NAME + " " +
+                    "WHERE " + Stock.COLUMN_QUANTITY + " = " + 0 + ";";
+            sqLiteDatabase.execSQL(clean);
+            sqLiteDatabase.close();
 
-        logTodaysStockSaleProfit(latestDate, amountChangedToday);
+            logTodaysStockSaleProfit(latestDate, sale.getAmountChangedToday());
 
-        return amountSold;
+            return sale.getAmountSold();
+        }
     }
 
     /**
@@ -262,7 +345,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         double value = 0;
         try {
             if (cursor.moveToFirst()) {
-                value = cursor.getDouble(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_VALUE));
+                value = Money.toDouble(cursor.getLong(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_VALUE)));
             }
         } finally {
             cursor.close();
@@ -282,37 +365,39 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @return      the daily profit/loss from stock sales on the date given.
      */
     public double getTodaysStockSaleProfit(String date) {
-        /*
-        if date is not equal to the current dated logged on the DailyTransactionProfitLog table.
-        the value column is reset to zero and the date column is set to the date provided.
-         */
-        SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
-        String query = "SELECT * " +
-                "FROM " + DailyTransactionProfitLog.TABLE_NAME + ";";
-        Cursor cursor = sqLiteDatabase.rawQuery(query, null);
-
-        double value = 0.0;
-        try {
-            if (cursor.moveToFirst()) {
-                String recordedDate = cursor.getString(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_DATE));
-                if (recordedDate.equals(date)) {
-                    value = cursor.getDouble(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_VALUE));
-                } else {
-                    /*
-                    UPDATE DailyTransactionProfitLog.TABLE_NAME
-                    SET DailyTransactionProfitLog.COLUMN_DATE = 'date',
-                        DailyTransactionProfitLog.COLUMN_VALUE = 0;
-                     */
-                    query = "UPDATE " + DailyTransactionProfitLog.TABLE_NAME + " " +
-                            "SET " + DailyTransactionProfitLog.COLUMN_DATE + " = '" + date + "', " +
-                            DailyTransactionProfitLog.COLUMN_VALUE + " = 0;";
-                    sqLiteDatabase.execSQL(query);
+        try (Metrics.Timer timer = Metrics.time("db.getTodaysStockSaleProfit")) {
+            /*
+            if date is not equal to the current dated logged on the DailyTransactionProfitLog table.
+            the value column is reset to zero and the date column is set to the date provided.
+             */
+            SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+            String query = "SELECT * " +
+                    "FROM " + DailyTransactionProfitLog.TABLE_NAME + ";";
+            Cursor cursor = sqLiteDatabase.rawQuery(query, null);
+
+            double value = 0.0;
+            try {
+                if (cursor.moveToFirst()) {
+                    String recordedDate = cursor.getString(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_DATE));
+                    if (recordedDate.equals(date)) {
+                        value = Money.toDouble(cursor.getLong(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_VALUE)));
+                    } else {
+                        /*
+                        UPDATE DailyTransactionProfitLog.TABLE_NAME
+                        SET DailyTransactionProfitLog.COLUMN_DATE = 'date',
+                            DailyTransactionProfitLog.COLUMN_VALUE = 0;
+                         */
+                        query = "UPDATE " + DailyTransactionProfitLog.TABLE_NAME + " " +
+                                "SET " + DailyTransactionProfitLog.COLUMN_DATE + " = '" + date + "', " +
+                                DailyTransactionProfitLog.COLUMN_VALUE + " = 0;";
+                        sqLiteDatabase.execSQL(query);
+                    }
                 }
+            } finally {
+                cursor.close();
             }
-        } finally {
-            cursor.close();
+            return value;
         }
-        return value;
     }
 
     /**
@@ -324,9 +409,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * new record is created for the date and value given.
      *
      * @param date  the date of the stock transaction made.
-     * @param value the profit or loss to be added to the daily profit/loss.
+     * @param value the profit or loss to be added to the daily profit/loss, in micros.
      */
-    public void logTodaysStockSaleProfit(String date, double value) {
+    public void logTodaysStockSaleProfit(String date, long value) {
         /*
         +value = stock sold at a profit
         -value = stock sold at a loss
@@ -345,14 +430,14 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             } else {
                 if (cursor.moveToFirst()) {
                     String recordedDate = cursor.getString(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_DATE));
-                    double recordedValue = cursor.getDouble(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_VALUE));
+                    long recordedValue = cursor.getLong(cursor.getColumnIndex(DailyTransactionProfitLog.COLUMN_VALUE));
 
                     if (recordedDate.equals(date)) {
                         /*
                         UPDATE DailyTransactionProfitLog.TABLE_NAME
                         SET DailyTransactionProfitLog.COLUMN_VALUE = updatedValue;
                         */
-                        double updatedValue = recordedValue + value;
+                        long updatedValue = recordedValue + value;
 
                         query = "UPDATE " + DailyTransactionProfitLog.TABLE_NAME + " " +
                                 "SET " + DailyTransactionProfitLog.COLUMN_VALUE + " = " + updatedValue + ";";
@@ -384,25 +469,27 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      *          currently has in his/her portfolio.
      */
     public Map<String, Double> getStocksOwned() {
-        Map<String, Double> stocksOwned = new HashMap<>();
-        /*
-        SELECT Stock.COLUMN_SYMBOL,  SUM(Stock.COLUMN_QUANTITY * Stock.COLUMN_CURRENT_PRICE) AS equity
-        FROM Stock.TABLE_NAME
-        GROUP BY Stock.COLUMN_SYMBOL;
-         */
-        SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
-        String query = "SELECT " + Stock.COLUMN_SYMBOL + ", SUM(" + Stock.COLUMN_QUANTITY +
-                                                "*" + Stock.COLUMN_CURRENT_PRICE + ") AS equity " +
-                "FROM " + Stock.TABLE_NAME + " " +
-                "GROUP BY " + Stock.COLUMN_SYMBOL + ";";
-        Cursor cursor = sqLiteDatabase.rawQuery(query, null);
-        while (cursor.moveToNext()) {
-            String symbol = cursor.getString(cursor.getColumnIndex(Stock.COLUMN_SYMBOL));
-            double equity = cursor.getDouble(cursor.getColumnIndex("equity"));
-            stocksOwned.put(symbol, equity);
+        try (Metrics.Timer timer = Metrics.time("db.getStocksOwned")) {
+            Map<String, Double> stocksOwned = new HashMap<>();
+            /*
+            SELECT Stock.COLUMN_SYMBOL,  SUM(Stock.COLUMN_QUANTITY * Stock.COLUMN_CURRENT_PRICE) AS equity
+            FROM Stock.TABLE_NAME
+            GROUP BY Stock.COLUMN_SYMBOL;
+             */
+            SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
+            String query = "SELECT " + Stock.COLUMN_SYMBOL + ", SUM(" + Stock.COLUMN_QUANTITY +
+                                                    "*" + Stock.COLUMN_CURRENT_PRICE + ") AS equity " +
+                    "FROM " + Stock.TABLE_NAME + " " +
+                    "GROUP BY " + Stock.COLUMN_SYMBOL + ";";
+            Cursor cursor = sqLiteDatabase.rawQuery(query, null);
+            while (cursor.moveToNext()) {
+                String symbol = cursor.getString(cursor.getColumnIndex(Stock.COLUMN_SYMBOL));
+                long equity = cursor.getLong(cursor.getColumnIndex("equity"));
+                stocksOwned.put(symbol, Money.toDouble(equity));
+            }
+            cursor.close();
+            return stocksOwned;
         }
-        cursor.close();
-        return stocksOwned;
     }
 
     /**
@@ -435,49 +522,37 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     }
 
     /**
-     * Returns a stack of all the buy order notional values of the given stock on the given date.
-     * (ex. if the user made two buy order transactions of MSFT on Oct 3rd, 2020 at worth $200 (1
-     * share) and $600 (3 shares), then a call of getSharesBoughtToday('MSFT', 'Oct 3rd 2020') will
-     * return {200, 600}.
+     * Returns the number of shares of the given stock bought on the given date and the total
+     * price paid for them.
+     * (ex. if the user made two buy order transactions of MSFT on Oct 3rd, 2020 worth $200 (1
+     * share) and $600 (3 shares), then a call of getTodaysPurchases('MSFT', 'Oct 3rd 2020') will
+     * return 4 shares and $800).
      * If the user does not own the stock given, or did not make any purchases of the stock on the
-     * date given, will return empty stack.
+     * date given, will return 0 shares and $0.
      *
      * @param symbol    the security ticker symbol.
      * @param date      today's date
-     * @return          stack containing all of the purchase prices of the given stock on the
-     *                  date provided.
+     * @return          the shares of the given stock bought on the date provided and their cost.
      */
-    public Stack<Double> getSharesBoughtToday(String symbol, String date) {
-        SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
-        /*
-        SELECT *
-        FROM Stock.TABLE_NAME
-        WHERE Stock.COLUMN_SYMBOL = 'symbol' AND Stock.COLUMN_DATE = 'date';
-         */
-        String query = "SELECT * " +
-                "FROM " + Stock.TABLE_NAME + " " +
-                "WHERE " + Stock.COLUMN_SYMBOL + " = '" + symbol + "' " +
-                "AND " + Stock.COLUMN_DATE + " = '" + date + "';";
-
-        Cursor cursor = sqLiteDatabase.rawQuery(query, null);
-        Stack<Double> stockPurchasePrices = new Stack<>();
-
-        try {
-            while (cursor != null && cursor.moveToNext()) {
-                int quantity = cursor.getInt(cursor.getColumnIndex(Stock.COLUMN_QUANTITY));
-                double pricePaid = cursor.getDouble(cursor.getColumnIndex(Stock.COLUMN_PRICE_PAID));
-                while (quantity != 0) {
-                    stockPurchasePrices.push(pricePaid);
-                    quantity--;
+    public TodaysPurchases getTodaysPurchases(String symbol, String date) {
+        try (Metrics.Timer timer = Metrics.time("db.getTodaysPurchases")) {
+            SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
+            Cursor cursor = sqLiteDatabase.rawQuery(TodaysPurchases.query(symbol, date), null);
+            TodaysPurchases purchases = new TodaysPurchases(0, 0);
+
+            try {
+                if (cursor != null && cursor.moveToFirst()) {
+                    // the sums are NULL if nothing was bought, which getInt/getLong read as 0.
+                    purchases = new TodaysPurchases(cursor.getInt(0), cursor.getLong(1));
+                }
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
                 }
             }
-        } finally {
-            if (cursor != null) {
-                cursor.close();
-            }
+            sqLiteDatabase.close();
+            return purchases;
         }
-        sqLiteDatabase.close();
-        return stockPurchasePrices;
     }
 
     /**
@@ -486,22 +561,24 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @return  a list of all the stock symbols the user has in his/her portfolio.
      */
     public List<String> getAllStockSymbols() {
-        List<String> symbols = new ArrayList<>();
-        SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
-
-        String query = "SELECT " + Stock.COLUMN_SYMBOL + " " +
-                "FROM " + Stock.TABLE_NAME + " " +
-                "GROUP BY " + Stock.COLUMN_SYMBOL + ", " + Stock.COLUMN_CURRENT_PRICE + " " +
-                "ORDER BY " + Stock._ID + " ASC;";
-        Cursor cursor = sqLiteDatabase.rawQuery(query, null);
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                String symbol = cursor.getString(cursor.getColumnIndex(Stock.COLUMN_SYMBOL));
-                symbols.add(symbol);
+        try (Metrics.Timer timer = Metrics.time("db.getAllStockSymbols")) {
+            List<String> symbols = new ArrayList<>();
+            SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
+
+            String query = "SELECT " + Stock.COLUMN_SYMBOL + " " +
+                    "FROM " + Stock.TABLE_NAME + " " +
+                    "GROUP BY " + Stock.COLUMN_SYMBOL + ", " + Stock.COLUMN_CURRENT_PRICE + " " +
+                    "ORDER BY " + Stock._ID + " ASC;";
+            Cursor cursor = sqLiteDatabase.rawQuery(query, null);
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    String symbol = cursor.getString(cursor.getColumnIndex(Stock.COLUMN_SYMBOL));
+                    symbols.add(symbol);
+                }
+                cursor.close();
             }
-            cursor.close();
+            return symbols;
         }
-        return symbols;
     }
 
     /**
@@ -526,7 +603,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         Cursor cursor = sqLiteDatabase.rawQuery(query, null);
 
         if (cursor != null && cursor.moveToFirst()) {
-            double equity = cursor.getDouble(cursor.getColumnIndex("equity"));
+            double equity = Money.toDouble(cursor.getLong(cursor.getColumnIndex("equity")));
             cursor.close();
             return equity;
         }
@@ -555,7 +632,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         Cursor cursor = sqLiteDatabase.rawQuery(query, null);
 
         if (cursor != null && cursor.moveToFirst()) {
-            double cost = cursor.getDouble(cursor.getColumnIndex("cost"));
+            double cost = Money.toDouble(cursor.getLong(cursor.getColumnIndex("cost")));
             cursor.close();
             return cost;
         }
@@ -568,22 +645,33 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @return  the total market value of all the stocks the user owns in his/her portfolio.
      */
     public double getTotalEquity() {
-        /*
-        SELECT SUM(Stock.COLUMN_QUANTITY * Stock.COLUMN_CURRENT_PRICE)
-        FROM Stock.TABLE_NAME
-         */
-        String query = "SELECT SUM(" + Stock.COLUMN_QUANTITY + " * " +
-                Stock.COLUMN_CURRENT_PRICE + ") AS equity " +
-                "FROM " + Stock.TABLE_NAME + ";";
-        SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
-        Cursor cursor = sqLiteDatabase.rawQuery(query, null);
+        return Money.toDouble(getTotalEquityMicros());
+    }
 
-        if (cursor != null && cursor.moveToFirst()) {
-            double equity = cursor.getDouble(cursor.getColumnIndex("equity"));
-            cursor.close();
-            return equity;
+    /**
+     * Returns the total equity currently in the user's possession in micros, summed exactly.
+     *
+     * @return  the total market value of all the stocks the user owns in his/her portfolio.
+     */
+    public long getTotalEquityMicros() {
+        try (Metrics.Timer timer = Metrics.time("db.getTotalEquity")) {
+            /*
+            SELECT SUM(Stock.COLUMN_QUANTITY * Stock.COLUMN_CURRENT_PRICE)
+            FROM Stock.TABLE_NAME
+             */
+            String query = "SELECT SUM(" + Stock.COLUMN_QUANTITY + " * " +
+                    Stock.COLUMN_CURRENT_PRICE + ") AS equity " +
+                    "FROM " + Stock.TABLE_NAME + ";";
+            SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
+            Cursor cursor = sqLiteDatabase.rawQuery(query, null);
+
+            if (cursor != null && cursor.moveToFirst()) {
+                long equity = cursor.getLong(cursor.getColumnIndex("equity"));
+                cursor.close();
+                return equity;
+            }
+            return 0;
         }
-        return 0;
     }
 
     /**
@@ -595,25 +683,27 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @return          the current price of the stock given.
      */
     public double getCurrentPrice(String symbol) {
-        /*
-        SELECT Stock.CURRENT_PRICE
-        FROM Stock.TABLE_NAME
-        WHERE Stock.COLUMN_SYMBOL = 'symbol'
-        GROUP BY Stock.COLUMN_SYMBOL, STOCK.COLUMN_CURRENT_PRICE;
-         */
-        String query = "SELECT " + Stock.COLUMN_CURRENT_PRICE + " " +
-                "FROM " + Stock.TABLE_NAME + " " +
-                "WHERE " + Stock.COLUMN_SYMBOL + " = '" + symbol + "' " +
-                "GROUP BY " + Stock.COLUMN_SYMBOL + ", " + Stock.COLUMN_CURRENT_PRICE + ";";
-        SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
-        Cursor cursor = sqLiteDatabase.rawQuery(query, null);
-        if (cursor != null && cursor.moveToFirst()) {
-            double currentPrice =
-                    cursor.getDouble(cursor.getColumnIndex(Stock.COLUMN_CURRENT_PRICE));
-            cursor.close();
-            return currentPrice;
+        try (Metrics.Timer timer = Metrics.time("db.getCurrentPrice")) {
+            /*
+            SELECT Stock.CURRENT_PRICE
+            FROM Stock.TABLE_NAME
+            WHERE Stock.COLUMN_SYMBOL = 'symbol'
+            GROUP BY Stock.COLUMN_SYMBOL, STOCK.COLUMN_CURRENT_PRICE;
+             */
+            String query = "SELECT " + Stock.COLUMN_CURRENT_PRICE + " " +
+                    "FROM " + Stock.TABLE_NAME + " " +
+                    "WHERE " + Stock.COLUMN_SYMBOL + " = '" + symbol + "' " +
+                    "GROUP BY " + Stock.COLUMN_SYMBOL + ", " + Stock.COLUMN_CURRENT_PRICE + ";";
+            SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
+            Cursor cursor = sqLiteDatabase.rawQuery(query, null);
+            if (cursor != null && cursor.moveToFirst()) {
+                double currentPrice = Money.toDouble(
+                        cursor.getLong(cursor.getColumnIndex(Stock.COLUMN_CURRENT_PRICE)));
+                cursor.close();
+                return currentPrice;
+            }
+            return -1;
         }
-        return -1;
     }
 
     /**
@@ -639,7 +729,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         Cursor cursor = sqLiteDatabase.rawQuery(query, null);
 
         if (cursor != null && cursor.moveToFirst()) {
-            double averageCost = cursor.getDouble(cursor.getColumnIndex("average"));
+            double averageCost = Money.toDouble(cursor.getLong(cursor.getColumnIndex("average")));
             cursor.close();
             return averageCost;
         }
@@ -653,17 +743,20 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @param latestPrice   the latest price of the given symbol.
      */
     public void updateCurrentPrice(String symbol, double latestPrice) {
-        /*
-        UPDATE Stock.TABLE_NAME
-        SET Stock.COLUMN_CURRENT_PRICE = latestPrice
-        WHERE Stock.COLUMN_SYMBOL = 'symbol' AND latestPrice != 0.00;
-         */
-        String query = "UPDATE " + Stock.TABLE_NAME + " " +
-                "SET " + Stock.COLUMN_CURRENT_PRICE + " = " + latestPrice + " " +
-                "WHERE " + Stock.COLUMN_SYMBOL + " = '" + symbol + "' AND " +
-                    latestPrice + " != 0;";
-        SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
-        sqLiteDatabase.execSQL(query);
+        try (Metrics.Timer timer = Metrics.time("db.updateCurrentPrice")) {
+            /*
+            UPDATE Stock.TABLE_NAME
+            SET Stock.COLUMN_CURRENT_PRICE = latestPrice
+            WHERE Stock.COLUMN_SYMBOL = 'symbol' AND latestPrice != 0.00;
+             */
+            long latestPriceMicros = Money.toMicros(latestPrice);
+            String query = "UPDATE " + Stock.TABLE_NAME + " " +
+                    "SET " + Stock.COLUMN_CURRENT_PRICE + " = " + latestPriceMicros + " " +
+                    "WHERE " + Stock.COLUMN_SYMBOL + " = '" + symbol + "' AND " +
+                        latestPriceMicros + " != 0;";
+            SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+            sqLiteDatabase.execSQL(query);
+        }
     }
 
     /**
@@ -756,6 +849,19 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @return          returns the number of shares owned of 'symbol'.
      */
     public int getShareCount(String symbol) {
+        try (Metrics.Timer timer = Metrics.time("db.getShareCount")) {
+            return countShares(symbol);
+        }
+    }
+
+    /**
+     * getShareCount(String) without recording its time, for methods that are timed as a whole
+     * (e.g. liquidateStock(...)).
+     *
+     * @param symbol    the security ticker symbol.
+     * @return          returns the number of shares owned of 'symbol'.
+     */
+    private int countShares(String symbol) {
         /*
         SELECT SUM('Stock.TABLE_QUANTITY') AS count
         FROM 'Stock.TABLE_NAME'
@@ -802,4 +908,73 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return empty;
     }
 
+
+    /**
+     * Returns the symbols of the stocks on the user's watchlist, in the order in which they
+     * were added.
+     *
+     * @return  the symbols of the stocks under watch.
+     */
+    public List<String> getWatchlist() {
+        /*
+        SELECT Watchlist.COLUMN_SYMBOL
+        FROM Watchlist.TABLE_NAME
+        ORDER BY Watchlist.COLUMN_POSITION ASC;
+         */
+        List<String> symbols = new ArrayList<>();
+        SQLiteDatabase sqLiteDatabase = this.getReadableDatabase();
+        String query = "SELECT " + Watchlist.COLUMN_SYMBOL + " " +
+                "FROM " + Watchlist.TABLE_NAME + " " +
+                "ORDER BY " + Watchlist.COLUMN_POSITION + " ASC;";
+        Cursor cursor = sqLiteDatabase.rawQuery(query, null);
+        try {
+            while (cursor.moveToNext()) {
+                symbols.add(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return symbols;
+    }
+
+    /**
+     * Adds the given symbol to the end of the user's watchlist. Nothing happens if the symbol is
+     * already on the watchlist.
+     *
+     * @param symbol    the security ticker symbol.
+     * @param addedAt   the time at which the symbol was added, in milliseconds since epoch.
+     */
+    public void addToWatchlist(String symbol, long addedAt) {
+        /*
+        INSERT OR IGNORE INTO Watchlist.TABLE_NAME (symbol, position, added_at)
+        SELECT 'symbol', COALESCE(MAX(Watchlist.COLUMN_POSITION), -1) + 1, addedAt
+        FROM Watchlist.TABLE_NAME;
+         */
+        String query = "INSERT OR IGNORE INTO " + Watchlist.TABLE_NAME + " (" +
+                Watchlist.COLUMN_SYMBOL + ", " + Watchlist.COLUMN_POSITION + ", " +
+                Watchlist.COLUMN_ADDED_AT + ") " +
+                "SELECT ?, COALESCE(MAX(" + Watchlist.COLUMN_POSITION + "), -1) + 1, ? " +
+                "FROM " + Watchlist.TABLE_NAME + ";";
+        SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+        sqLiteDatabase.execSQL(query, new Object[] { symbol, addedAt });
+    }
+
+    /**
+     * Removes the given symbol from the user's watchlist.
+     *
+     * @param symbol    the security ticker symbol.
+     */
+    public void removeFromWatchlist(String symbol) {
+        SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+        sqLiteDatabase.delete(Watchlist.TABLE_NAME, Watchlist.COLUMN_SYMBOL + " = ?",
+                new String[] { symbol });
+    }
+
+    /**
+     * Removes every symbol from the user's watchlist.
+     */
+    public void clearWatchlist() {
+        SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+        sqLiteDatabase.delete(Watchlist.TABLE_NAME, null, null);
+    }
 }
@@ -18,8 +18,8 @@ public class DatabaseTables {
         public static final String COLUMN_NAME = "name";
         public static final String COLUMN_SYMBOL = "symbol";
         public static final String COLUMN_QUANTITY = "quantity";
-        public static final String COLUMN_PRICE_PAID = "price";
-        public static final String COLUMN_CURRENT_PRICE = "current_price";
+        public static final String COLUMN_PRICE_PAID = "price";  // in micros, see Money.
+        public static final String COLUMN_CURRENT_PRICE = "current_price";  // in micros.
         public static final String COLUMN_DATE = "date";
     }
 
@@ -30,7 +30,7 @@ public class DatabaseTables {
         public static final String COLUMN_SYMBOL = "symbol";
         public static final String COLUMN_ORDER_TYPE = "order_type";
         public static final String COLUMN_QUANTITY = "quantity";
-        public static final String COLUMN_PRICE = "price";
+        public static final String COLUMN_PRICE = "price";  // in micros, see Money.
         public static final String COLUMN_DATE = "date";
     }
 
@@ -50,7 +50,15 @@ public class DatabaseTables {
     public static final class DailyTransactionProfitLog implements  BaseColumns {
         public static final String TABLE_NAME = "dailyTransactionLog";
         public static final String COLUMN_DATE = "date";
-        public static final String COLUMN_VALUE = "value";
+        public static final String COLUMN_VALUE = "value";  // in micros, see Money.
+    }
+
+    // the stocks on the user's watchlist, in the order in which they were added.
+    public static final class Watchlist implements BaseColumns {
+        public static final String TABLE_NAME = "watchlist";
+        public static final String COLUMN_SYMBOL = "symbol";
+        public static final String COLUMN_POSITION = "position";
+        public static final String COLUMN_ADDED_AT = "added_at";  // milliseconds since epoch.
     }
 
 }
\ No newline at end of file
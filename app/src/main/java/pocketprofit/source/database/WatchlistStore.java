@@ -0,0 +1,100 @@
+package com.pocketprofit.source.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.pocketprofit.source.Util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The stocks on the user's watchlist, stored in the watchlist table of the PocketProfit database
+ * and kept in memory for as long as the process lives. Checking whether a stock is on the
+ * watchlist never touches the disk, adding or removing a stock only writes that one row.
+ */
+public final class WatchlistStore {
+    private static WatchlistStore mInstance = null;
+
+    private final DatabaseHelper mDatabase;
+
+    // the symbols on the watchlist, in the order in which they were added.
+    private final Set<String> mSymbols;
+
+    public static synchronized WatchlistStore getInstance(Context context) {
+        // Using context.getApplicationContext(), which will ensure that I don't
+        // accidentally leak an Activity's context.
+        if (mInstance == null) {
+            mInstance = new WatchlistStore(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private WatchlistStore(Context context) {
+        mDatabase = DatabaseHelper.getInstance(context);
+        migrateSharedPreferences(context);
+        mSymbols = new LinkedHashSet<String>(mDatabase.getWatchlist());
+    }
+
+    /**
+     * Versions 3 and older kept the watchlist as a set in the shared preferences, its symbols are
+     * moved over to the watchlist table (in alphabetical order, which is how they were displayed).
+     */
+    private void migrateSharedPreferences(Context context) {
+        SharedPreferences sharedPreferences =
+                context.getSharedPreferences(Util.SHARED_PREFERENCES, Context.MODE_PRIVATE);
+        Set<String> legacySymbols = sharedPreferences.getStringSet(Util.WATCHLIST_STOCKS, null);
+        if (legacySymbols == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (String symbol : new TreeSet<String>(legacySymbols)) {
+            mDatabase.addToWatchlist(symbol, now);
+        }
+        sharedPreferences.edit().remove(Util.WATCHLIST_STOCKS).apply();
+    }
+
+    /**
+     * @return  the symbols on the watchlist, in the order in which they were added.
+     */
+    public synchronized List<String> getSymbols() {
+        return new ArrayList<String>(mSymbols);
+    }
+
+    public synchronized boolean contains(String symbol) {
+        return mSymbols.contains(symbol);
+    }
+
+    /**
+     * Adds the given symbol to the end of the watchlist.
+     *
+     * @param symbol    the security ticker symbol.
+     */
+    public synchronized void add(String symbol) {
+        if (mSymbols.add(symbol)) {
+            mDatabase.addToWatchlist(symbol, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Removes the given symbol from the watchlist.
+     *
+     * @param symbol    the security ticker symbol.
+     */
+    public synchronized void remove(String symbol) {
+        if (mSymbols.remove(symbol)) {
+            mDatabase.removeFromWatchlist(symbol);
+        }
+    }
+
+    /**
+     * Removes every symbol from the watchlist.
+     */
+    public synchronized void clear() {
+        mSymbols.clear();
+        mDatabase.clearWatchlist();
+    }
+}
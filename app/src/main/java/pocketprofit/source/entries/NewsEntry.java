@@ -9,13 +9,16 @@ public class NewsEntry {
     private String mSummary;
     private String mImageURL;
     private String mSiteURL;
+    private long mDatetime;
 
-    public NewsEntry(String source, String headline, String summary, String imageURL, String siteURL) {
+    public NewsEntry(String source, String headline, String summary, String imageURL, String siteURL,
+                     long datetime) {
         mSource = source;
         mHeadline = headline;
         mSummary = summary;
         mImageURL = imageURL;
         mSiteURL = siteURL;
+        mDatetime = datetime;
     }
 
     public String getSource() {
@@ -37,4 +40,11 @@ public class NewsEntry {
     public String getSiteURL() {
         return mSiteURL;
     }
+
+    /**
+     * @return  the time (in milliseconds since epoch) the article was published.
+     */
+    public long getDatetime() {
+        return mDatetime;
+    }
 }
\ No newline at end of file
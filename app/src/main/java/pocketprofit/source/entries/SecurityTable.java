@@ -0,0 +1,187 @@
+package com.pocketprofit.source.entries;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * SecurityTable stores a list of securities column by column (symbol, name, price and color)
+ * rather than as one object per security. Rows are only ever appended, so the columns of a given
+ * size can be read (e.g. sorted) on a background thread while more rows are being added.
+ * A symbol is in at most one row, which lets the adapters use the symbol as the stable id of a
+ * row.
+ */
+public class SecurityTable {
+    private String[] mSymbols;
+    private String[] mNames;
+    private double[] mPrices;
+    private int[] mColors;
+    private int mSize;
+    // symbols of the rows added so far, only accessed by the thread that adds the rows.
+    private final Set<String> mAddedSymbols;
+
+    /**
+     * Sorted orders of the rows of a table, as computed by a SortTask. An order is
+     * an array of row indices, e.g. the symbol of the i-th row by price is getSymbol(byPrice[i]).
+     */
+    public static final class SortedOrders {
+        private final int[] mBySymbol;
+        private final int[] mByPrice;
+        private final int[] mBySymbolDescending;
+        private final int[] mByPriceDescending;
+
+        private SortedOrders(int[] bySymbol, int[] byPrice) {
+            mBySymbol = bySymbol;
+            mByPrice = byPrice;
+            mBySymbolDescending = reverse(bySymbol);
+            mByPriceDescending = reverse(byPrice);
+        }
+
+        public int size() {
+            return mBySymbol.length;
+        }
+
+        public int[] bySymbol(boolean ascending) {
+            return ascending ? mBySymbol : mBySymbolDescending;
+        }
+
+        public int[] byPrice(boolean ascending) {
+            return ascending ? mByPrice : mByPriceDescending;
+        }
+    }
+
+    public SecurityTable() {
+        mSymbols = new String[0];
+        mNames = new String[0];
+        mPrices = new double[0];
+        mColors = new int[0];
+        mAddedSymbols = new HashSet<String>();
+    }
+
+    /**
+     * Appends a row to the table, unless a row of the same symbol was added already (e.g. when a
+     * stored page of a sector overlaps with a page received afterwards).
+     *
+     * @param symbol    the ticker symbol of the security.
+     * @param name      the name of the security.
+     * @param price     the latest price of the security.
+     * @param color     the color the price is displayed in.
+     * @return          true if the row was added, false if the symbol is in the table already.
+     */
+    public boolean add(String symbol, String name, double price, int color) {
+        if (!mAddedSymbols.add(symbol)) {
+            return false;
+        }
+        if (mSize == mSymbols.length) {
+            int capacity = Math.max(16, mSize * 2);
+            // the columns are replaced rather than modified, which keeps the rows that a
+            // background thread may be reading intact.
+            mSymbols = Arrays.copyOf(mSymbols, capacity);
+            mNames = Arrays.copyOf(mNames, capacity);
+            mPrices = Arrays.copyOf(mPrices, capacity);
+            mColors = Arrays.copyOf(mColors, capacity);
+        }
+        mSymbols[mSize] = symbol;
+        mNames[mSize] = name;
+        mPrices[mSize] = price;
+        mColors[mSize] = color;
+        mSize++;
+        return true;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public String getSymbol(int row) {
+        return mSymbols[row];
+    }
+
+    /**
+     * Returns the given row as a StockEntry, which is what the adapters display.
+     *
+     * @param row   the index of the row.
+     * @return      the row as a StockEntry.
+     */
+    public StockEntry getEntry(int row) {
+        return new StockEntry(mSymbols[row], mNames[row], mPrices[row], mColors[row]);
+    }
+
+    /**
+     * Returns a task that computes the ascending symbol and price orders of the rows currently in
+     * the table, which can run on a background thread while rows are being added.
+     *
+     * @return  the sorting task.
+     */
+    public SortTask newSortTask() {
+        return new SortTask(mSymbols, mPrices, mSize);
+    }
+
+    /**
+     * Computes the sorted orders of the first 'size' rows of the given columns.
+     */
+    public static final class SortTask {
+        private final String[] mSymbols;
+        private final double[] mPrices;
+        private final int mSize;
+
+        private SortTask(String[] symbols, double[] prices, int size) {
+            mSymbols = symbols;
+            mPrices = prices;
+            mSize = size;
+        }
+
+        public SortedOrders sort() {
+            Integer[] bySymbol = new Integer[mSize];
+            Integer[] byPrice = new Integer[mSize];
+            for (int i = 0; i < mSize; i++) {
+                bySymbol[i] = i;
+                byPrice[i] = i;
+            }
+            Arrays.sort(bySymbol, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return mSymbols[a].compareTo(mSymbols[b]);
+                }
+            });
+            Arrays.sort(byPrice, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(mPrices[a], mPrices[b]);
+                }
+            });
+            return new SortedOrders(unbox(bySymbol), unbox(byPrice));
+        }
+    }
+
+    /**
+     * Returns the order in which the rows were added, i.e. 0, 1, ..., size - 1.
+     *
+     * @param size  the number of rows.
+     * @return      the order in which the rows were added.
+     */
+    public static int[] insertionOrder(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    private static int[] unbox(Integer[] boxed) {
+        int[] values = new int[boxed.length];
+        for (int i = 0; i < boxed.length; i++) {
+            values[i] = boxed[i];
+        }
+        return values;
+    }
+
+    private static int[] reverse(int[] order) {
+        int[] reversed = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            reversed[i] = order[order.length - 1 - i];
+        }
+        return reversed;
+    }
+}
@@ -9,12 +9,32 @@ public class StockEntry extends SearchResultEntry {
     private double mPrice;
     private int mColor;
 
+    // true if the data of the stock is still being retrieved.
+    private boolean mPlaceholder;
+
     public StockEntry (String symbol, String subheader, double price, int color) {
         super(symbol, subheader);
         mPrice = price;
         mColor = color;
     }
 
+    /**
+     * Returns an entry that holds the place of the given stock on the screen until its data is
+     * retrieved.
+     *
+     * @param symbol    the stock ticker symbol.
+     * @return          the placeholder entry.
+     */
+    public static StockEntry placeholder(String symbol) {
+        StockEntry entry = new StockEntry(symbol, "", 0, 0);
+        entry.mPlaceholder = true;
+        return entry;
+    }
+
+    public boolean isPlaceholder() {
+        return mPlaceholder;
+    }
+
     public double getPrice() {
         return mPrice;
     }
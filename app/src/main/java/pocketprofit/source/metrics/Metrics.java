@@ -0,0 +1,236 @@
+package com.pocketprofit.source.metrics;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide registry of the latencies and counts of the app's hot paths: requests to every
+ * PocketProfit server endpoint, DatabaseHelper queries, chart parsing and drawing, cache hits and
+ * retries. Recording is cheap enough to stay on in release builds, which is where refresh time
+ * actually needs to be understood. The metrics are displayed by the MetricsDialog and can be
+ * dumped as a JSON snapshot.
+ *
+ * Names are dot separated, with the kind of work first (e.g. 'http.quote', 'db.getShareCount').
+ */
+public final class Metrics {
+    public static final String TAG = "Metrics";
+
+    // name of the file (inside of the app's private files directory) snapshots are dumped to.
+    public static final String SNAPSHOT_FILE_NAME = "metrics.json";
+
+    // counters.
+    public static final String HTTP_RETRIES = "http.retries";
+    public static final String HTTP_ERRORS = "http.errors";
+    public static final String RESPONSE_STORE_HITS = "responseStore.hits";
+    // hits that were fresh enough to not be revalidated at all.
+    public static final String RESPONSE_STORE_FRESH_HITS = "responseStore.freshHits";
+    public static final String RESPONSE_STORE_MISSES = "responseStore.misses";
+    public static final String LOGO_MEMORY_HITS = "logos.memoryHits";
+    public static final String LOGO_DISK_HITS = "logos.diskHits";
+    public static final String LOGO_DOWNLOADS = "logos.downloads";
+
+    // histograms, besides the 'http.<endpoint>' and 'db.<method>' ones.
+    public static final String CHART_PARSE = "chart.parse";
+    public static final String CHART_DRAW = "chart.draw";
+    // time from a keystroke in the search box to its results being displayed.
+    public static final String SEARCH_DISPLAY = "search.display";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final ConcurrentMap<String, LatencyHistogram> mHistograms =
+            new ConcurrentHashMap<String, LatencyHistogram>();
+    private static final ConcurrentMap<String, AtomicLong> mCounters =
+            new ConcurrentHashMap<String, AtomicLong>();
+
+    private Metrics() {
+    }
+
+    /**
+     * @return  the current time, to be passed to recordSince(...) once the work is done.
+     */
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time elapsed since the given start time under the given name.
+     *
+     * @param name      the name of the histogram.
+     * @param startTime the time the work started, as returned by now().
+     */
+    public static void recordSince(String name, long startTime) {
+        record(name, (System.nanoTime() - startTime) / 1000);
+    }
+
+    /**
+     * Starts timing work that is recorded under the given name once the returned timer is closed,
+     * e.g. try (Metrics.Timer timer = Metrics.time("db.getShareCount")) { ... }.
+     *
+     * @param name  the name of the histogram.
+     * @return      the timer of the work.
+     */
+    public static Timer time(String name) {
+        return new Timer(name);
+    }
+
+    /**
+     * Records the given latency under the given name.
+     *
+     * @param name      the name of the histogram.
+     * @param micros    the latency in microseconds.
+     */
+    public static void record(String name, long micros) {
+        LatencyHistogram histogram = mHistograms.get(name);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = mHistograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        histogram.record(micros);
+    }
+
+    /**
+     * Adds one to the counter of the given name.
+     *
+     * @param name  the name of the counter.
+     */
+    public static void increment(String name) {
+        AtomicLong counter = mCounters.get(name);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = mCounters.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * @return  name -> histogram, sorted by name.
+     */
+    public static Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<String, LatencyHistogram>(mHistograms);
+    }
+
+    /**
+     * @return  name -> count, sorted by name.
+     */
+    public static Map<String, Long> getCounters() {
+        Map<String, Long> counters = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> counter : mCounters.entrySet()) {
+            counters.put(counter.getKey(), counter.getValue().get());
+        }
+        return counters;
+    }
+
+    /**
+     * Forgets every recorded latency and count.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : mHistograms.values()) {
+            histogram.reset();
+        }
+        mCounters.clear();
+    }
+
+    /**
+     * Returns a snapshot of every metric, in the form
+     * { "histograms": { name: { count, mean, p50, p90, p99, max } }, "counters": { name: count } }
+     * where latencies are in microseconds.
+     *
+     * @return  the snapshot.
+     */
+    public static JSONObject snapshot() {
+        JSONObject snapshot = new JSONObject();
+        try {
+            JSONObject histograms = new JSONObject();
+            for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                JSONObject json = new JSONObject();
+                json.put("count", histogram.getCount());
+                json.put("mean", Math.round(histogram.getMean()));
+                json.put("p50", histogram.getPercentile(50));
+                json.put("p90", histogram.getPercentile(90));
+                json.put("p99", histogram.getPercentile(99));
+                json.put("max", histogram.getMax());
+                histograms.put(entry.getKey(), json);
+            }
+            JSONObject counters = new JSONObject();
+            for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
+                counters.put(entry.getKey(), entry.getValue());
+            }
+            snapshot.put("timestamp", System.currentTimeMillis());
+            snapshot.put("histograms", histograms);
+            snapshot.put("counters", counters);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes a snapshot of every metric to SNAPSHOT_FILE_NAME in the app's private files
+     * directory, from where it can be pulled with adb.
+     *
+     * @param context   the context of the application.
+     * @return          the file written, or null if it couldn't be written.
+     */
+    public static File dump(Context context) {
+        File file = new File(context.getFilesDir(), SNAPSHOT_FILE_NAME);
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            out.write(snapshot().toString(2).getBytes(UTF_8));
+            Log.i(TAG, "Dumped metrics to " + file.getPath());
+            return file;
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to dump metrics", e);
+            return null;
+        } catch (JSONException e) {
+            Log.e(TAG, "Unable to dump metrics", e);
+            return null;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Times a piece of work from its creation until it is closed, see time(String).
+     */
+    public static final class Timer implements Closeable {
+        private final String mName;
+        private final long mStartTime = now();
+
+        private Timer(String name) {
+            mName = name;
+        }
+
+        @Override
+        public void close() {
+            recordSince(mName, mStartTime);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.pocketprofit.source.metrics;
+
+import android.app.Dialog;
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import com.pocketprofit.R;
+import com.pocketprofit.source.Util;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hidden debug screen listing every metric recorded by Metrics, opened by long pressing the
+ * portfolio value on the main page of debug builds. The metrics can be reset (e.g. before a
+ * refresh that is being measured) and dumped as a JSON snapshot, and a trace of the session can
+ * be recorded (see Tracing).
+ */
+public final class MetricsDialog {
+
+    private MetricsDialog() {
+    }
+
+    /**
+     * Opens a popup listing the metrics recorded so far.
+     *
+     * @param context   the context of the activity.
+     */
+    public static void show(final Context context) {
+        final Dialog metricsPopup = new Dialog(context);
+        metricsPopup.setContentView(R.layout.metrics_popup);
+
+        metricsPopup.getWindow().setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
+
+        final TextView metricsText = (TextView) metricsPopup.findViewById(R.id.metrics);
+        metricsText.setText(describeMetrics());
+
+        ImageView closePopup = (ImageView) metricsPopup.findViewById(R.id.close_popup);
+        closePopup.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                metricsPopup.dismiss();
+            }
+        });
+
+        Button resetButton = (Button) metricsPopup.findViewById(R.id.reset);
+        resetButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                Metrics.reset();
+                metricsText.setText(describeMetrics());
+            }
+        });
+
+        final Button traceButton = (Button) metricsPopup.findViewById(R.id.trace);
+        traceButton.setText(Tracing.isRecording() ? R.string.stop_trace : R.string.record_trace);
+        traceButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                if (Tracing.isRecording()) {
+                    Tracing.stopRecording(context, new Tracing.ExportCallback() {
+                        @Override
+                        public void onExported(File file) {
+                            Util.displayToast(context, (file == null) ?
+                                    "Unable to export trace." :
+                                    "Trace exported to " + file.getPath());
+                        }
+                    });
+                    traceButton.setText(R.string.record_trace);
+                } else {
+                    Tracing.startRecording();
+                    traceButton.setText(R.string.stop_trace);
+                }
+            }
+        });
+
+        Button dumpButton = (Button) metricsPopup.findViewById(R.id.dump);
+        dumpButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                File file = Metrics.dump(context);
+                Util.displayToast(context, (file == null) ? "Unable to dump metrics." :
+                        "Metrics dumped to " + file.getPath());
+            }
+        });
+        metricsPopup.show();
+    }
+
+    /**
+     * @return  a table of the histograms (count, p50, p90, p99 and max in milliseconds) followed
+     *          by the counters.
+     */
+    private static String describeMetrics() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.US, "%-28s %6s %7s %7s %7s %7s\n",
+                "latency (ms)", "n", "p50", "p90", "p99", "max"));
+        for (Map.Entry<String, LatencyHistogram> entry : Metrics.getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            builder.append(String.format(Locale.US, "%-28s %6d %7.1f %7.1f %7.1f %7.1f\n",
+                    entry.getKey(), histogram.getCount(), histogram.getPercentile(50) / 1000.0,
+                    histogram.getPercentile(90) / 1000.0, histogram.getPercentile(99) / 1000.0,
+                    histogram.getMax() / 1000.0));
+        }
+        builder.append('\n');
+        for (Map.Entry<String, Long> entry : Metrics.getCounters().entrySet()) {
+            builder.append(String.format(Locale.US, "%-28s %6d\n", entry.getKey(),
+                    entry.getValue()));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,330 @@
+package com.pocketprofit.source.metrics;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.core.os.TraceCompat;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Named sections of the app's work, visible in system traces (systrace / Perfetto) as they are
+ * emitted through android.os.Trace. While a recording is in progress the sections are also kept
+ * in memory, and the recording is exported as a Chrome trace-event JSON file (which can be opened
+ * with chrome://tracing or ui.perfetto.dev) for offline analysis without a connected computer.
+ *
+ * Synchronous sections must begin and end on the same thread, work that spans threads (e.g. a
+ * request that is dispatched by Volley) is traced with asynchronous sections identified by a
+ * cookie.
+ */
+public final class Tracing {
+    public static final String TAG = "Tracing";
+
+    // name of the file (inside of the app's private files directory) recordings are exported to.
+    public static final String TRACE_FILE_NAME = "trace.json";
+
+    // events kept per recording, later events are dropped. about 10MB worth of events.
+    private static final int MAX_EVENTS = 200000;
+
+    // section names longer than this are truncated by android.os.Trace.
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    private static final char PHASE_BEGIN = 'B';
+    private static final char PHASE_END = 'E';
+    private static final char PHASE_ASYNC_BEGIN = 'b';
+    private static final char PHASE_ASYNC_END = 'e';
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static volatile boolean mRecording = false;
+
+    // the events of the recording in progress, stored as parallel arrays so that recording an
+    // event doesn't allocate.
+    private static char[] mPhases;
+    private static String[] mNames;
+    private static long[] mTimestamps;
+    private static int[] mThreadIds;
+    private static int[] mCookies;
+    private static int mEventCount;
+    private static int mDroppedEvents;
+
+    // thread id -> name, of every thread that recorded an event.
+    private static SparseArray<String> mThreadNames = new SparseArray<String>();
+
+    // recordings are exported on this thread, off of the UI thread.
+    private static final ExecutorService mExporter = Executors.newSingleThreadExecutor();
+
+    private static final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Notified on the UI thread once a recording has been exported.
+     */
+    public interface ExportCallback {
+        /**
+         * @param file  the file written, or null if it couldn't be written.
+         */
+        void onExported(File file);
+    }
+
+    private Tracing() {
+    }
+
+    /**
+     * Begins a section of work on the current thread, to be ended with end() on the same thread.
+     *
+     * @param name  the name of the section.
+     */
+    public static void begin(String name) {
+        TraceCompat.beginSection(truncate(name));
+        if (mRecording) {
+            record(PHASE_BEGIN, name, 0);
+        }
+    }
+
+    /**
+     * Ends the most recent section begun on the current thread.
+     */
+    public static void end() {
+        TraceCompat.endSection();
+        if (mRecording) {
+            record(PHASE_END, null, 0);
+        }
+    }
+
+    /**
+     * Begins a section of work that may end on a different thread.
+     *
+     * @param name      the name of the section.
+     * @param cookie    identifies the section among the sections with the same name.
+     */
+    public static void beginAsync(String name, int cookie) {
+        TraceCompat.beginAsyncSection(truncate(name), cookie);
+        if (mRecording) {
+            record(PHASE_ASYNC_BEGIN, name, cookie);
+        }
+    }
+
+    /**
+     * Ends a section begun with beginAsync(...).
+     *
+     * @param name      the name of the section.
+     * @param cookie    the cookie the section was begun with.
+     */
+    public static void endAsync(String name, int cookie) {
+        TraceCompat.endAsyncSection(truncate(name), cookie);
+        if (mRecording) {
+            record(PHASE_ASYNC_END, name, cookie);
+        }
+    }
+
+    public static boolean isRecording() {
+        return mRecording;
+    }
+
+    /**
+     * Starts keeping the sections in memory, discarding those of a previous recording.
+     */
+    public static synchronized void startRecording() {
+        // the arrays of the previous recording are handed off to its export.
+        if (mPhases == null) {
+            mPhases = new char[MAX_EVENTS];
+            mNames = new String[MAX_EVENTS];
+            mTimestamps = new long[MAX_EVENTS];
+            mThreadIds = new int[MAX_EVENTS];
+            mCookies = new int[MAX_EVENTS];
+        }
+        mEventCount = 0;
+        mDroppedEvents = 0;
+        mThreadNames = new SparseArray<String>();
+        mRecording = true;
+        Log.i(TAG, "Recording started");
+    }
+
+    /**
+     * Stops the recording in progress and exports it as a Chrome trace-event JSON file in the
+     * app's private files directory, from where it can be pulled with adb. The events are handed
+     * off to a background thread which writes the file, so that neither the UI thread nor the
+     * threads recording events wait for it.
+     *
+     * @param context   the context of the application.
+     * @param callback  notified on the UI thread once the file has been written.
+     */
+    public static void stopRecording(Context context, final ExportCallback callback) {
+        final Recording recording;
+        synchronized (Tracing.class) {
+            mRecording = false;
+            recording = new Recording(mPhases, mNames, mTimestamps, mThreadIds, mCookies,
+                    mEventCount, mDroppedEvents, mThreadNames);
+            mPhases = null;
+            mNames = null;
+            mTimestamps = null;
+            mThreadIds = null;
+            mCookies = null;
+            mEventCount = 0;
+        }
+        final File file = new File(context.getFilesDir(), TRACE_FILE_NAME);
+        mExporter.execute(new Runnable() {
+            @Override
+            public void run() {
+                final File exported = recording.exportTo(file) ? file : null;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onExported(exported);
+                    }
+                });
+            }
+        });
+    }
+
+    private static synchronized void record(char phase, String name, int cookie) {
+        // the recording may have stopped since mRecording was checked.
+        if (!mRecording) {
+            return;
+        }
+        if (mEventCount == MAX_EVENTS) {
+            mDroppedEvents++;
+            return;
+        }
+        int threadId = Process.myTid();
+        if (mThreadNames.get(threadId) == null) {
+            mThreadNames.put(threadId, Thread.currentThread().getName());
+        }
+        mPhases[mEventCount] = phase;
+        mNames[mEventCount] = name;
+        mTimestamps[mEventCount] = System.nanoTime();
+        mThreadIds[mEventCount] = threadId;
+        mCookies[mEventCount] = cookie;
+        mEventCount++;
+    }
+
+    /**
+     * The events of a stopped recording, being exported.
+     */
+    private static final class Recording {
+        private final char[] mPhases;
+        private final String[] mNames;
+        private final long[] mTimestamps;
+        private final int[] mThreadIds;
+        private final int[] mCookies;
+        private final int mEventCount;
+        private final int mDroppedEvents;
+        private final SparseArray<String> mThreadNames;
+
+        Recording(char[] phases, String[] names, long[] timestamps, int[] threadIds,
+                  int[] cookies, int eventCount, int droppedEvents,
+                  SparseArray<String> threadNames) {
+            mPhases = phases;
+            mNames = names;
+            mTimestamps = timestamps;
+            mThreadIds = threadIds;
+            mCookies = cookies;
+            mEventCount = eventCount;
+            mDroppedEvents = droppedEvents;
+            mThreadNames = threadNames;
+        }
+
+        /**
+         * Writes the recording to the given file.
+         *
+         * @param file  the file to write.
+         * @return      true if the file was written, false otherwise.
+         */
+        boolean exportTo(File file) {
+            if (mPhases == null) {
+                // stopped without having been started.
+                return false;
+            }
+            Writer writer = null;
+            try {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                        UTF_8));
+                export(writer);
+                Log.i(TAG, "Exported " + mEventCount + " events (" + mDroppedEvents +
+                        " dropped) to " + file.getPath());
+                return true;
+            } catch (IOException e) {
+                Log.e(TAG, "Unable to export the recording", e);
+                return false;
+            } finally {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes the recorded events in the Chrome trace-event format, with timestamps in
+         * microseconds.
+         */
+        private void export(Writer writer) throws IOException {
+            int processId = Process.myPid();
+            writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            boolean first = true;
+            for (int i = 0; i < mThreadNames.size(); i++) {
+                if (!first) {
+                    writer.write(",\n");
+                }
+                first = false;
+                writer.write("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":" + processId +
+                        ",\"tid\":" + mThreadNames.keyAt(i) + ",\"args\":{\"name\":");
+                writeString(writer, mThreadNames.valueAt(i));
+                writer.write("}}");
+            }
+            for (int i = 0; i < mEventCount; i++) {
+                if (!first) {
+                    writer.write(",\n");
+                }
+                first = false;
+                writer.write("{\"ph\":\"" + mPhases[i] + "\",\"ts\":" + (mTimestamps[i] / 1000) +
+                        ",\"pid\":" + processId + ",\"tid\":" + mThreadIds[i]);
+                if (mNames[i] != null) {
+                    writer.write(",\"name\":");
+                    writeString(writer, mNames[i]);
+                }
+                if (mPhases[i] == PHASE_ASYNC_BEGIN || mPhases[i] == PHASE_ASYNC_END) {
+                    writer.write(",\"cat\":\"async\",\"id\":" + mCookies[i]);
+                }
+                writer.write('}');
+            }
+            writer.write("\n]}\n");
+        }
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    private static String truncate(String name) {
+        return (name.length() <= MAX_SECTION_NAME_LENGTH) ? name :
+                name.substring(0, MAX_SECTION_NAME_LENGTH);
+    }
+}
@@ -0,0 +1,61 @@
+package com.pocketprofit.source.portfolio;
+
+/**
+ * Sells shares of a stock "first in, first out" (FIFO): the user's longest-held shares (lots) are
+ * sold first. Works on a lot at a time rather than a share at a time, so selling a million shares
+ * costs as much as selling one per lot. Amounts are in micros (see Money).
+ * Plain Java with no Android dependencies, so it can be benchmarked on the JVM.
+ */
+public final class FifoLiquidation {
+    // the value of the shares sold, and how much of their value was gained/lost today.
+    private long mAmountSold;
+    private long mAmountChangedToday;
+
+    private FifoLiquidation() {
+    }
+
+    /**
+     * Sells the given number of shares out of the given lots, oldest lot first. The quantities of
+     * the lots are updated in place, lots that are sold completely are left with a quantity of 0.
+     * The gain/loss of today of a share bought today is measured from its purchase price, the
+     * gain/loss of any other share from the previous close.
+     * pre-condition: the lots hold at least sharesToSell shares.
+     *
+     * @param quantities    the number of shares of every lot, oldest first.
+     * @param currentPrices the current price of every lot.
+     * @param pricesPaid    the price paid per share of every lot.
+     * @param boughtToday   whether every lot was bought today.
+     * @param previousClose the previous close price.
+     * @param sharesToSell  the number of shares to sell.
+     * @return              the value of the shares sold and how much of it was gained today.
+     */
+    public static FifoLiquidation liquidate(int[] quantities, long[] currentPrices,
+                                            long[] pricesPaid, boolean[] boughtToday,
+                                            long previousClose, int sharesToSell) {
+        FifoLiquidation result = new FifoLiquidation();
+        for (int i = 0; i < quantities.length && sharesToSell > 0; i++) {
+            int sold = Math.min(quantities[i], sharesToSell);
+            long basis = boughtToday[i] ? pricesPaid[i] : previousClose;
+            result.mAmountSold += currentPrices[i] * sold;
+            result.mAmountChangedToday += (currentPrices[i] - basis) * sold;
+            quantities[i] -= sold;
+            sharesToSell -= sold;
+        }
+        return result;
+    }
+
+    /**
+     * @return  the value of the shares sold, in micros.
+     */
+    public long getAmountSold() {
+        return mAmountSold;
+    }
+
+    /**
+     * @return  how much the value of the shares sold changed in the most recent trading day, in
+     *          micros.
+     */
+    public long getAmountChangedToday() {
+        return mAmountChangedToday;
+    }
+}
@@ -0,0 +1,46 @@
+package com.pocketprofit.source.portfolio;
+
+/**
+ * The math behind the portfolio values displayed on the main page. Amounts are in micros (see
+ * Money), so sums are exact.
+ * Plain Java with no Android dependencies, so it can be benchmarked on the JVM.
+ */
+public final class PortfolioMath {
+
+    private PortfolioMath() {
+    }
+
+    /**
+     * Returns how much a holding has gained/lost in value in the most recent trading day.
+     * Shares bought today gained/lost from their purchase price, shares bought before today
+     * gained/lost from the previous close.
+     *
+     * @param latestPrice           the latest price of the stock.
+     * @param previousClose         the previous close price of the stock.
+     * @param sharesOwned           the number of shares owned.
+     * @param sharesBoughtToday     the number of the shares owned that were bought today.
+     * @param costOfSharesBoughtToday   the total price paid for the shares bought today.
+     * @return                      the gain/loss of the holding today.
+     */
+    public static long todaysStockProfit(long latestPrice, long previousClose, int sharesOwned,
+                                         int sharesBoughtToday, long costOfSharesBoughtToday) {
+        long profitOfSharesBoughtToday = latestPrice * sharesBoughtToday - costOfSharesBoughtToday;
+        int sharesOwnedPriorToToday = sharesOwned - sharesBoughtToday;
+        return profitOfSharesBoughtToday + sharesOwnedPriorToToday * (latestPrice - previousClose);
+    }
+
+    /**
+     * Returns the total market value of the given holdings.
+     *
+     * @param quantities    the number of shares of every holding.
+     * @param prices        the current price of every holding.
+     * @return              the total market value.
+     */
+    public static long totalEquity(int[] quantities, long[] prices) {
+        long equity = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            equity += prices[i] * quantities[i];
+        }
+        return equity;
+    }
+}
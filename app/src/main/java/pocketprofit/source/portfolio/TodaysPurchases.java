@@ -0,0 +1,48 @@
+package com.pocketprofit.source.portfolio;
+
+import com.pocketprofit.source.database.DatabaseTables.Stock;
+
+/**
+ * The number of shares of a stock bought today and the total price paid for them, in micros (see
+ * Money). Summed up by the database over the lots bought today rather than read a share at a time.
+ * Plain Java with no Android dependencies, so it can be benchmarked on the JVM.
+ */
+public final class TodaysPurchases {
+    private final int mShares;
+    private final long mCost;
+
+    public TodaysPurchases(int shares, long cost) {
+        mShares = shares;
+        mCost = cost;
+    }
+
+    /**
+     * Returns the query summing up the lots of the given stock bought on the given date. Its
+     * first column is the number of shares, its second one the total price paid, both NULL if no
+     * lot was bought on the date.
+     *
+     * @param symbol    the security ticker symbol.
+     * @param date      the date the lots were bought on.
+     * @return          the query.
+     */
+    public static String query(String symbol, String date) {
+        /*
+        SELECT SUM(Stock.COLUMN_QUANTITY), SUM(Stock.COLUMN_QUANTITY * Stock.COLUMN_PRICE_PAID)
+        FROM Stock.TABLE_NAME
+        WHERE Stock.COLUMN_SYMBOL = 'symbol' AND Stock.COLUMN_DATE = 'date';
+         */
+        return "SELECT SUM(" + Stock.COLUMN_QUANTITY + "), " +
+                "SUM(" + Stock.COLUMN_QUANTITY + " * " + Stock.COLUMN_PRICE_PAID + ") " +
+                "FROM " + Stock.TABLE_NAME + " " +
+                "WHERE " + Stock.COLUMN_SYMBOL + " = '" + symbol + "' " +
+                "AND " + Stock.COLUMN_DATE + " = '" + date + "';";
+    }
+
+    public int getShares() {
+        return mShares;
+    }
+
+    public long getCost() {
+        return mCost;
+    }
+}
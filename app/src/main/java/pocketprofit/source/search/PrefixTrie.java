@@ -0,0 +1,103 @@
+package com.pocketprofit.source.search;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Queue;
+
+/**
+ * Character trie mapping string keys to the int ids of the values they belong to.
+ * Children of a node are kept in sorted arrays (rather than maps) to keep the memory footprint
+ * of a trie holding the entire symbol universe small.
+ */
+final class PrefixTrie {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_IDS = new int[0];
+
+    private static final class Node {
+        private char[] mKeys = NO_KEYS;
+        private Node[] mChildren = NO_CHILDREN;
+        private int[] mIds = NO_IDS;
+        private int mIdCount;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(mKeys, key);
+            return index >= 0 ? mChildren[index] : null;
+        }
+
+        private Node getOrAddChild(char key) {
+            int index = Arrays.binarySearch(mKeys, key);
+            if (index >= 0) {
+                return mChildren[index];
+            }
+            index = -(index + 1);
+            char[] keys = new char[mKeys.length + 1];
+            Node[] children = new Node[mChildren.length + 1];
+            System.arraycopy(mKeys, 0, keys, 0, index);
+            System.arraycopy(mChildren, 0, children, 0, index);
+            System.arraycopy(mKeys, index, keys, index + 1, mKeys.length - index);
+            System.arraycopy(mChildren, index, children, index + 1, mChildren.length - index);
+            keys[index] = key;
+            children[index] = new Node();
+            mKeys = keys;
+            mChildren = children;
+            return children[index];
+        }
+
+        private void addId(int id) {
+            if (mIdCount == mIds.length) {
+                mIds = Arrays.copyOf(mIds, Math.max(2, mIdCount * 2));
+            }
+            mIds[mIdCount++] = id;
+        }
+    }
+
+    private final Node mRoot = new Node();
+
+    /**
+     * Associates the given id with the given key.
+     *
+     * @param key   the key, expected to be in lowercase.
+     * @param id    the id of the value the key belongs to.
+     */
+    void insert(String key, int id) {
+        Node node = mRoot;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.getOrAddChild(key.charAt(i));
+        }
+        node.addId(id);
+    }
+
+    /**
+     * Adds the ids of all keys starting with the given prefix to the given collection, until the
+     * collection holds the given number of ids. Shorter keys are visited before longer ones, so an
+     * exact match of the prefix always comes first.
+     *
+     * @param prefix    the prefix, expected to be in lowercase.
+     * @param limit     the maximum number of ids the collection should hold.
+     * @param out       the collection the ids are added to.
+     */
+    void collect(String prefix, int limit, Collection<Integer> out) {
+        Node node = mRoot;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return;
+        }
+        // breadth first, so results are ordered by key length and then alphabetically.
+        Queue<Node> queue = new ArrayDeque<Node>();
+        queue.add(node);
+        while (!queue.isEmpty()) {
+            Node current = queue.remove();
+            for (int i = 0; i < current.mIdCount; i++) {
+                if (out.size() >= limit) {
+                    return;
+                }
+                out.add(current.mIds[i]);
+            }
+            queue.addAll(Arrays.asList(current.mChildren));
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.pocketprofit.source.search;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.pocketprofit.source.ErrorCallback;
+import com.pocketprofit.source.StringCallback;
+import com.pocketprofit.source.Util;
+import com.pocketprofit.source.entries.SearchResultEntry;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Every security that can be traded on PocketProfit, stored on the device so that search queries
+ * can be answered locally (and offline) without a round trip to the PocketProfit server.
+ * Symbols are indexed by a prefix trie and names by a sorted index of their words, the universe
+ * itself is kept up to date by periodically downloading the changes made since the last refresh.
+ */
+public final class SymbolUniverse {
+    public static final String TAG = "SymbolUniverse";
+
+    private static final String FILE_NAME = "symbols.bin";
+
+    // bumped whenever the on-disk format of the universe changes, stale formats are ignored.
+    private static final int FORMAT_VERSION = 1;
+
+    // how often (in milliseconds) the changes made to the universe are downloaded.
+    private static final long REFRESH_INTERVAL = 24 * 60 * 60 * 1000;
+
+    private static SymbolUniverse mInstance = null;
+
+    private final File mFile;
+
+    // loading, refreshing and indexing the universe is done on this thread.
+    private final ExecutorService mWorker;
+
+    private final Handler mMainHandler;
+
+    // the following are only accessed on the worker thread.
+    private Map<String, String> mSecurities;
+    private long mVersion;
+    private long mRefreshedAt;
+    private boolean mRefreshing;
+
+    // replaced as a whole once the universe changes, so it can be searched from the UI thread.
+    private volatile Index mIndex;
+
+    /**
+     * Immutable search index over a snapshot of the universe. Securities are referred to by their
+     * position in the symbol and name arrays.
+     */
+    private static final class Index {
+        private final String[] mSymbols;
+        private final String[] mNames;
+
+        private final PrefixTrie mSymbolTrie;
+
+        // every distinct word found in the names in sorted order, along with the securities
+        // whose name contains that word.
+        private final String[] mNameTokens;
+        private final int[][] mNamePostings;
+
+        private Index(Map<String, String> securities) {
+            int size = securities.size();
+            mSymbols = new String[size];
+            mNames = new String[size];
+            mSymbolTrie = new PrefixTrie();
+            TreeMap<String, List<Integer>> tokens = new TreeMap<String, List<Integer>>();
+            int id = 0;
+            for (Map.Entry<String, String> security : securities.entrySet()) {
+                mSymbols[id] = security.getKey();
+                mNames[id] = security.getValue();
+                mSymbolTrie.insert(security.getKey().toLowerCase(), id);
+                for (String token : tokenize(security.getValue())) {
+                    List<Integer> posting = tokens.get(token);
+                    if (posting == null) {
+                        posting = new ArrayList<Integer>();
+                        tokens.put(token, posting);
+                    }
+                    if (posting.isEmpty() || posting.get(posting.size() - 1) != id) {
+                        posting.add(id);
+                    }
+                }
+                id++;
+            }
+            mNameTokens = tokens.keySet().toArray(new String[0]);
+            mNamePostings = new int[mNameTokens.length][];
+            int index = 0;
+            for (List<Integer> posting : tokens.values()) {
+                mNamePostings[index] = new int[posting.size()];
+                for (int i = 0; i < posting.size(); i++) {
+                    mNamePostings[index][i] = posting.get(i);
+                }
+                index++;
+            }
+        }
+
+        /**
+         * Adds the ids of the securities with a name containing a word that starts with the given
+         * prefix, until the given set holds the given number of ids.
+         */
+        private void collectNameMatches(String prefix, int limit, Set<Integer> out) {
+            int index = Arrays.binarySearch(mNameTokens, prefix);
+            if (index < 0) {
+                index = -(index + 1);
+            }
+            for (; index < mNameTokens.length && mNameTokens[index].startsWith(prefix); index++) {
+                for (int id : mNamePostings[index]) {
+                    if (out.size() >= limit) {
+                        return;
+                    }
+                    out.add(id);
+                }
+            }
+        }
+
+        private boolean nameMatchesAll(int id, String[] prefixes) {
+            List<String> words = Arrays.asList(tokenize(mNames[id]));
+            for (String prefix : prefixes) {
+                boolean found = false;
+                for (String word : words) {
+                    if (word.startsWith(prefix)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public static synchronized SymbolUniverse getInstance(Context context) {
+        // Using context.getApplicationContext(), which will ensure that I don't
+        // accidentally leak an Activity's context.
+        if (mInstance == null) {
+            mInstance = new SymbolUniverse(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private SymbolUniverse(Context context) {
+        mFile = new File(context.getFilesDir(), FILE_NAME);
+        mWorker = Executors.newSingleThreadExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mWorker.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    /**
+     * Returns the securities matching the given query. Securities with a symbol starting with the
+     * query come first, followed by securities with a name containing words starting with every
+     * word of the query.
+     * Returns null if the universe has not been downloaded yet, in which case the query should
+     * be sent to the PocketProfit server instead.
+     *
+     * @param query the query that the user has made.
+     * @param limit the maximum number of results.
+     * @return      the securities matching the query, or null if the universe is unavailable.
+     */
+    public List<SearchResultEntry> search(String query, int limit) {
+        Index index = mIndex;
+        if (index == null) {
+            return null;
+        }
+        List<SearchResultEntry> results = new ArrayList<SearchResultEntry>();
+        String symbolQuery = query.trim().toLowerCase();
+        String[] nameQuery = tokenize(query);
+        if (symbolQuery.isEmpty() || nameQuery.length == 0) {
+            return results;
+        }
+
+        Set<Integer> ids = new LinkedHashSet<Integer>();
+        index.mSymbolTrie.collect(symbolQuery, limit, ids);
+        if (nameQuery.length == 1) {
+            index.collectNameMatches(nameQuery[0], limit, ids);
+        } else if (ids.size() < limit) {
+            // candidates are gathered using the first word and narrowed down by the others.
+            Set<Integer> candidates = new LinkedHashSet<Integer>();
+            index.collectNameMatches(nameQuery[0], Integer.MAX_VALUE, candidates);
+            for (int id : candidates) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                if (index.nameMatchesAll(id, nameQuery)) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        for (int id : ids) {
+            results.add(new SearchResultEntry(index.mSymbols[id], index.mNames[id]));
+        }
+        return results;
+    }
+
+    /**
+     * Downloads the changes made to the universe since it was last refreshed, if that was longer
+     * than a day ago. The entire universe is downloaded if it is not stored on the device yet.
+     *
+     * @param context   the context of the activity.
+     */
+    public void refreshIfStale(final Context context) {
+        mWorker.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (mRefreshing ||
+                        System.currentTimeMillis() - mRefreshedAt < REFRESH_INTERVAL) {
+                    return;
+                }
+                mRefreshing = true;
+                final long since = mVersion;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        Util.fetchSymbolUniverse(context, since, new StringCallback() {
+                            @Override
+                            public void onSuccess(final String result) {
+                                mWorker.execute(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        applyChanges(result);
+                                    }
+                                });
+                            }
+                        }, new ErrorCallback() {
+                            @Override
+                            public void onError() {
+                                // lets the next refreshIfStale(...) try again.
+                                mWorker.execute(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        mRefreshing = false;
+                                    }
+                                });
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Applies the changes downloaded from the PocketProfit server to the universe. The response
+     * holds the version of the universe after the changes, the securities that were added (or
+     * changed) and the symbols of the securities that were removed.
+     * Runs on the worker thread.
+     */
+    private void applyChanges(String response) {
+        mRefreshing = false;
+        try {
+            JSONObject result = new JSONObject(response);
+            long version = result.getLong("version");
+            if (version <= mVersion) {
+                // the universe is up to date already. the refresh time is stored as well, so that
+                // the next session doesn't download the changes again.
+                mRefreshedAt = System.currentTimeMillis();
+                save();
+                return;
+            }
+            Map<String, String> securities = new TreeMap<String, String>(mSecurities);
+            JSONArray added = result.getJSONArray("added");
+            for (int i = 0; i < added.length(); i++) {
+                JSONObject security = added.getJSONObject(i);
+                String symbol = security.getString("symbol");
+                String name = security.getString("securityName");
+                if (Util.isSupportedSecurity(symbol, name, security.getString("exchange"),
+                        security.getString("securityType"))) {
+                    securities.put(symbol, name);
+                } else {
+                    securities.remove(symbol);
+                }
+            }
+            JSONArray removed = result.getJSONArray("removed");
+            for (int i = 0; i < removed.length(); i++) {
+                securities.remove(removed.getString(i));
+            }
+
+            mSecurities = securities;
+            mVersion = version;
+            mRefreshedAt = System.currentTimeMillis();
+            mIndex = new Index(mSecurities);
+            save();
+        } catch (JSONException e) {
+            Log.e(TAG, "Unable to apply changes to the symbol universe");
+        }
+    }
+
+    /**
+     * Reads the universe stored on the device and indexes it. Runs on the worker thread.
+     */
+    private void load() {
+        mSecurities = new TreeMap<String, String>();
+        if (!mFile.exists()) {
+            return;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            long version = in.readLong();
+            long refreshedAt = in.readLong();
+            int count = in.readInt();
+            Map<String, String> securities = new TreeMap<String, String>();
+            for (int i = 0; i < count; i++) {
+                securities.put(in.readUTF(), in.readUTF());
+            }
+            mSecurities = securities;
+            mVersion = version;
+            mRefreshedAt = refreshedAt;
+            mIndex = new Index(mSecurities);
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to read the stored symbol universe");
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Stores the universe on the device. Runs on the worker thread.
+     */
+    private void save() {
+        // written to a temporary file first so that a crash mid-write never leaves a corrupt
+        // universe behind.
+        File temp = new File(mFile.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(mVersion);
+            out.writeLong(mRefreshedAt);
+            out.writeInt(mSecurities.size());
+            for (Map.Entry<String, String> security : mSecurities.entrySet()) {
+                out.writeUTF(security.getKey());
+                out.writeUTF(security.getValue());
+            }
+            out.close();
+            out = null;
+            if (!temp.renameTo(mFile)) {
+                Log.e(TAG, "Unable to store the symbol universe");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to store the symbol universe");
+        } finally {
+            closeQuietly(out);
+            temp.delete();
+        }
+    }
+
+    /**
+     * Splits the given text into its lowercase words.
+     */
+    private static String[] tokenize(String text) {
+        String normalized = text.toLowerCase().replaceAll("[^a-z0-9]+", " ").trim();
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // nothing to do here.
+            }
+        }
+    }
+}
@@ -23,9 +23,14 @@ public class ChartData {
     private final int mChartRangeColor;
     private final int mValidEntriesRegistered;
     private String mChartRangeText;
+    // the prices and volume of every entry of mList, in the same order.
+    private final OhlcvBars mBars;
+    // technical indicators over the closes, computed the first time they are displayed.
+    private Indicators mIndicators;
 
-    public ChartData(List<ChartDataFragment> list, double min, double max, int chartRangeColor, int validEntriesRegistered, String chartRangeText) {
+    public ChartData(List<ChartDataFragment> list, OhlcvBars bars, double min, double max, int chartRangeColor, int validEntriesRegistered, String chartRangeText) {
         this.mList = list;
+        this.mBars = bars;
         this.mMin = (float) min;
         this.mMax = (float) max;
         this.mChartRangeColor = chartRangeColor;
@@ -61,6 +66,37 @@ public class ChartData {
         return mChartRangeColor;
     }
 
+    /**
+     * Returns the technical indicators over the closes of the chart data, which are computed the
+     * first time they are needed.
+     *
+     * @return  the indicators of the chart data.
+     */
+    public Indicators getIndicators() {
+        if (mIndicators == null) {
+            mIndicators = Indicators.compute(mBars);
+        }
+        return mIndicators;
+    }
+
+    /**
+     * Takes over the indicators of the given chart data, which is a previous version of this chart
+     * data (e.g. before the intraday chart data was revalidated). If this chart data only adds new
+     * entries to it, only the new entries are added to the indicators.
+     *
+     * @param previous  the previous chart data of the same range.
+     */
+    public void inheritIndicators(ChartData previous) {
+        Indicators indicators = previous.mIndicators;
+        if (indicators != null && indicators.extend(mBars)) {
+            mIndicators = indicators;
+        }
+    }
+
+    public OhlcvBars getBars() {
+        return mBars;
+    }
+
     public int size() {
         return (mList == null) ? 0 : mList.size();
     }
@@ -0,0 +1,113 @@
+package com.pocketprofit.source.stockchart;
+
+import java.text.DateFormatSymbols;
+
+/**
+ * Builds the labels displayed above the chart for the entries of a chart range.
+ * Plain Java with no Android dependencies, so it can be benchmarked on the JVM.
+ */
+public final class ChartLabels {
+    // abbreviated month names, looked up once rather than once per chart entry.
+    private static final String[] MONTHS = new String[12];
+
+    static {
+        String[] months = new DateFormatSymbols().getMonths();
+        for (int i = 0; i < MONTHS.length; i++) {
+            MONTHS[i] = months[i].substring(0, 3);
+        }
+    }
+
+    private ChartLabels() {
+    }
+
+    /**
+     * Converts a date of the PocketProfit server to the date format displayed on the chart.
+     * ex. '2020-09-08' -> 'Sep 8th, 2020'
+     *
+     * @param date  the date in the form yyyy-mm-dd.
+     * @return      the date displayed on the chart.
+     */
+    public static String formatDate(String date) {
+        String[] splitDate = date.split("-");
+        String year = splitDate[0];
+        String month = MONTHS[Integer.parseInt(splitDate[1]) - 1];
+        String day = splitDate[2];
+        if (day.charAt(0) == '0') {
+            day = day.substring(1);
+        }
+        return month + " " + day + getDayOfMonthSuffix(Integer.parseInt(day)) + ", " + year;
+    }
+
+    /**
+     * Converts a time label of the PocketProfit server to the time format displayed on the chart.
+     * ex. '09 AM' -> '9:00 AM'
+     *
+     * @param label the time label.
+     * @return      the time displayed on the chart.
+     */
+    public static String formatTime(String label) {
+        if (label.startsWith("0")) {
+            label = label.substring(1);
+        }
+        if (!label.contains(":")) {
+            label = label.substring(0, label.indexOf(' ')) + ":00 " + label.substring(label.indexOf(' ') + 1);
+        }
+        return label;
+    }
+
+    /**
+     * pre-condition: dayOfMonth >= 1 && dayOfMonth <= 31
+     * Uses the given day of month value to determine and return the associated suffix ('st', 'nd',
+     * 'rd', 'th').
+     *
+     * @param dayOfMonth    the day of month value.
+     * @return              the suffix associated with the parameter given.
+     */
+    public static String getDayOfMonthSuffix(int dayOfMonth) {
+        if (dayOfMonth >= 11 && dayOfMonth <= 13) {
+            return "th";
+        }
+        switch (dayOfMonth % 10) {
+            case 1:
+                return "st";
+            case 2:
+                return "nd";
+            case 3:
+                return "rd";
+            default:
+                return "th";
+        }
+    }
+
+    /**
+     * Converts military time to standard time and returns it.
+     *
+     * @param time  the military time text.
+     * @return      the result of converting the military time to standard time.
+     */
+    public static String convertMilitaryToStandard(String time) {
+        if (time == null) {
+            return time;
+        }
+        String[] split = time.split(":");
+        String hour = split[0];
+        String minutes = split[1];
+        String meridian = "AM";
+
+        if (hour.substring(0,2).equals("00")) {
+            hour = "12";
+        } else if (hour.substring(0,1).equals("1") || hour.substring(0,1).equals("2")) {
+            meridian = "PM";
+            Integer militaryHour = Integer.parseInt(hour);
+            Integer convertedHour = null;
+
+            if (militaryHour > 12) {
+                convertedHour = (militaryHour - 12);
+
+                hour = String.valueOf(convertedHour);
+            }
+        }
+        time = hour + ":" + minutes + " " + meridian;
+        return time;
+    }
+}
@@ -0,0 +1,119 @@
+package com.pocketprofit.source.stockchart;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the chart data of a range sent by the PocketProfit server into chart entries, along
+ * with the range of prices and the number of entries that have a price.
+ * Plain Java with no Android dependencies, so it can be benchmarked on the JVM.
+ */
+public final class ChartParser {
+
+    /**
+     * The parsed entries of a chart range. Entries without a price are null.
+     */
+    public static final class Result {
+        private final List<ChartDataFragment> mList;
+        private final OhlcvBars mBars;
+        private final double mMin;
+        private final double mMax;
+        private final int mValidEntries;
+
+        Result(List<ChartDataFragment> list, OhlcvBars bars, double min, double max,
+               int validEntries) {
+            mList = list;
+            mBars = bars;
+            mMin = min;
+            mMax = max;
+            mValidEntries = validEntries;
+        }
+
+        public List<ChartDataFragment> getList() {
+            return mList;
+        }
+
+        /**
+         * @return  the prices and volume of every entry, in the same order as getList().
+         */
+        public OhlcvBars getBars() {
+            return mBars;
+        }
+
+        public double getMin() {
+            return mMin;
+        }
+
+        public double getMax() {
+            return mMax;
+        }
+
+        public int getValidEntries() {
+            return mValidEntries;
+        }
+    }
+
+    private ChartParser() {
+    }
+
+    /**
+     * Parses the given chart data of the given range.
+     *
+     * @param range         the chart range the JSON data describes.
+     * @param previousClose the previous close price, which bounds the prices of the 1D range.
+     * @param result        the JSON data sent back from a call to the PocketProfit server.
+     * @return              the parsed chart data.
+     */
+    public static Result parse(String range, double previousClose, JSONArray result) {
+        boolean intraday = range.equals("1D");
+        boolean fiveDay = range.equals("5D");
+        List<ChartDataFragment> parsedResult = new ArrayList<>(result.length());
+        OhlcvBars bars = OhlcvBars.allocate(result.length());
+        // valid entries in a ChartData are entries whose "close" field is not null.
+        // this means that they have a value and therefore able to be shown in a graph.
+        int validEntries = 0;
+        double min = intraday ? previousClose : Double.MAX_VALUE;
+        double max = intraday ? previousClose : Double.MIN_VALUE;
+        String column = intraday ? "label" : "date";
+
+        for (int i = 0; i < result.length(); i++) {
+            try {
+                JSONObject jsonObject = result.getJSONObject(i);
+                if (jsonObject.isNull("close")) {
+                    bars.setEmpty(parsedResult.size());
+                    parsedResult.add(null);
+                } else {
+                    validEntries++;
+                    double close = jsonObject.getDouble("close");
+                    String label = jsonObject.getString(column);
+
+                    if (close < min) {
+                        min = close;
+                    }
+                    if (close > max) {
+                        max = close;
+                    }
+
+                    label = intraday ? ChartLabels.formatTime(label) : ChartLabels.formatDate(label);
+                    if (fiveDay) {
+                        String minute = jsonObject.getString("minute");
+                        label += " at " + ChartLabels.convertMilitaryToStandard(minute);
+                    }
+
+                    bars.set(parsedResult.size(), jsonObject.optDouble("open", close),
+                            jsonObject.optDouble("high", close), jsonObject.optDouble("low", close),
+                            close, jsonObject.optLong("volume", 0));
+                    parsedResult.add(new ChartDataFragment(close, label));
+                }
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+        }
+        return new Result(parsedResult, bars.slice(0, parsedResult.size()), min, max,
+                validEntries);
+    }
+}
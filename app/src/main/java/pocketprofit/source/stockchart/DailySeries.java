@@ -0,0 +1,184 @@
+package com.pocketprofit.source.stockchart;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The daily closes of a security over the last five years, from which every daily chart range
+ * (1M, 6M, 1Y and 5Y) is derived, so that all of them cost a single request to the PocketProfit
+ * server. Dates and closes are kept as primitives, and the entries of a range are a view of the
+ * entries of the series (nothing is copied when a range is derived).
+ * Plain Java with no Android dependencies, so it can be benchmarked on the JVM.
+ */
+public final class DailySeries {
+    public static final String ONE_MONTH = "1M";
+    public static final String SIX_MONTHS = "6M";
+    public static final String ONE_YEAR = "1Y";
+    public static final String FIVE_YEARS = "5Y";
+
+    // the ranges derived from the series, the series itself is the five year range.
+    public static final List<String> RANGES = Collections.unmodifiableList(
+            Arrays.asList(ONE_MONTH, SIX_MONTHS, ONE_YEAR, FIVE_YEARS));
+
+    // date of every entry as yyyymmdd, in ascending order.
+    private final int[] mDates;
+    // prices and volume of every entry, empty for entries without a close.
+    private final OhlcvBars mBars;
+    // chart entry of every entry, null for entries without a close.
+    private final List<ChartDataFragment> mEntries;
+
+    private DailySeries(int[] dates, OhlcvBars bars, List<ChartDataFragment> entries) {
+        mDates = dates;
+        mBars = bars;
+        mEntries = entries;
+    }
+
+    /**
+     * Parses the five year chart data sent by the PocketProfit server.
+     *
+     * @param result    the JSON data sent back from a call to the PocketProfit server.
+     * @return          the daily series.
+     */
+    public static DailySeries parse(JSONArray result) {
+        int length = result.length();
+        int[] dates = new int[length];
+        OhlcvBars bars = OhlcvBars.allocate(length);
+        List<ChartDataFragment> entries = new ArrayList<ChartDataFragment>(length);
+        int previousDate = 0;
+        for (int i = 0; i < length; i++) {
+            ChartDataFragment entry = null;
+            bars.setEmpty(i);
+            int date = previousDate;
+            try {
+                JSONObject jsonObject = result.getJSONObject(i);
+                String label = jsonObject.optString("date", null);
+                if (label != null) {
+                    date = toDate(label);
+                }
+                if (label != null && !jsonObject.isNull("close")) {
+                    double close = jsonObject.getDouble("close");
+                    entry = new ChartDataFragment(close, ChartLabels.formatDate(label));
+                    bars.set(i, jsonObject.optDouble("open", close),
+                            jsonObject.optDouble("high", close), jsonObject.optDouble("low", close),
+                            close, jsonObject.optLong("volume", 0));
+                }
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+            dates[i] = date;
+            entries.add(entry);
+            previousDate = date;
+        }
+        return new DailySeries(dates, bars, entries);
+    }
+
+    public int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * Derives the given range from the series: the entries from the same date one month (1M),
+     * six months (6M), a year (1Y) or five years (5Y) before the most recent entry.
+     *
+     * @param range one of RANGES.
+     * @return      the entries of the range, with their range of prices.
+     */
+    public ChartParser.Result getRange(String range) {
+        int start = 0;
+        if (!mEntries.isEmpty() && !range.equals(FIVE_YEARS)) {
+            start = firstIndexOnOrAfter(monthsBefore(mDates[mDates.length - 1], getMonths(range)));
+        }
+        int end = mEntries.size();
+        double min = Double.MAX_VALUE;
+        double max = Double.MIN_VALUE;
+        int validEntries = 0;
+        for (int i = start; i < end; i++) {
+            double close = mBars.getClose(i);
+            if (!Double.isNaN(close)) {
+                validEntries++;
+                if (close < min) {
+                    min = close;
+                }
+                if (close > max) {
+                    max = close;
+                }
+            }
+        }
+        return new ChartParser.Result(mEntries.subList(start, end), mBars.slice(start, end), min,
+                max, validEntries);
+    }
+
+    private static int getMonths(String range) {
+        switch (range) {
+            case ONE_MONTH:
+                return 1;
+            case SIX_MONTHS:
+                return 6;
+            case ONE_YEAR:
+                return 12;
+            case FIVE_YEARS:
+                return 60;
+            default:
+                throw new IllegalArgumentException("Not a daily range: " + range);
+        }
+    }
+
+    /**
+     * @return  the index of the first entry dated on or after the given date.
+     */
+    private int firstIndexOnOrAfter(int date) {
+        int index = Arrays.binarySearch(mDates, date);
+        if (index < 0) {
+            return -(index + 1);
+        }
+        // several entries may share a date, the first of them is wanted.
+        while (index > 0 && mDates[index - 1] == date) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the given date (yyyymmdd) moved back by the given number of months, the day is
+     * clamped to the length of the resulting month (e.g. Mar 31st -> Feb 29th).
+     */
+    static int monthsBefore(int date, int months) {
+        int year = date / 10000;
+        int month = (date / 100) % 100;
+        int day = date % 100;
+        int monthIndex = year * 12 + (month - 1) - months;
+        year = monthIndex / 12;
+        month = monthIndex % 12 + 1;
+        return year * 10000 + month * 100 + Math.min(day, daysInMonth(year, month));
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leapYear ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Converts a date of the form yyyy-mm-dd to yyyymmdd.
+     */
+    private static int toDate(String date) {
+        return Integer.parseInt(date.substring(0, 4)) * 10000 +
+                Integer.parseInt(date.substring(5, 7)) * 100 +
+                Integer.parseInt(date.substring(8, 10));
+    }
+}
@@ -0,0 +1,347 @@
+package com.pocketprofit.source.stockchart;
+
+import java.util.Arrays;
+
+/**
+ * Technical indicators over the closes of a chart range: the simple and exponential moving
+ * averages, the Bollinger bands, the relative strength index and the volume weighted average
+ * price. Every indicator is updated in constant time per close, so computing them for a range is
+ * a single pass over its closes and a new intraday bar only costs that bar. The state from before
+ * the latest close is kept, so that the latest bar can be replaced while it is still forming
+ * (e.g. the current minute of the intraday chart).
+ * Entries without a close are skipped, the indicators are NaN at those entries and until enough
+ * closes have been seen (e.g. the first 19 closes of the 20 close moving average).
+ * Plain Java with no Android dependencies, so it can be benchmarked on the JVM.
+ */
+public final class Indicators {
+    // the indicators, as flags so that a set of them can be given as an int.
+    public static final int SMA = 1;
+    public static final int EMA = 1 << 1;
+    public static final int BOLLINGER = 1 << 2;
+    public static final int RSI = 1 << 3;
+    public static final int VWAP = 1 << 4;
+
+    // the lines of the Bollinger bands, see get(int, int). their middle band is the SMA.
+    public static final int UPPER_BAND = 1 << 5;
+    public static final int LOWER_BAND = 1 << 6;
+
+    // number of closes the moving averages and the Bollinger bands are computed over.
+    public static final int PERIOD = 20;
+    // width of the Bollinger bands, in standard deviations.
+    public static final double BOLLINGER_WIDTH = 2;
+    // number of closes the relative strength index is computed over.
+    public static final int RSI_PERIOD = 14;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // closes appended so far (NaN for entries without a close), and their volumes.
+    private double[] mCloses;
+    private double[] mVolumes;
+    private double[] mSma;
+    private double[] mEma;
+    private double[] mUpperBand;
+    private double[] mLowerBand;
+    private double[] mRsi;
+    private double[] mVwap;
+    private int mSize;
+
+    // the last PERIOD closes, with their sum and the sum of their squares.
+    private final double[] mWindow = new double[PERIOD];
+    private int mWindowCount;
+    private int mWindowIndex;
+    private double mWindowSum;
+    private double mWindowSumOfSquares;
+
+    // the exponential moving average, seeded with the simple average of the first PERIOD closes.
+    private double mEmaValue;
+    private int mEmaCount;
+
+    // Wilder's average gain and loss, seeded with the simple average of the first RSI_PERIOD
+    // changes.
+    private double mPreviousClose = Double.NaN;
+    private double mAverageGain;
+    private double mAverageLoss;
+    private int mChangeCount;
+
+    private double mPriceVolumeSum;
+    private double mVolumeSum;
+
+    // the state from before the latest close was appended, see save() and restore().
+    private int mSavedWindowIndex;
+    private double mSavedWindowValue;
+    private int mSavedWindowCount;
+    private double mSavedWindowSum;
+    private double mSavedWindowSumOfSquares;
+    private double mSavedEmaValue;
+    private int mSavedEmaCount;
+    private double mSavedPreviousClose;
+    private double mSavedAverageGain;
+    private double mSavedAverageLoss;
+    private int mSavedChangeCount;
+    private double mSavedPriceVolumeSum;
+    private double mSavedVolumeSum;
+
+    public Indicators() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Computes the indicators over the closes of the given bars.
+     *
+     * @param bars  the bars of a chart range.
+     * @return      the indicators.
+     */
+    public static Indicators compute(OhlcvBars bars) {
+        Indicators indicators = new Indicators();
+        indicators.allocate(Math.max(bars.size(), INITIAL_CAPACITY));
+        indicators.appendAll(bars, 0);
+        return indicators;
+    }
+
+    /**
+     * Updates the indicators with the bars given beyond the ones they were computed over (e.g.
+     * the intraday chart data has been revalidated and new minutes were added to it). The latest
+     * bar they were computed over is replaced if it has changed since, every earlier bar is
+     * assumed to be final. Only the first and the latest bar are compared, a range that has moved
+     * on (e.g. 1M once a new day has been added) starts at a different bar.
+     *
+     * @param bars  the bars of a chart range.
+     * @return      true if the indicators were updated, false if they have to be computed over
+     *              the given bars from scratch.
+     */
+    public boolean extend(OhlcvBars bars) {
+        if (mSize == 0 || bars.size() < mSize || !isAppended(bars, 0)) {
+            return false;
+        }
+        if (!isAppended(bars, mSize - 1)) {
+            if (mSize == 1) {
+                return false;
+            }
+            restore();
+            mSize--;
+        }
+        appendAll(bars, mSize);
+        return true;
+    }
+
+    /**
+     * @return  true if the close and the volume of the given bar are the ones appended at its
+     *          index.
+     */
+    private boolean isAppended(OhlcvBars bars, int i) {
+        double close = bars.getClose(i);
+        return Double.doubleToLongBits(close) == Double.doubleToLongBits(mCloses[i]) &&
+                bars.getVolume(i) == mVolumes[i];
+    }
+
+    private void appendAll(OhlcvBars bars, int from) {
+        for (int i = from; i < bars.size(); i++) {
+            append(bars.getClose(i), bars.getVolume(i));
+        }
+    }
+
+    /**
+     * Updates the indicators with the given close.
+     *
+     * @param close     the close, NaN for an entry without a close.
+     * @param volume    the volume of the close, 0 if it is unknown.
+     */
+    public void append(double close, double volume) {
+        if (mSize == mCloses.length) {
+            allocate(mSize * 2);
+        }
+        save();
+        int i = mSize++;
+        mCloses[i] = close;
+        mVolumes[i] = volume;
+        if (Double.isNaN(close)) {
+            mSma[i] = mEma[i] = mUpperBand[i] = mLowerBand[i] = mRsi[i] = mVwap[i] = Double.NaN;
+            return;
+        }
+
+        // simple moving average and Bollinger bands, over a sliding window.
+        if (mWindowCount == PERIOD) {
+            double removed = mWindow[mWindowIndex];
+            mWindowSum -= removed;
+            mWindowSumOfSquares -= removed * removed;
+        } else {
+            mWindowCount++;
+        }
+        mWindow[mWindowIndex] = close;
+        mWindowIndex = (mWindowIndex + 1) % PERIOD;
+        mWindowSum += close;
+        mWindowSumOfSquares += close * close;
+        if (mWindowCount == PERIOD) {
+            double mean = mWindowSum / PERIOD;
+            double variance = Math.max(0, mWindowSumOfSquares / PERIOD - mean * mean);
+            double width = BOLLINGER_WIDTH * Math.sqrt(variance);
+            mSma[i] = mean;
+            mUpperBand[i] = mean + width;
+            mLowerBand[i] = mean - width;
+        } else {
+            mSma[i] = mUpperBand[i] = mLowerBand[i] = Double.NaN;
+        }
+
+        // exponential moving average.
+        mEmaCount++;
+        if (mEmaCount < PERIOD) {
+            mEmaValue += close;
+            mEma[i] = Double.NaN;
+        } else {
+            if (mEmaCount == PERIOD) {
+                mEmaValue = (mEmaValue + close) / PERIOD;
+            } else {
+                mEmaValue += (close - mEmaValue) * 2 / (PERIOD + 1);
+            }
+            mEma[i] = mEmaValue;
+        }
+
+        // relative strength index.
+        mRsi[i] = Double.NaN;
+        if (!Double.isNaN(mPreviousClose)) {
+            double change = close - mPreviousClose;
+            double gain = Math.max(change, 0);
+            double loss = Math.max(-change, 0);
+            mChangeCount++;
+            if (mChangeCount <= RSI_PERIOD) {
+                mAverageGain += gain / RSI_PERIOD;
+                mAverageLoss += loss / RSI_PERIOD;
+            } else {
+                mAverageGain = (mAverageGain * (RSI_PERIOD - 1) + gain) / RSI_PERIOD;
+                mAverageLoss = (mAverageLoss * (RSI_PERIOD - 1) + loss) / RSI_PERIOD;
+            }
+            if (mChangeCount >= RSI_PERIOD) {
+                mRsi[i] = (mAverageLoss == 0) ? 100 :
+                        100 - 100 / (1 + mAverageGain / mAverageLoss);
+            }
+        }
+        mPreviousClose = close;
+
+        // volume weighted average price, anchored at the start of the range.
+        mPriceVolumeSum += close * volume;
+        mVolumeSum += volume;
+        mVwap[i] = (mVolumeSum == 0) ? Double.NaN : mPriceVolumeSum / mVolumeSum;
+    }
+
+    private void save() {
+        mSavedWindowIndex = mWindowIndex;
+        mSavedWindowValue = mWindow[mWindowIndex];
+        mSavedWindowCount = mWindowCount;
+        mSavedWindowSum = mWindowSum;
+        mSavedWindowSumOfSquares = mWindowSumOfSquares;
+        mSavedEmaValue = mEmaValue;
+        mSavedEmaCount = mEmaCount;
+        mSavedPreviousClose = mPreviousClose;
+        mSavedAverageGain = mAverageGain;
+        mSavedAverageLoss = mAverageLoss;
+        mSavedChangeCount = mChangeCount;
+        mSavedPriceVolumeSum = mPriceVolumeSum;
+        mSavedVolumeSum = mVolumeSum;
+    }
+
+    /**
+     * Returns to the state from before the latest close was appended, which is then to be
+     * appended again.
+     */
+    private void restore() {
+        mWindowIndex = mSavedWindowIndex;
+        mWindow[mWindowIndex] = mSavedWindowValue;
+        mWindowCount = mSavedWindowCount;
+        mWindowSum = mSavedWindowSum;
+        mWindowSumOfSquares = mSavedWindowSumOfSquares;
+        mEmaValue = mSavedEmaValue;
+        mEmaCount = mSavedEmaCount;
+        mPreviousClose = mSavedPreviousClose;
+        mAverageGain = mSavedAverageGain;
+        mAverageLoss = mSavedAverageLoss;
+        mChangeCount = mSavedChangeCount;
+        mPriceVolumeSum = mSavedPriceVolumeSum;
+        mVolumeSum = mSavedVolumeSum;
+    }
+
+    private void allocate(int capacity) {
+        mCloses = grow(mCloses, capacity);
+        mVolumes = grow(mVolumes, capacity);
+        mSma = grow(mSma, capacity);
+        mEma = grow(mEma, capacity);
+        mUpperBand = grow(mUpperBand, capacity);
+        mLowerBand = grow(mLowerBand, capacity);
+        mRsi = grow(mRsi, capacity);
+        mVwap = grow(mVwap, capacity);
+    }
+
+    private static double[] grow(double[] values, int capacity) {
+        return (values == null) ? new double[capacity] : Arrays.copyOf(values, capacity);
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return  true if volumes were given with the closes, false if the VWAP is unknown.
+     */
+    public boolean hasVolumes() {
+        return mVolumeSum > 0;
+    }
+
+    /**
+     * Returns the value of the given line of an indicator at the given entry.
+     *
+     * @param line  one of SMA, EMA, UPPER_BAND, LOWER_BAND, RSI or VWAP.
+     * @param i     the index of the entry.
+     * @return      the value of the line, NaN if there is none.
+     */
+    public double get(int line, int i) {
+        return getValues(line)[i];
+    }
+
+    /**
+     * @param line  one of SMA, EMA, UPPER_BAND, LOWER_BAND, RSI or VWAP.
+     * @return      the lowest value of the given line, NaN if it has none.
+     */
+    public double getLowest(int line) {
+        double[] values = getValues(line);
+        double lowest = Double.NaN;
+        for (int i = 0; i < mSize; i++) {
+            if (!Double.isNaN(values[i]) && (Double.isNaN(lowest) || values[i] < lowest)) {
+                lowest = values[i];
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * @param line  one of SMA, EMA, UPPER_BAND, LOWER_BAND, RSI or VWAP.
+     * @return      the highest value of the given line, NaN if it has none.
+     */
+    public double getHighest(int line) {
+        double[] values = getValues(line);
+        double highest = Double.NaN;
+        for (int i = 0; i < mSize; i++) {
+            if (!Double.isNaN(values[i]) && (Double.isNaN(highest) || values[i] > highest)) {
+                highest = values[i];
+            }
+        }
+        return highest;
+    }
+
+    private double[] getValues(int line) {
+        switch (line) {
+            case SMA:
+                return mSma;
+            case EMA:
+                return mEma;
+            case UPPER_BAND:
+                return mUpperBand;
+            case LOWER_BAND:
+                return mLowerBand;
+            case RSI:
+                return mRsi;
+            case VWAP:
+                return mVwap;
+            default:
+                throw new IllegalArgumentException("Not a line of an indicator: " + line);
+        }
+    }
+}
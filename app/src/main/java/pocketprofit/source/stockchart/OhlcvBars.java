@@ -0,0 +1,138 @@
+package com.pocketprofit.source.stockchart;
+
+/**
+ * The open, high, low and close prices and the volume of every entry of a chart range, stored as
+ * one primitive array per field rather than one object per entry. A range derived from a longer
+ * one (e.g. 1M from the five year series) is a slice sharing the arrays of the longer one.
+ * Entries without a close are NaN, prices missing from an entry are its close and a missing
+ * volume is 0.
+ * Plain Java with no Android dependencies, so it can be benchmarked on the JVM.
+ */
+public final class OhlcvBars {
+    private final float[] mOpens;
+    private final float[] mHighs;
+    private final float[] mLows;
+    private final float[] mCloses;
+    private final int[] mVolumes;
+    // the index of the first bar in the arrays, and the number of bars.
+    private final int mStart;
+    private final int mSize;
+
+    private OhlcvBars(float[] opens, float[] highs, float[] lows, float[] closes, int[] volumes,
+                      int start, int size) {
+        mOpens = opens;
+        mHighs = highs;
+        mLows = lows;
+        mCloses = closes;
+        mVolumes = volumes;
+        mStart = start;
+        mSize = size;
+    }
+
+    /**
+     * @param size  the number of bars.
+     * @return      bars with every entry empty, to be filled in with set(...).
+     */
+    static OhlcvBars allocate(int size) {
+        return new OhlcvBars(new float[size], new float[size], new float[size], new float[size],
+                new int[size], 0, size);
+    }
+
+    /**
+     * Sets the prices and the volume of the given bar, only used while the bars are parsed.
+     */
+    void set(int i, double open, double high, double low, double close, long volume) {
+        int index = mStart + i;
+        mOpens[index] = (float) open;
+        mHighs[index] = (float) high;
+        mLows[index] = (float) low;
+        mCloses[index] = (float) close;
+        mVolumes[index] = (int) Math.min(volume, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Marks the given bar as an entry without a close, only used while the bars are parsed.
+     */
+    void setEmpty(int i) {
+        set(i, Float.NaN, Float.NaN, Float.NaN, Float.NaN, 0);
+    }
+
+    /**
+     * Returns the bars from start (inclusive) to end (exclusive), without copying them.
+     *
+     * @param start the index of the first bar.
+     * @param end   the index after the last bar.
+     * @return      the slice of the bars.
+     */
+    public OhlcvBars slice(int start, int end) {
+        return new OhlcvBars(mOpens, mHighs, mLows, mCloses, mVolumes, mStart + start,
+                end - start);
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty(int i) {
+        return Float.isNaN(mCloses[mStart + i]);
+    }
+
+    public float getOpen(int i) {
+        return mOpens[mStart + i];
+    }
+
+    public float getHigh(int i) {
+        return mHighs[mStart + i];
+    }
+
+    public float getLow(int i) {
+        return mLows[mStart + i];
+    }
+
+    public float getClose(int i) {
+        return mCloses[mStart + i];
+    }
+
+    public int getVolume(int i) {
+        return mVolumes[mStart + i];
+    }
+
+    /**
+     * @return  the lowest low of the bars, NaN if every bar is empty.
+     */
+    public float getLowest() {
+        float lowest = Float.NaN;
+        for (int i = mStart; i < mStart + mSize; i++) {
+            float low = mLows[i];
+            if (!Float.isNaN(low) && (Float.isNaN(lowest) || low < lowest)) {
+                lowest = low;
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * @return  the highest high of the bars, NaN if every bar is empty.
+     */
+    public float getHighest() {
+        float highest = Float.NaN;
+        for (int i = mStart; i < mStart + mSize; i++) {
+            float high = mHighs[i];
+            if (!Float.isNaN(high) && (Float.isNaN(highest) || high > highest)) {
+                highest = high;
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * @return  the highest volume of the bars, 0 if the volumes are unknown.
+     */
+    public int getHighestVolume() {
+        int highest = 0;
+        for (int i = mStart; i < mStart + mSize; i++) {
+            highest = Math.max(highest, mVolumes[i]);
+        }
+        return highest;
+    }
+}
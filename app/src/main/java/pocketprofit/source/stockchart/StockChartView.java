@@ -2,13 +2,18 @@ package com.pocketprofit.source.stockchart;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.ColorMatrix;
+import android.graphics.ColorMatrixColorFilter;
 import android.graphics.CornerPathEffect;
 import android.graphics.DashPathEffect;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Rect;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.view.GestureDetector;
@@ -18,22 +23,21 @@ import android.view.MotionEvent;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.core.graphics.ColorUtils;
 
+import com.android.volley.Request;
 import com.android.volley.VolleyError;
 import com.pocketprofit.R;
+import com.pocketprofit.source.ErrorCallback;
 import com.pocketprofit.source.JSONArrayCallback;
 import com.pocketprofit.source.Util;
+import com.pocketprofit.source.metrics.Metrics;
+import com.pocketprofit.source.metrics.Tracing;
 
 import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
-import java.text.DateFormatSymbols;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class StockChartView extends AbstractStockChartView {
     // width of the chart lines drawn on the canvas.
@@ -43,6 +47,22 @@ public class StockChartView extends AbstractStockChartView {
     // total minutes (5min intervals) in a regular trading session (9:30am-4:00pm EST)
     public static final int MINUTES_IN_TRADING_HOURS = 78;
 
+    // candlestick mode: the width of a candle body as a fraction of the distance between two
+    // bars, and the height of the tallest volume bar as a fraction of the height of the view.
+    private static final float CANDLE_WIDTH = 0.6f;
+    private static final float VOLUME_HEIGHT = 0.15f;
+    private static final int VOLUME_ALPHA = 0x60;
+
+    // the height of the RSI panel underneath the series, as a fraction of the height of the view,
+    // and the levels of the RSI marked in it (oversold and overbought).
+    private static final float RSI_PANEL_HEIGHT = 0.2f;
+    private static final float[] RSI_LEVELS = {30, 70};
+
+    // the ranges requested from the PocketProfit server by prefetches, every daily range is
+    // derived from 5Y.
+    private static final List<String> PREFETCHED_RANGES =
+            Arrays.asList("1D", "5D", DailySeries.FIVE_YEARS);
+
     /**
      * Cache Collection: Every time a user selects a different chart range that has not been
      * already selected, the information gathered from the API GET request is stored in the
@@ -58,6 +78,15 @@ public class StockChartView extends AbstractStockChartView {
     // the chart range that is currently in view.
     private String mRange;
 
+    // the latest request of every range requested from the PocketProfit server, by the range of
+    // the request (the daily ranges are all derived from one 5Y request).
+    private final Map<String, RangeRequest> mRangeRequests;
+
+    // prefetches the ranges not in view once the UI thread has nothing else to do.
+    private final MessageQueue.IdleHandler mPrefetchIdleHandler;
+    private boolean mPrefetchScheduled;
+    private boolean mPrefetchCancelled;
+
     // ticker symbol of the company the charts describe.
     private String mSymbol;
     // the latest price and the previous close price for the company the charts describe.
@@ -71,8 +100,19 @@ public class StockChartView extends AbstractStockChartView {
     private final GestureDetector mGestureDetector;
 
     // helps activate haptic feedback at correct times when selecting through 5d data
-    private String mCurrentFiveDayLabel;
-    private Set<String> mHighlightedFiveDayLabels;
+    private int mCurrentFiveDay;
+
+    /**
+     * Static layer: the series is drawn into a bitmap once per change of the chart data, and
+     * only the bitmap and the user's selection are drawn while the user scrubs through the chart.
+     */
+    private Bitmap mStaticLayer;
+    private final Canvas mStaticLayerCanvas;
+    // the chart data the static layer was drawn with.
+    private ChartData mStaticLayerData;
+    private boolean mStaticLayerDirty;
+    // 5d range: the index of the day of every entry of the static layer.
+    private int[] mDayIndexes;
 
     /**
      * Canvas brushes.
@@ -81,6 +121,26 @@ public class StockChartView extends AbstractStockChartView {
     private final Paint mDottedBrush;
     private final Paint mSelectionBrush;
     private final Paint mTextBrush;
+    private final Paint mDimBrush;
+    private final Paint mIndicatorBrush;
+
+    // the technical indicators displayed on top of the series, as Indicators flags.
+    private int mIndicators;
+
+    // true if the series is drawn as candlesticks with the volume underneath, rather than a line.
+    private boolean mCandlestickMode;
+    private final Paint mCandleBrush;
+    // the endpoints of the lines drawn with a single drawLines call, 4 floats per line.
+    // note: stored as a field to avoid allocations every time the candlesticks are drawn.
+    private float[] mLinePoints;
+
+    // the range of prices spanned by the chart, see getYPosition(...).
+    private float mDomainMin;
+    private float mDomainMax;
+    // the bottom of the area of the series, above the RSI panel when the RSI is displayed.
+    private float mSeriesBottom;
+    // note: stored as a field to avoid 'new Path()' memory allocations while drawing indicators.
+    private final Path mIndicatorPath;
 
     // used to make the previous close dotted line on chart when the range is 1d (intraday)
     // note: stored as a field to avoid 'new Path()' memory allocations in onDraw(...)
@@ -99,6 +159,14 @@ public class StockChartView extends AbstractStockChartView {
         mCurrentIndex = -1;  // not set sentinel
 
         mChartDataCache = new HashMap<String, ChartData>();
+        mRangeRequests = new HashMap<String, RangeRequest>();
+        mPrefetchIdleHandler = new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                prefetchRanges();
+                return false;
+            }
+        };
 
         mChartBrush = new Paint(Paint.ANTI_ALIAS_FLAG);
         mChartBrush.setStrokeWidth(STROKE_WIDTH);
@@ -132,9 +200,29 @@ public class StockChartView extends AbstractStockChartView {
         mTextBrush.setTextSize(14 * getResources().getDisplayMetrics().density);
         mTextBrush.setTypeface(ResourcesCompat.getFont(context, R.font.nunito));
 
+        // dims the static layer outside of the user's selection, the same as blending the
+        // chart color 60% towards black.
+        ColorMatrix dimMatrix = new ColorMatrix();
+        dimMatrix.setScale(0.4f, 0.4f, 0.4f, 1f);
+        mDimBrush = new Paint();
+        mDimBrush.setColorFilter(new ColorMatrixColorFilter(dimMatrix));
+
+        mIndicatorBrush = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mIndicatorBrush.setStyle(Paint.Style.STROKE);
+        mIndicatorBrush.setStrokeWidth(STROKE_WIDTH - 1);
+        mIndicatorBrush.setStrokeJoin(Paint.Join.ROUND);
+        mIndicatorBrush.setStrokeCap(Paint.Cap.ROUND);
+        mIndicatorPath = new Path();
+
+        mCandleBrush = new Paint();
+        mCandleBrush.setStyle(Paint.Style.STROKE);
+        mCandleBrush.setStrokeCap(Paint.Cap.BUTT);
+
+        mStaticLayerCanvas = new Canvas();
+        mStaticLayerDirty = true;
+
         this.setHapticFeedbackEnabled(true);
-        mCurrentFiveDayLabel = null;
-        mHighlightedFiveDayLabels = new HashSet<String>();
+        mCurrentFiveDay = -1;
 
         mGestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
             @Override
@@ -168,6 +256,41 @@ public class StockChartView extends AbstractStockChartView {
         mLatestPrice = (float) latestPrice;
         int color = getIntervalColor(mPreviousClose, mLatestPrice);
         mChartBrush.setColor(color);
+        mStaticLayerDirty = true;
+    }
+
+    /**
+     * Sets the technical indicators displayed on top of the series.
+     *
+     * @param indicators    the indicators to display, as Indicators flags (0 for none).
+     */
+    public void setIndicators(int indicators) {
+        mIndicators = indicators;
+        mStaticLayerDirty = true;
+        invalidate();
+    }
+
+    /**
+     * @return  the technical indicators displayed on top of the series, as Indicators flags.
+     */
+    public int getIndicators() {
+        return mIndicators;
+    }
+
+    /**
+     * Sets whether the series is drawn as candlesticks with the volume of every bar underneath,
+     * or as a line.
+     *
+     * @param candlestickMode   true to draw candlesticks, false to draw a line.
+     */
+    public void setCandlestickMode(boolean candlestickMode) {
+        mCandlestickMode = candlestickMode;
+        mStaticLayerDirty = true;
+        invalidate();
+    }
+
+    public boolean isCandlestickMode() {
+        return mCandlestickMode;
     }
 
     /**
@@ -185,8 +308,7 @@ public class StockChartView extends AbstractStockChartView {
     public void clearUserSelection() {
         mState = State.OFF;
         mCurrentIndex = -1;
-        mCurrentFiveDayLabel = null;
-        mHighlightedFiveDayLabels.clear();
+        mCurrentFiveDay = -1;
         invalidate();
     }
 
@@ -246,82 +368,202 @@ public class StockChartView extends AbstractStockChartView {
      * @param range the chart range selected by the user.
      */
     public void setChartRange(final String range) {
+        Tracing.begin("StockChartView.setChartRange");
         clearUserSelection();
         mRange = range;
-        if (!mChartDataCache.containsKey(mRange)) {
-            switch (mRange) {
-                // lot of redundant code here due to async function calls
+        if (mChartDataCache.containsKey(mRange)) {
+            mCurrentRangeData = mChartDataCache.get(mRange);
+            notifyChartChangeListeners();
+            invalidate();
+        } else {
+            // a range the user is waiting on is always requested at a normal priority, a pending
+            // prefetch of the same data is cancelled in favour of it. a request the user is
+            // already waiting on (e.g. 5Y for 1M, when 6M is selected next) is left to complete,
+            // whichever range is in view is displayed once it has.
+            String requestRange = getRequestRange(mRange);
+            RangeRequest pending = mRangeRequests.get(requestRange);
+            if (pending == null || pending.isPrefetch()) {
+                if (pending != null) {
+                    pending.cancel();
+                }
+                RangeRequest request = new RangeRequest(requestRange, false);
+                mRangeRequests.put(requestRange, request);
+                request.send();
+            }
+        }
+        Tracing.end();
+    }
+
+    /**
+     * Returns the range whose chart data has to be requested from the PocketProfit server to
+     * display the given range. Every daily range is derived from the five year series.
+     *
+     * @param range the chart range.
+     * @return      the chart range to request.
+     */
+    private static String getRequestRange(String range) {
+        return DailySeries.RANGES.contains(range) ? DailySeries.FIVE_YEARS : range;
+    }
+
+    /**
+     * A request of the chart data of a range to the PocketProfit server. Requests of a range the
+     * user is waiting on are traced until the chart data is first received, prefetches are sent
+     * with a low priority. A request that fails is forgotten, so that the range is requested
+     * again the next time it is selected or prefetched.
+     */
+    private final class RangeRequest implements JSONArrayCallback, ErrorCallback {
+        private final String mRequestRange;
+        private final boolean mPrefetch;
+        private final String mSection;
+        private Request<String> mRequest;
+        private boolean mReceived;
+
+        RangeRequest(String range, boolean prefetch) {
+            mRequestRange = range;
+            mPrefetch = prefetch;
+            mSection = "StockChartView.loadRange " + range;
+            if (!mPrefetch) {
+                Tracing.beginAsync(mSection, System.identityHashCode(this));
+            }
+        }
+
+        void send() {
+            Request.Priority priority = mPrefetch ? Request.Priority.LOW : Request.Priority.NORMAL;
+            switch (mRequestRange) {
                 case "1D":
-                    Util.fetchIntradayChartData(mContext, mSymbol, new JSONArrayCallback() {
-                        @Override
-                        public void onSuccess(JSONArray result) {
-                            mCurrentRangeData = parseJSONResult(result);
-                            mChartDataCache.put(mRange, mCurrentRangeData);
-                            notifyChartChangeListeners();
-                            invalidate();
-                        }
-                    });
+                    mRequest = Util.fetchIntradayChartData(mContext, mSymbol, priority, this, this);
                     break;
                 case "5D":
-                    Util.fetchFiveDayChartData(mContext, mSymbol, new JSONArrayCallback() {
-                        @Override
-                        public void onSuccess(JSONArray result) {
-                            mChartDataCache.put(mRange, parseJSONResult(result));
-                            mCurrentRangeData = mChartDataCache.get(mRange);
-                            notifyChartChangeListeners();
-                            invalidate();
-                        }
-                    });
-                    break;
-                case "1M":
-                    Util.fetchOneMonthChartData(mContext, mSymbol, new JSONArrayCallback() {
-                        @Override
-                        public void onSuccess(JSONArray result) {
-                            mChartDataCache.put(mRange, parseJSONResult(result));
-                            mCurrentRangeData = mChartDataCache.get(mRange);
-                            notifyChartChangeListeners();
-                            invalidate();
-                        }
-                    });
-                    break;
-                case "6M":
-                    Util.fetchSixMonthChartData(mContext, mSymbol, new JSONArrayCallback() {
-                        @Override
-                        public void onSuccess(JSONArray result) {
-                            mChartDataCache.put(mRange, parseJSONResult(result));
-                            mCurrentRangeData = mChartDataCache.get(mRange);
-                            notifyChartChangeListeners();
-                            invalidate();
-                        }
-                    });
-                    break;
-                case "1Y":
-                    Util.fetchOneYearChartData(mContext, mSymbol, new JSONArrayCallback() {
-                        @Override
-                        public void onSuccess(JSONArray result) {
-                            mChartDataCache.put(mRange, parseJSONResult(result));
-                            mCurrentRangeData = mChartDataCache.get(mRange);
-                            notifyChartChangeListeners();
-                            invalidate();
-                        }
-                    });
+                    mRequest = Util.fetchFiveDayChartData(mContext, mSymbol, priority, this, this);
                     break;
-                case "5Y":
-                    Util.fetchFiveYearChartData(mContext, mSymbol, new JSONArrayCallback() {
-                        @Override
-                        public void onSuccess(JSONArray result) {
-                            mChartDataCache.put(mRange, parseJSONResult(result));
-                            mCurrentRangeData = mChartDataCache.get(mRange);
-                            notifyChartChangeListeners();
-                            invalidate();
-                        }
-                    });
+                default:
+                    mRequest = Util.fetchFiveYearChartData(mContext, mSymbol, priority, this, this);
                     break;
             }
-        } else {
-            mCurrentRangeData = mChartDataCache.get(mRange);
+        }
+
+        boolean isPrefetch() {
+            return mPrefetch;
+        }
+
+        void cancel() {
+            if (mRequest != null) {
+                mRequest.cancel();
+            }
+            endTrace();
+        }
+
+        @Override
+        public void onSuccess(JSONArray result) {
+            endTrace();
+            if (mRequestRange.equals(DailySeries.FIVE_YEARS)) {
+                onDailySeriesReceived(result);
+            } else {
+                onChartDataReceived(mRequestRange, result);
+            }
+        }
+
+        @Override
+        public void onError() {
+            endTrace();
+            if (mRangeRequests.get(mRequestRange) == this) {
+                mRangeRequests.remove(mRequestRange);
+            }
+        }
+
+        private void endTrace() {
+            if (!mPrefetch && !mReceived) {
+                mReceived = true;
+                Tracing.endAsync(mSection, System.identityHashCode(this));
+            }
+        }
+    }
+
+    /**
+     * Prefetches the chart data of every range that hasn't been requested yet, so that switching
+     * to it is instant. Prefetches are sent with a low priority once the UI thread is idle, and
+     * not at all if the user has turned on Data Saver.
+     */
+    private void prefetchRanges() {
+        if (mPrefetchCancelled || Util.isDataSaverEnabled(mContext)) {
+            return;
+        }
+        for (String range : PREFETCHED_RANGES) {
+            if (!mChartDataCache.containsKey(range) && !mRangeRequests.containsKey(range)) {
+                RangeRequest request = new RangeRequest(range, true);
+                mRangeRequests.put(range, request);
+                request.send();
+            }
+        }
+    }
+
+    /**
+     * Cancels the pending requests of chart data, including prefetches, and prevents any further
+     * prefetch. To be called once the activity displaying the chart is finishing.
+     */
+    public void cancelRequests() {
+        mPrefetchCancelled = true;
+        Looper.myQueue().removeIdleHandler(mPrefetchIdleHandler);
+        for (RangeRequest request : mRangeRequests.values()) {
+            request.cancel();
+        }
+        mRangeRequests.clear();
+    }
+
+    /**
+     * Parses and caches the chart data of the given range. If the range is still the one in view,
+     * the chart is redrawn with the new data.
+     * Chart data can arrive more than once per range (stored data first, then revalidated data
+     * from the PocketProfit server) and it can arrive after the user has already moved on to a
+     * different range, so the range is passed along rather than read from mRange.
+     *
+     * @param range     the chart range the data describes.
+     * @param result    the JSON data sent back from a call to the PocketProfit server.
+     */
+    private void onChartDataReceived(String range, JSONArray result) {
+        Tracing.begin("StockChartView.parseJSONResult");
+        ChartData chartData = parseJSONResult(range, result);
+        Tracing.end();
+        cacheChartData(range, chartData);
+    }
+
+    /**
+     * Parses the five year series and derives every daily range from it. If a daily range is the
+     * one in view, the chart is redrawn with the new data.
+     *
+     * @param result    the five year chart data sent back from the PocketProfit server.
+     */
+    private void onDailySeriesReceived(JSONArray result) {
+        Tracing.begin("StockChartView.onDailySeriesReceived");
+        long startTime = Metrics.now();
+        DailySeries series = DailySeries.parse(result);
+        Metrics.recordSince(Metrics.CHART_PARSE, startTime);
+        for (String range : DailySeries.RANGES) {
+            cacheChartData(range, createChartData(range, series.getRange(range)));
+        }
+        Tracing.end();
+    }
+
+    /**
+     * Caches the chart data of the given range, and displays it if the range is in view.
+     *
+     * @param range     the chart range the data describes.
+     * @param chartData the chart data of the range.
+     */
+    private void cacheChartData(String range, ChartData chartData) {
+        ChartData previous = mChartDataCache.put(range, chartData);
+        if (previous != null) {
+            chartData.inheritIndicators(previous);
+        }
+        if (range.equals(mRange)) {
+            mCurrentRangeData = chartData;
             notifyChartChangeListeners();
             invalidate();
+            // the other ranges are prefetched once the first range is on screen.
+            if (!mPrefetchScheduled) {
+                mPrefetchScheduled = true;
+                Looper.myQueue().addIdleHandler(mPrefetchIdleHandler);
+            }
         }
     }
 
@@ -329,66 +571,30 @@ public class StockChartView extends AbstractStockChartView {
      * Creates and initializes a ChartData using the JSON information given in as a parameter.
      * This information is then returned.
      *
+     * @param range     the chart range the JSON data describes.
      * @param result    the JSON data sent back from a call to the PocketProfit server.
      * @return          the ChartData that describes the JSON parameter.
      */
-    public ChartData parseJSONResult(JSONArray result) {
-        List<ChartDataFragment> parsedResult = new ArrayList<>();
-        // valid entries in a ChartData are entries whose "close" field is not null.
-        // this means that they have a value and therefore able to be shown in a graph.
-        int validEntries = 0;
-        double min = mRange.equals("1D") ? mPreviousClose : Double.MAX_VALUE;
-        double max = mRange.equals("1D") ? mPreviousClose : Double.MIN_VALUE;
-        String column = mRange.equals("1D") ? "label" : "date";
-
-        for (int i = 0; i < result.length(); i++) {
-            try {
-                JSONObject jsonObject = result.getJSONObject(i);
-                if (jsonObject.isNull("close")) {
-                    parsedResult.add(null);
-                } else {
-                    validEntries++;
-                    double close = jsonObject.getDouble("close");
-                    String label = jsonObject.getString(column);
-
-                    if (close < min) {
-                        min = close;
-                    }
-                    if (close > max) {
-                        max = close;
-                    }
-
-                    if (!mRange.equals("1D")) {
-                        // yyyy-mm-dd -> MONTH DAY+SUFFIX, YEAR
-                        String[] splitDate = label.split("-");
-                        String year = splitDate[0];
-                        int monthIndex = Integer.parseInt(splitDate[1]) - 1;
-                        String month = new DateFormatSymbols().getMonths()[monthIndex].substring(0, 3);
-                        String day = splitDate[2];
-                        if (day.charAt(0) == '0') {
-                            day = day.substring(1);
-                        }
-                        label = month + " " + day + Util.getDayOfMonthSuffix(Integer.parseInt(day)) + ", " + year;
-                    } else {
-                        if (label.startsWith("0")) {
-                            label = label.substring(1);
-                        }
-                        // ex. 'x AM/PM' -> 'x:00 AM/PM'
-                        if (!label.contains(":")) {
-                            label = label.substring(0, label.indexOf(' ')) + ":00 " + label.substring(label.indexOf(' ') + 1);
-                        }
-                    }
-                    if (mRange.equals("5D")) {
-                        String minute = jsonObject.getString("minute");
-                        label += " at " + Util.convertMilitaryToStandard(minute);
-                    }
+    public ChartData parseJSONResult(String range, JSONArray result) {
+        long startTime = Metrics.now();
+        ChartParser.Result parsed = ChartParser.parse(range, mPreviousClose, result);
+        Metrics.recordSince(Metrics.CHART_PARSE, startTime);
+        return createChartData(range, parsed);
+    }
 
-                    parsedResult.add(new ChartDataFragment(close, label));
-                }
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
-        }
+    /**
+     * Creates a ChartData of the given range out of its parsed entries, with the color and the
+     * change text of the range.
+     *
+     * @param range     the chart range the entries describe.
+     * @param parsed    the parsed entries of the range.
+     * @return          the ChartData of the range.
+     */
+    private ChartData createChartData(String range, ChartParser.Result parsed) {
+        List<ChartDataFragment> parsedResult = parsed.getList();
+        int validEntries = parsed.getValidEntries();
+        double min = parsed.getMin();
+        double max = parsed.getMax();
 
         int rangeColor;
         String chartDataText;
@@ -398,12 +604,13 @@ public class StockChartView extends AbstractStockChartView {
             chartDataText = mContext.getString(R.string.percent_change_placeholder);
         } else {
             // validEntries != 0, result.length() > 0, result.length() may not equal validEntries
-            double first = mRange.equals("1D") ? mPreviousClose : getFirst(parsedResult);
+            double first = range.equals("1D") ? mPreviousClose : getFirst(parsedResult);
             double last = mLatestPrice;
             rangeColor = getIntervalColor(first, last);
             chartDataText = Util.getPercentChangeText(first, mLatestPrice, false, false);
         }
-        return new ChartData(parsedResult, min, max, rangeColor, validEntries, chartDataText);
+        return new ChartData(parsedResult, parsed.getBars(), min, max, rangeColor, validEntries,
+                chartDataText);
     }
 
     /**
@@ -476,6 +683,8 @@ public class StockChartView extends AbstractStockChartView {
      */
     @Override
     protected void onDraw(Canvas canvas) {
+        Tracing.begin("StockChartView.onDraw");
+        long startTime = Metrics.now();
         // don't draw on canvas if no data has been fetched yet.
         if (mCurrentRangeData != null) {
             float viewWidth = getWidth();
@@ -504,60 +713,56 @@ public class StockChartView extends AbstractStockChartView {
 
                 float deltaX = viewWidth / (mRange.equals("1D") ? MINUTES_IN_TRADING_HOURS - 1 : chartElements.size() - 1);
 
-                if (mRange.equals("5D") && mCurrentIndex != -1) {
-                    // only appending the date portion of the label
-                    String selectedLabel = chartElements.get(mCurrentIndex).getLabel();
-                    selectedLabel = selectedLabel.substring(0, selectedLabel.indexOf(" at "));
-                    mHighlightedFiveDayLabels.add(selectedLabel);
-                    // find the next non-null label
-                    int i = mCurrentIndex + 1;
-                    while (i < chartElements.size() && chartElements.get(i) == null) {
-                        i++;
-                    }
-                    // next non-null label exists
-                    if (i < chartElements.size()) {
-                        String nextLabel = chartElements.get(i).getLabel();
-                        mHighlightedFiveDayLabels.add(nextLabel.substring(0, nextLabel.indexOf(" at ")));
-                    }
-                    if (mCurrentFiveDayLabel != null && !mCurrentFiveDayLabel.equals(selectedLabel)) {
-                        performHapticFeedback(HapticFeedbackConstants.VIRTUAL_KEY, HapticFeedbackConstants.FLAG_IGNORE_GLOBAL_SETTING);
-                    }
-                    mCurrentFiveDayLabel = selectedLabel;
+                if (mStaticLayerDirty || mStaticLayerData != mCurrentRangeData) {
+                    drawStaticLayer(chartElements, deltaX);
                 }
 
-                int i = 0;
-                while (i < chartElements.size() && chartElements.get(i) == null) {
-                    i++;
-                }
-                int j = i + 1;
-                while (j < chartElements.size()) {
-                    if (chartElements.get(j) != null) {
-                        if (mCurrentIndex != -1) {
-                            if (mRange.equals("5D")) {
-                                String selectedLabel = chartElements.get(j).getLabel();
-                                selectedLabel = selectedLabel.substring(0, selectedLabel.indexOf(" at "));
-                                if (!mHighlightedFiveDayLabels.contains(selectedLabel)) {
-                                    mChartBrush.setColor(ColorUtils.blendARGB(mChartBrush.getColor(), Color.BLACK, 0.6f));
-                                }
-                            } else {
-                                if (mCurrentIndex <= i) {
-                                    mChartBrush.setColor(ColorUtils.blendARGB(mChartBrush.getColor(), Color.BLACK, 0.6f));
+                if (mCurrentIndex == -1) {
+                    canvas.drawBitmap(mStaticLayer, 0, 0, null);
+                } else {
+                    // the part of the chart outside of the selection is dimmed. in the 5d range
+                    // the day of the selection is highlighted, otherwise everything up to it.
+                    float highlightStart = 0;
+                    float highlightEnd = mCurrentIndex * deltaX;
+                    if (mRange.equals("5D")) {
+                        int selectedDay = mDayIndexes[mCurrentIndex];
+                        // the selection may be the last entry of its day, the segment leading to
+                        // the next day is then highlighted as well.
+                        int nextDay = selectedDay;
+                        int next = mCurrentIndex + 1;
+                        while (next < chartElements.size() && chartElements.get(next) == null) {
+                            next++;
+                        }
+                        if (next < chartElements.size()) {
+                            nextDay = mDayIndexes[next];
+                        }
+                        if (mCurrentFiveDay != -1 && mCurrentFiveDay != selectedDay) {
+                            performHapticFeedback(HapticFeedbackConstants.VIRTUAL_KEY, HapticFeedbackConstants.FLAG_IGNORE_GLOBAL_SETTING);
+                        }
+                        mCurrentFiveDay = selectedDay;
+
+                        // a segment is highlighted if it ends on one of the highlighted days.
+                        int first = -1;
+                        int last = -1;
+                        int previous = -1;
+                        for (int i = 0; i < chartElements.size(); i++) {
+                            if (chartElements.get(i) != null) {
+                                int day = mDayIndexes[i];
+                                if (previous != -1 && (day == selectedDay || day == nextDay)) {
+                                    if (first == -1) {
+                                        first = previous;
+                                    }
+                                    last = i;
                                 }
+                                previous = i;
                             }
                         }
-                        canvas.drawLine(deltaX * i, getYPosition(chartElements.get(i).getPrice()),
-                                deltaX * j, getYPosition(chartElements.get(j).getPrice()), mChartBrush);
-                        mChartBrush.setColor(mCurrentRangeData.getChartRangeColor());
-                        i = j;
+                        highlightStart = (first == -1) ? 0 : first * deltaX;
+                        highlightEnd = (first == -1) ? 0 : last * deltaX;
                     }
-                    j++;
-                }
-
-                if (mRange.equals("1D")) {  // draw the previous close line
-                    mPreviousCloseLine.reset();
-                    mPreviousCloseLine.moveTo(0, getYPosition(mPreviousClose));
-                    mPreviousCloseLine.lineTo(viewWidth, getYPosition(mPreviousClose));
-                    canvas.drawPath(mPreviousCloseLine, mDottedBrush);
+                    drawStaticLayer(canvas, 0, highlightStart, mDimBrush);
+                    drawStaticLayer(canvas, highlightStart, highlightEnd, null);
+                    drawStaticLayer(canvas, highlightEnd, viewWidth, mDimBrush);
                 }
 
                 if (mCurrentIndex != -1 && mCurrentIndex < chartElements.size()) {
@@ -577,10 +782,319 @@ public class StockChartView extends AbstractStockChartView {
                     float lineHeight = fm.descent - fm.ascent + fm.ascent;
                     canvas.drawText(selectedLabel, textPosition, textArea * 0.5f + lineHeight, mTextBrush);
                 }
+            }
+        }
+        Metrics.recordSince(Metrics.CHART_DRAW, startTime);
+        Tracing.end();
+    }
+
+    /**
+     * Draws the series (and the previous close line of the 1d range) into the static layer, which
+     * is then blitted onto the canvas every frame rather than drawn segment by segment. This is
+     * only done when the chart data, the previous close or the size of the view changes.
+     *
+     * @param chartElements the entries of the chart data in view.
+     * @param deltaX        the horizontal distance between two entries.
+     */
+    private void drawStaticLayer(List<ChartDataFragment> chartElements, float deltaX) {
+        Tracing.begin("StockChartView.drawStaticLayer");
+        int viewWidth = getWidth();
+        int viewHeight = getHeight();
+        if (mStaticLayer == null) {
+            mStaticLayer = Bitmap.createBitmap(viewWidth, viewHeight, Bitmap.Config.ARGB_8888);
+            mStaticLayerCanvas.setBitmap(mStaticLayer);
+        } else {
+            mStaticLayer.eraseColor(Color.TRANSPARENT);
+        }
+
+        OhlcvBars bars = mCurrentRangeData.getBars();
+        boolean rsiDisplayed = (mIndicators & Indicators.RSI) != 0;
+        mSeriesBottom = rsiDisplayed ? viewHeight * (1 - RSI_PANEL_HEIGHT) : viewHeight;
+        mDomainMin = mCurrentRangeData.getMin();
+        mDomainMax = mCurrentRangeData.getMax();
+        if (mCandlestickMode) {
+            // the wicks of the candles may reach beyond the closes.
+            includeInDomain(bars.getLowest(), bars.getHighest());
+        }
+        if ((mIndicators & Indicators.BOLLINGER) != 0) {
+            // so may the Bollinger bands, every other line drawn over the series is an average
+            // of the closes.
+            Indicators indicators = mCurrentRangeData.getIndicators();
+            includeInDomain((float) indicators.getLowest(Indicators.LOWER_BAND),
+                    (float) indicators.getHighest(Indicators.UPPER_BAND));
+        }
+        if (mCandlestickMode) {
+            drawCandlesticks(bars, deltaX);
+        } else {
+            mChartBrush.setColor(mCurrentRangeData.getChartRangeColor());
+            int i = 0;
+            while (i < chartElements.size() && chartElements.get(i) == null) {
+                i++;
+            }
+            int j = i + 1;
+            while (j < chartElements.size()) {
+                if (chartElements.get(j) != null) {
+                    mStaticLayerCanvas.drawLine(deltaX * i, getYPosition(chartElements.get(i).getPrice()),
+                            deltaX * j, getYPosition(chartElements.get(j).getPrice()), mChartBrush);
+                    i = j;
+                }
+                j++;
+            }
+        }
+
+        if (mRange.equals("1D")) {  // draw the previous close line
+            mPreviousCloseLine.reset();
+            mPreviousCloseLine.moveTo(0, getYPosition(mPreviousClose));
+            mPreviousCloseLine.lineTo(viewWidth, getYPosition(mPreviousClose));
+            mStaticLayerCanvas.drawPath(mPreviousCloseLine, mDottedBrush);
+        }
 
-                mHighlightedFiveDayLabels.clear();
+        if (mIndicators != 0) {
+            drawIndicators(mCurrentRangeData.getIndicators(), chartElements.size(), deltaX);
+        }
+        if (rsiDisplayed) {
+            drawRsiPanel(mCurrentRangeData.getIndicators(), chartElements.size(), deltaX);
+        }
+
+        if (mRange.equals("5D")) {
+            // the day of every entry, so that the day of the selection can be highlighted
+            // without comparing labels every frame.
+            if (mDayIndexes == null || mDayIndexes.length < chartElements.size()) {
+                mDayIndexes = new int[chartElements.size()];
+            }
+            int day = -1;
+            String previousDate = null;
+            for (int k = 0; k < chartElements.size(); k++) {
+                if (chartElements.get(k) != null) {
+                    String label = chartElements.get(k).getLabel();
+                    String date = label.substring(0, label.indexOf(" at "));
+                    if (!date.equals(previousDate)) {
+                        day++;
+                        previousDate = date;
+                    }
+                }
+                mDayIndexes[k] = day;
             }
         }
+        mStaticLayerData = mCurrentRangeData;
+        mStaticLayerDirty = false;
+        Tracing.end();
+    }
+
+    /**
+     * Widens the range of prices spanned by the chart to include the given prices.
+     *
+     * @param lowest    the lowest price to include, NaN for none.
+     * @param highest   the highest price to include, NaN for none.
+     */
+    private void includeInDomain(float lowest, float highest) {
+        if (lowest < mDomainMin) {
+            mDomainMin = lowest;
+        }
+        if (highest > mDomainMax) {
+            mDomainMax = highest;
+        }
+    }
+
+    /**
+     * Draws the bars into the static layer as candlesticks, with the volume of every bar
+     * underneath. Bars are drawn per color and per part (volume, wick and body) with a single
+     * drawLines call each, rather than one call per bar. A body is a line as wide as the body
+     * from the open to the close.
+     *
+     * @param bars      the bars of the chart data in view.
+     * @param deltaX    the horizontal distance between two bars.
+     */
+    private void drawCandlesticks(OhlcvBars bars, float deltaX) {
+        float viewHeight = getHeight();
+        float volumeBottom = mSeriesBottom;
+        float bodyWidth = Math.max(1, deltaX * CANDLE_WIDTH);
+        float minBodyHeight = Resources.getSystem().getDisplayMetrics().density;
+        int highestVolume = bars.getHighestVolume();
+        if (mLinePoints == null || mLinePoints.length < bars.size() * 4) {
+            mLinePoints = new float[bars.size() * 4];
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            boolean rising = (pass == 0);
+            int color = getResources().getColor(rising ? R.color.profit : R.color.loss);
+
+            // volume, behind the candles.
+            if (highestVolume > 0) {
+                int count = 0;
+                for (int i = 0; i < bars.size(); i++) {
+                    if (!bars.isEmpty(i) && isRising(bars, i) == rising && bars.getVolume(i) > 0) {
+                        float x = i * deltaX;
+                        float height = viewHeight * VOLUME_HEIGHT * bars.getVolume(i) / highestVolume;
+                        count = addLine(count, x, volumeBottom, x, volumeBottom - height);
+                    }
+                }
+                mCandleBrush.setColor(ColorUtils.setAlphaComponent(color, VOLUME_ALPHA));
+                mCandleBrush.setStrokeWidth(bodyWidth);
+                mStaticLayerCanvas.drawLines(mLinePoints, 0, count, mCandleBrush);
+            }
+
+            // wicks, from the low to the high.
+            int count = 0;
+            for (int i = 0; i < bars.size(); i++) {
+                if (!bars.isEmpty(i) && isRising(bars, i) == rising) {
+                    float x = i * deltaX;
+                    count = addLine(count, x, getYPosition(bars.getLow(i)), x,
+                            getYPosition(bars.getHigh(i)));
+                }
+            }
+            mCandleBrush.setColor(color);
+            mCandleBrush.setStrokeWidth(Math.max(1, bodyWidth / 5));
+            mStaticLayerCanvas.drawLines(mLinePoints, 0, count, mCandleBrush);
+
+            // bodies, from the open to the close.
+            count = 0;
+            for (int i = 0; i < bars.size(); i++) {
+                if (!bars.isEmpty(i) && isRising(bars, i) == rising) {
+                    float x = i * deltaX;
+                    float open = getYPosition(bars.getOpen(i));
+                    float close = getYPosition(bars.getClose(i));
+                    if (Math.abs(open - close) < minBodyHeight) {
+                        // a bar that closed at its open is drawn as a thin body.
+                        close = open - minBodyHeight;
+                    }
+                    count = addLine(count, x, open, x, close);
+                }
+            }
+            mCandleBrush.setStrokeWidth(bodyWidth);
+            mStaticLayerCanvas.drawLines(mLinePoints, 0, count, mCandleBrush);
+        }
+    }
+
+    private static boolean isRising(OhlcvBars bars, int i) {
+        return bars.getClose(i) >= bars.getOpen(i);
+    }
+
+    /**
+     * Adds a line to mLinePoints, which holds the endpoints of the lines of a drawLines call.
+     *
+     * @param count the number of floats already in mLinePoints.
+     * @return      the number of floats in mLinePoints with the line added.
+     */
+    private int addLine(int count, float startX, float startY, float stopX, float stopY) {
+        mLinePoints[count] = startX;
+        mLinePoints[count + 1] = startY;
+        mLinePoints[count + 2] = stopX;
+        mLinePoints[count + 3] = stopY;
+        return count + 4;
+    }
+
+    /**
+     * Draws the technical indicators selected by the user into the static layer, on top of the
+     * series. The RSI has a scale of its own (0 to 100) and is drawn in a panel underneath the
+     * series, see drawRsiPanel(...).
+     *
+     * @param indicators    the indicators of the chart data in view.
+     * @param size          the number of entries of the chart data in view.
+     * @param deltaX        the horizontal distance between two entries.
+     */
+    private void drawIndicators(Indicators indicators, int size, float deltaX) {
+        Resources resources = getResources();
+        if ((mIndicators & Indicators.BOLLINGER) != 0) {
+            int color = resources.getColor(R.color.bollingerIndicator);
+            drawIndicatorLine(indicators, Indicators.UPPER_BAND, color, size, deltaX);
+            drawIndicatorLine(indicators, Indicators.LOWER_BAND, color, size, deltaX);
+        }
+        if ((mIndicators & Indicators.SMA) != 0) {
+            drawIndicatorLine(indicators, Indicators.SMA,
+                    resources.getColor(R.color.smaIndicator), size, deltaX);
+        }
+        if ((mIndicators & Indicators.EMA) != 0) {
+            drawIndicatorLine(indicators, Indicators.EMA,
+                    resources.getColor(R.color.emaIndicator), size, deltaX);
+        }
+        if ((mIndicators & Indicators.VWAP) != 0 && indicators.hasVolumes()) {
+            drawIndicatorLine(indicators, Indicators.VWAP,
+                    resources.getColor(R.color.vwapIndicator), size, deltaX);
+        }
+    }
+
+    /**
+     * Draws the RSI into its panel underneath the series, on a scale of 0 (bottom of the panel)
+     * to 100 (top of the panel) with the oversold and overbought levels marked.
+     *
+     * @param indicators    the indicators of the chart data in view.
+     * @param size          the number of entries of the chart data in view.
+     * @param deltaX        the horizontal distance between two entries.
+     */
+    private void drawRsiPanel(Indicators indicators, int size, float deltaX) {
+        float viewWidth = getWidth();
+        for (float level : RSI_LEVELS) {
+            float y = getRsiYPosition(level);
+            mIndicatorPath.reset();
+            mIndicatorPath.moveTo(0, y);
+            mIndicatorPath.lineTo(viewWidth, y);
+            mStaticLayerCanvas.drawPath(mIndicatorPath, mDottedBrush);
+        }
+        drawIndicatorLine(indicators, Indicators.RSI,
+                getResources().getColor(R.color.rsiIndicator), size, deltaX);
+    }
+
+    /**
+     * Draws the given line of an indicator into the static layer. Entries without a value are
+     * bridged, the same way the series bridges entries without a close.
+     *
+     * @param indicators    the indicators of the chart data in view.
+     * @param line          the line to draw, see Indicators.get(int, int).
+     * @param color         the color of the line.
+     * @param size          the number of entries of the chart data in view.
+     * @param deltaX        the horizontal distance between two entries.
+     */
+    private void drawIndicatorLine(Indicators indicators, int line, int color, int size,
+                                   float deltaX) {
+        mIndicatorPath.reset();
+        boolean empty = true;
+        for (int i = 0; i < size; i++) {
+            double value = indicators.get(line, i);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            float y = (line == Indicators.RSI) ? getRsiYPosition((float) value) :
+                    getYPosition((float) value);
+            if (empty) {
+                mIndicatorPath.moveTo(i * deltaX, y);
+                empty = false;
+            } else {
+                mIndicatorPath.lineTo(i * deltaX, y);
+            }
+        }
+        mIndicatorBrush.setColor(color);
+        mStaticLayerCanvas.drawPath(mIndicatorPath, mIndicatorBrush);
+    }
+
+    /**
+     * Draws the given horizontal section of the static layer onto the canvas.
+     *
+     * @param canvas    the canvas that is drawn upon.
+     * @param left      the left edge of the section.
+     * @param right     the right edge of the section.
+     * @param paint     the paint to draw the section with, null to draw it as is.
+     */
+    private void drawStaticLayer(Canvas canvas, float left, float right, Paint paint) {
+        if (right <= left) {
+            return;
+        }
+        canvas.save();
+        canvas.clipRect(left, 0, right, getHeight());
+        canvas.drawBitmap(mStaticLayer, 0, 0, paint);
+        canvas.restore();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // the static layer is recreated at the new size the next time it is drawn.
+        if (mStaticLayer != null) {
+            mStaticLayerCanvas.setBitmap(null);
+            mStaticLayer.recycle();
+            mStaticLayer = null;
+        }
+        mStaticLayerDirty = true;
     }
 
     /**
@@ -608,15 +1122,28 @@ public class StockChartView extends AbstractStockChartView {
         // rangeMin & rangeMax
         float viewHeight = getHeight();
 
-        float domainMin = mCurrentRangeData.getMin();
-        float domainMax = mCurrentRangeData.getMax();
+        float domainMin = mDomainMin;
+        float domainMax = mDomainMax;
 
-        float rangeMin = viewHeight * 0.95f;
+        float rangeMin = mSeriesBottom - viewHeight * 0.05f;
         float rangeMax = viewHeight * 0.15f;
 
         return (((rangeMax - rangeMin) * (price - domainMin)) / (domainMax - domainMin)) + rangeMin;
     }
 
+    /**
+     * Returns the vertical position of the given RSI value in the RSI panel.
+     *
+     * @param rsi   the RSI value, from 0 to 100.
+     * @return      the y position on the chart view that the value maps to.
+     */
+    private float getRsiYPosition(float rsi) {
+        float viewHeight = getHeight();
+        float panelTop = mSeriesBottom + viewHeight * 0.02f;
+        float panelBottom = viewHeight * 0.98f;
+        return panelBottom - (panelBottom - panelTop) * rsi / 100;
+    }
+
     /**
      * Invokes all current listeners of this view of the changes to the chart range.
      */
@@ -0,0 +1,83 @@
+package com.pocketprofit.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares the JSON results of a JMH run with a stored baseline and exits with a non-zero status
+ * if any benchmark got slower by more than the given tolerance. Scores are times per operation,
+ * so higher is worse.
+ *
+ * usage: BaselineCheck baseline.json results.json [tolerance, e.g. 0.10 for 10%]
+ */
+public final class BaselineCheck {
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineCheck baseline.json results.json [tolerance]");
+            System.exit(2);
+        }
+        if (!Files.exists(Paths.get(args[0]))) {
+            System.err.println("No baseline at " + args[0] + ", run jmhSaveBaseline first.");
+            System.exit(2);
+        }
+        double tolerance = (args.length > 2) ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, Double> baseline = readScores(args[0]);
+        Map<String, Double> results = readScores(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, Double> result : results.entrySet()) {
+            Double expected = baseline.get(result.getKey());
+            if (expected == null) {
+                System.out.println("NEW        " + result.getKey());
+                continue;
+            }
+            double change = (result.getValue() - expected) / expected;
+            String status = (change > tolerance) ? "REGRESSED" : "ok";
+            if (change > tolerance) {
+                regressions++;
+            }
+            System.out.println(String.format("%-10s %s %+.1f%% (%.3f -> %.3f)", status,
+                    result.getKey(), change * 100, expected, result.getValue()));
+        }
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than " +
+                    Math.round(tolerance * 100) + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return  benchmark name and parameters -> score, of the given JMH JSON results.
+     */
+    private static Map<String, Double> readScores(String path) throws IOException {
+        String json = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+        JSONArray runs = new JSONArray(json);
+        Map<String, Double> scores = new LinkedHashMap<String, Double>();
+        for (int i = 0; i < runs.length(); i++) {
+            JSONObject run = runs.getJSONObject(i);
+            StringBuilder key = new StringBuilder(run.getString("benchmark"));
+            JSONObject params = run.optJSONObject("params");
+            if (params != null) {
+                Iterator<String> names = params.keys();
+                while (names.hasNext()) {
+                    String name = names.next();
+                    key.append(' ').append(name).append('=').append(params.getString(name));
+                }
+            }
+            scores.put(key.toString(), run.getJSONObject("primaryMetric").getDouble("score"));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,75 @@
+package com.pocketprofit.benchmarks;
+
+import com.pocketprofit.source.stockchart.ChartParser;
+
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the chart data of a range, from payloads shaped like the responses of the
+ * PocketProfit server (1D: a price a minute, 5D: a price every 10 minutes, 5Y: a price a day).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChartParserBenchmark {
+
+    @Param({"1D", "5D", "5Y"})
+    public String range;
+
+    private String mPayload;
+    private JSONArray mResult;
+
+    @Setup
+    public void setup() throws IOException {
+        mPayload = readFixture("/fixtures/chart_" + range.toLowerCase() + ".json");
+        mResult = new JSONArray(mPayload);
+    }
+
+    /**
+     * Parsing of an already decoded response, which is what happens on the UI thread.
+     */
+    @Benchmark
+    public ChartParser.Result parse() {
+        return ChartParser.parse(range, 120.00, mResult);
+    }
+
+    /**
+     * Decoding and parsing of a response.
+     */
+    @Benchmark
+    public ChartParser.Result decodeAndParse() {
+        return ChartParser.parse(range, 120.00, new JSONArray(mPayload));
+    }
+
+    static String readFixture(String name) throws IOException {
+        InputStream in = ChartParserBenchmark.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Missing fixture " + name);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            in.close();
+        }
+    }
+}
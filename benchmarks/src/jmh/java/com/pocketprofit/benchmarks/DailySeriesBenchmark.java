@@ -0,0 +1,55 @@
+package com.pocketprofit.benchmarks;
+
+import com.pocketprofit.source.stockchart.ChartParser;
+import com.pocketprofit.source.stockchart.DailySeries;
+
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deriving the daily chart ranges (1M, 6M, 1Y and 5Y) from the five year series, which replaced
+ * requesting and parsing every range separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DailySeriesBenchmark {
+
+    @Param({"1M", "6M", "1Y", "5Y"})
+    public String range;
+
+    private JSONArray mResult;
+    private DailySeries mSeries;
+
+    @Setup
+    public void setup() throws IOException {
+        mResult = new JSONArray(ChartParserBenchmark.readFixture("/fixtures/chart_5y.json"));
+        mSeries = DailySeries.parse(mResult);
+    }
+
+    /**
+     * Parsing of the five year series, which is done once for all of the daily ranges.
+     */
+    @Benchmark
+    public DailySeries parse() {
+        return DailySeries.parse(mResult);
+    }
+
+    /**
+     * Deriving a range from an already parsed series.
+     */
+    @Benchmark
+    public ChartParser.Result getRange() {
+        return mSeries.getRange(range);
+    }
+}
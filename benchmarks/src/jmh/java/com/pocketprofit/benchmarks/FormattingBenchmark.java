@@ -0,0 +1,68 @@
+package com.pocketprofit.benchmarks;
+
+import com.pocketprofit.source.NumberFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of the numbers displayed while the user scrubs through a chart, compared with
+ * creating a DecimalFormat per call (which is what the app did before NumberFormatter).
+ * Run with -PjmhProfilers=gc to see the allocations per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormattingBenchmark {
+    private static final int VALUES = 1024;
+
+    private final double[] mPrices = new double[VALUES];
+    private int mIndex;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < VALUES; i++) {
+            mPrices[i] = random.nextDouble() * 3000;
+        }
+    }
+
+    private double nextPrice() {
+        mIndex = (mIndex + 1) & (VALUES - 1);
+        return mPrices[mIndex];
+    }
+
+    @Benchmark
+    public String formatPrice() {
+        return NumberFormatter.formatPrice(nextPrice(), true, true);
+    }
+
+    @Benchmark
+    public String formatPriceWithDecimalFormat() {
+        return "$" + new DecimalFormat("#,##0.00").format(nextPrice());
+    }
+
+    @Benchmark
+    public String formatPercentChange() {
+        return NumberFormatter.formatPercentChange(1500.00, nextPrice(), true, true);
+    }
+
+    @Benchmark
+    public String formatShort() {
+        return NumberFormatter.formatShort(nextPrice() / 1000, "K");
+    }
+
+    @Benchmark
+    public String formatShareCount() {
+        return NumberFormatter.formatShareCount((long) (nextPrice() * 1000));
+    }
+}
@@ -0,0 +1,78 @@
+package com.pocketprofit.benchmarks;
+
+import com.pocketprofit.source.stockchart.ChartParser;
+import com.pocketprofit.source.stockchart.Indicators;
+import com.pocketprofit.source.stockchart.OhlcvBars;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computing the technical indicators over the closes of a range, updating them with the last
+ * close of the range (a new intraday bar), and replacing the last close while its bar is still
+ * forming.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IndicatorsBenchmark {
+
+    @Param({"1D", "5Y"})
+    public String range;
+
+    private OhlcvBars mBars;
+    private OhlcvBars mPreviousBars;
+    // the bars with a different last close, and the indicators replaceLastClose() updates.
+    private OhlcvBars mUpdatedBars;
+    private Indicators mIndicators;
+    private boolean mUpdated;
+
+    @Setup
+    public void setup() throws IOException {
+        JSONArray result = new JSONArray(
+                ChartParserBenchmark.readFixture("/fixtures/chart_" + range.toLowerCase() + ".json"));
+        mBars = ChartParser.parse(range, 120.00, result).getBars();
+        mPreviousBars = mBars.slice(0, mBars.size() - 1);
+
+        JSONObject last = result.getJSONObject(result.length() - 1);
+        last.put("close", last.getDouble("close") + 0.01);
+        mUpdatedBars = ChartParser.parse(range, 120.00, result).getBars();
+        mIndicators = Indicators.compute(mBars);
+    }
+
+    @Benchmark
+    public Indicators compute() {
+        return Indicators.compute(mBars);
+    }
+
+    /**
+     * Computing the indicators without the last close, then adding it.
+     */
+    @Benchmark
+    public Indicators computeAndExtend() {
+        Indicators indicators = Indicators.compute(mPreviousBars);
+        indicators.extend(mBars);
+        return indicators;
+    }
+
+    /**
+     * Updating the indicators with a new close of the last bar, which costs as much as a single
+     * close however long the range is.
+     */
+    @Benchmark
+    public boolean replaceLastClose() {
+        mUpdated = !mUpdated;
+        return mIndicators.extend(mUpdated ? mUpdatedBars : mBars);
+    }
+}
@@ -0,0 +1,82 @@
+package com.pocketprofit.benchmarks;
+
+import com.pocketprofit.source.Money;
+import com.pocketprofit.source.portfolio.FifoLiquidation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selling every share of a holding that was bought in lots of 100 shares, a tenth of them today.
+ * The lots are copied by every call, as liquidating updates them in place.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LiquidationBenchmark {
+    private static final int SHARES_PER_LOT = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int shares;
+
+    private int[] mQuantities;
+    private long[] mCurrentPrices;
+    private long[] mPricesPaid;
+    private boolean[] mBoughtToday;
+    private long mPreviousClose;
+
+    @Setup
+    public void setup() {
+        int lots = shares / SHARES_PER_LOT;
+        Random random = new Random(42);
+        mQuantities = new int[lots];
+        mCurrentPrices = new long[lots];
+        mPricesPaid = new long[lots];
+        mBoughtToday = new boolean[lots];
+        long currentPrice = Money.toMicros(120.00);
+        for (int i = 0; i < lots; i++) {
+            mQuantities[i] = SHARES_PER_LOT;
+            mCurrentPrices[i] = currentPrice;
+            mPricesPaid[i] = Money.toMicros(80.00 + random.nextDouble() * 40);
+            mBoughtToday[i] = i >= lots - lots / 10;
+        }
+        mPreviousClose = Money.toMicros(118.50);
+    }
+
+    @Benchmark
+    public long liquidate() {
+        return FifoLiquidation.liquidate(mQuantities.clone(), mCurrentPrices, mPricesPaid,
+                mBoughtToday, mPreviousClose, shares).getAmountSold();
+    }
+
+    /**
+     * The share by share loop that DatabaseHelper.liquidateStock used before FifoLiquidation,
+     * kept as a reference point.
+     */
+    @Benchmark
+    public long liquidateShareByShare() {
+        int[] quantities = mQuantities.clone();
+        int sharesToSell = shares;
+        long amountSold = 0;
+        long amountChangedToday = 0;
+        for (int i = 0; i < quantities.length && sharesToSell > 0; i++) {
+            while (sharesToSell > 0 && quantities[i] != 0) {
+                long basis = mBoughtToday[i] ? mPricesPaid[i] : mPreviousClose;
+                amountChangedToday += mCurrentPrices[i] - basis;
+                amountSold += mCurrentPrices[i];
+                quantities[i]--;
+                sharesToSell--;
+            }
+        }
+        return amountSold + amountChangedToday;
+    }
+}
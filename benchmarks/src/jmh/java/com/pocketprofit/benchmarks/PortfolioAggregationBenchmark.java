@@ -0,0 +1,68 @@
+package com.pocketprofit.benchmarks;
+
+import com.pocketprofit.source.Money;
+import com.pocketprofit.source.portfolio.PortfolioMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computing the values displayed at the top of the main page (equity and today's gain/loss) for
+ * portfolios of different sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PortfolioAggregationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int holdings;
+
+    private int[] mQuantities;
+    private int[] mBoughtToday;
+    private long[] mLatestPrices;
+    private long[] mPreviousCloses;
+    private long[] mCostsOfSharesBoughtToday;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        mQuantities = new int[holdings];
+        mBoughtToday = new int[holdings];
+        mLatestPrices = new long[holdings];
+        mPreviousCloses = new long[holdings];
+        mCostsOfSharesBoughtToday = new long[holdings];
+        for (int i = 0; i < holdings; i++) {
+            mQuantities[i] = 1 + random.nextInt(500);
+            mBoughtToday[i] = random.nextInt(mQuantities[i] + 1);
+            double previousClose = 5 + random.nextDouble() * 1000;
+            mPreviousCloses[i] = Money.toMicros(previousClose);
+            mLatestPrices[i] = Money.toMicros(previousClose * (0.95 + random.nextDouble() / 10));
+            mCostsOfSharesBoughtToday[i] = mPreviousCloses[i] * mBoughtToday[i];
+        }
+    }
+
+    @Benchmark
+    public long totalEquity() {
+        return PortfolioMath.totalEquity(mQuantities, mLatestPrices);
+    }
+
+    @Benchmark
+    public long todaysProfit() {
+        long profit = 0;
+        for (int i = 0; i < holdings; i++) {
+            profit += PortfolioMath.todaysStockProfit(mLatestPrices[i], mPreviousCloses[i],
+                    mQuantities[i], mBoughtToday[i], mCostsOfSharesBoughtToday[i]);
+        }
+        return profit;
+    }
+}
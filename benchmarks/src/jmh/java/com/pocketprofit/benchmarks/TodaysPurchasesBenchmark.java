@@ -0,0 +1,116 @@
+package com.pocketprofit.benchmarks;
+
+import com.pocketprofit.source.Money;
+import com.pocketprofit.source.database.DatabaseTables.Stock;
+import com.pocketprofit.source.portfolio.TodaysPurchases;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the shares of a holding bought today and their cost from the database, for a holding
+ * bought in lots of 100 shares, every lot of them today. Summed up by the database
+ * (TodaysPurchases) compared with reading every lot and pushing one boxed price per share, the
+ * way the main page used to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TodaysPurchasesBenchmark {
+    private static final int SHARES_PER_LOT = 100;
+    private static final String SYMBOL = "MSFT";
+    private static final String DATE = "Oct 3rd 2020";
+
+    @Param({"100", "10000", "100000"})
+    public int shares;
+
+    private Connection mConnection;
+
+    @Setup
+    public void setup() throws SQLException {
+        mConnection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = mConnection.createStatement()) {
+            statement.execute("CREATE TABLE " + Stock.TABLE_NAME + " (" +
+                    Stock._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    Stock.COLUMN_NAME + " TEXT, " +
+                    Stock.COLUMN_SYMBOL + " TEXT, " +
+                    Stock.COLUMN_QUANTITY + " INTEGER, " +
+                    Stock.COLUMN_PRICE_PAID + " INTEGER, " +
+                    Stock.COLUMN_CURRENT_PRICE + " INTEGER, " +
+                    Stock.COLUMN_DATE + " TEXT)");
+        }
+        Random random = new Random(42);
+        String insert = "INSERT INTO " + Stock.TABLE_NAME + " (" + Stock.COLUMN_NAME + ", " +
+                Stock.COLUMN_SYMBOL + ", " + Stock.COLUMN_QUANTITY + ", " +
+                Stock.COLUMN_PRICE_PAID + ", " + Stock.COLUMN_CURRENT_PRICE + ", " +
+                Stock.COLUMN_DATE + ") VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = mConnection.prepareStatement(insert)) {
+            for (int i = 0; i < shares / SHARES_PER_LOT; i++) {
+                statement.setString(1, "Microsoft Corporation");
+                statement.setString(2, SYMBOL);
+                statement.setInt(3, SHARES_PER_LOT);
+                statement.setLong(4, Money.toMicros(80.00 + random.nextDouble() * 40));
+                statement.setLong(5, Money.toMicros(120.00));
+                statement.setString(6, DATE);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        mConnection.close();
+    }
+
+    @Benchmark
+    public long summedByDatabase() throws SQLException {
+        try (Statement statement = mConnection.createStatement();
+             ResultSet result = statement.executeQuery(TodaysPurchases.query(SYMBOL, DATE))) {
+            result.next();
+            return new TodaysPurchases(result.getInt(1), result.getLong(2)).getCost();
+        }
+    }
+
+    @Benchmark
+    public long boxedPricePerShare() throws SQLException {
+        String query = "SELECT * " +
+                "FROM " + Stock.TABLE_NAME + " " +
+                "WHERE " + Stock.COLUMN_SYMBOL + " = '" + SYMBOL + "' " +
+                "AND " + Stock.COLUMN_DATE + " = '" + DATE + "';";
+        Stack<Double> stockPurchasePrices = new Stack<>();
+        try (Statement statement = mConnection.createStatement();
+             ResultSet result = statement.executeQuery(query)) {
+            while (result.next()) {
+                int quantity = result.getInt(Stock.COLUMN_QUANTITY);
+                double pricePaid = Money.toDouble(result.getLong(Stock.COLUMN_PRICE_PAID));
+                while (quantity != 0) {
+                    stockPurchasePrices.push(pricePaid);
+                    quantity--;
+                }
+            }
+        }
+        long cost = 0;
+        for (double purchasePrice : stockPurchasePrices) {
+            cost += Money.toMicros(purchasePrice);
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,10 @@
+package android.provider;
+
+/**
+ * The columns of android.provider.BaseColumns, so that the app's DatabaseTables (and the queries
+ * built from them) compile without the Android SDK.
+ */
+public interface BaseColumns {
+    String _ID = "_id";
+    String _COUNT = "_count";
+}